@@ -0,0 +1,67 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.Chunk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Chunk generation on the calling thread, one chunk and a full render area
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+
+    @Param({"42", "1337"})
+    long seed;
+
+    @Param({"2", "8"})
+    int renderDistance;
+
+    private Terrain terrain;
+    private int chunkX;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        terrain = new Terrain(seed, renderDistance);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        terrain.cleanup();
+    }
+
+    @Benchmark
+    public Chunk generateChunk() {
+        Chunk chunk = new Chunk();
+        terrain.generateChunk(chunk, chunkX++, 0);
+        return chunk;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void generateArea(Blackhole blackhole) {
+        for (int x = -renderDistance; x <= renderDistance; x++) {
+            for (int z = -renderDistance; z <= renderDistance; z++) {
+                Chunk chunk = new Chunk();
+                terrain.generateChunk(chunk, x, z);
+                blackhole.consume(chunk);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.Chunk;
+import com.minecraft.graphics.MeshBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Meshing of pre-generated chunks. The area is generated once per trial with
+// one ring of extra chunks so every meshed chunk has all of its neighbours.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeshingBenchmark {
+
+    @Param({"42", "1337"})
+    long seed;
+
+    @Param({"2", "8"})
+    int renderDistance;
+
+    @Param({"0", "1"})
+    int enableCulling;
+
+    @Param({"0", "1"})
+    int greedyMeshing;
+
+    @Param({"0", "1"})
+    int binaryMeshing;
+
+    private Terrain terrain;
+    private final MeshBuilder builder = new MeshBuilder();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        terrain = new Terrain(seed, renderDistance);
+        terrain.setEnableCulling(enableCulling);
+        terrain.setGreedyMeshing(greedyMeshing);
+        terrain.setBinaryMeshing(binaryMeshing);
+        for (int x = -renderDistance - 1; x <= renderDistance + 1; x++) {
+            for (int z = -renderDistance - 1; z <= renderDistance + 1; z++) {
+                Chunk chunk = new Chunk();
+                terrain.generateChunk(chunk, x, z);
+                terrain.putChunk(x, z, chunk);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        terrain.cleanup();
+    }
+
+    @Benchmark
+    public int meshChunk() {
+        builder.reset();
+        terrain.meshChunk(0, 0, builder);
+        return builder.getVertexCount();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long meshArea() {
+        long vertices = 0;
+        for (int x = -renderDistance; x <= renderDistance; x++) {
+            for (int z = -renderDistance; z <= renderDistance; z++) {
+                builder.reset();
+                terrain.meshChunk(x, z, builder);
+                vertices += builder.getVertexCount();
+            }
+        }
+        return vertices;
+    }
+}
@@ -0,0 +1,87 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.Chunk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Single samples and whole-chunk heightmaps. Coordinates advance every call
+// so the JIT cannot fold the noise into a constant.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoiseBenchmark {
+
+    @Param({"42", "1337"})
+    long seed;
+
+    private HeightmapGenerator scalar;
+    private HeightmapGenerator preferred;
+    private final int[] heights = new int[Chunk.CHUNK_WIDTH * Chunk.CHUNK_DEPTH];
+    private int x;
+
+    @Setup
+    public void setup() {
+        scalar = new HeightmapGenerator(seed);
+        preferred = HeightmapGenerator.create(seed);
+    }
+
+    @Benchmark
+    public double perlinNoise() {
+        x++;
+        return scalar.perlinNoise(x * 0.008, 17.3);
+    }
+
+    @Benchmark
+    public double octaveNoise() {
+        x++;
+        return scalar.octaveNoise(x, 173, HeightmapGenerator.BASE_FREQUENCY, HeightmapGenerator.BASE_OCTAVES, HeightmapGenerator.BASE_PERSISTENCE);
+    }
+
+    @Benchmark
+    public int height() {
+        x++;
+        return scalar.height(x, 173);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] heightmapPerColumn() {
+        x += Chunk.CHUNK_WIDTH;
+        for (int z = 0; z < Chunk.CHUNK_DEPTH; z++) {
+            for (int i = 0; i < Chunk.CHUNK_WIDTH; i++) {
+                heights[i + z * Chunk.CHUNK_WIDTH] = scalar.height(x + i, z);
+            }
+        }
+        return heights;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] heightmapScalar() {
+        x += Chunk.CHUNK_WIDTH;
+        scalar.heightmap(x, 0, Chunk.CHUNK_WIDTH, Chunk.CHUNK_DEPTH, heights);
+        return heights;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] heightmapPreferred() {
+        x += Chunk.CHUNK_WIDTH;
+        preferred.heightmap(x, 0, Chunk.CHUNK_WIDTH, Chunk.CHUNK_DEPTH, heights);
+        return heights;
+    }
+}
@@ -0,0 +1,87 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.ChunkMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-frame streaming cost. stationary and borderCrossing drive ChunkStreamer
+// against a ChunkMap the way Terrain.update does; fullScan is the previous
+// update, which walked the whole grid and filtered every loaded chunk each frame
+// whether or not the player had moved.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamingBenchmark {
+
+    @Param({"4", "8", "16", "32"})
+    int renderDistance;
+
+    @Param({"false", "true"})
+    boolean circular;
+
+    private final Object value = new Object();
+    private ChunkMap<Object> loaded;
+    private ChunkStreamer streamer;
+    private ChunkStreamer.Sink sink;
+    private int step;
+
+    @Setup
+    public void setup() {
+        loaded = new ChunkMap<>();
+        sink = new ChunkStreamer.Sink() {
+            @Override
+            public void load(int chunkX, int chunkZ) {
+                loaded.put(chunkX, chunkZ, value);
+            }
+
+            @Override
+            public void unload(int chunkX, int chunkZ) {
+                loaded.remove(chunkX, chunkZ);
+            }
+        };
+        streamer = new ChunkStreamer(renderDistance, circular);
+        streamer.moveTo(0, 0, sink);
+    }
+
+    @Benchmark
+    public boolean stationary() {
+        return streamer.moveTo(0, 0, sink);
+    }
+
+    // Walks back and forth across one chunk border, one crossing per call
+    @Benchmark
+    public boolean borderCrossing() {
+        step ^= 1;
+        return streamer.moveTo(step, 0, sink);
+    }
+
+    @Benchmark
+    public int fullScan() {
+        int r = renderDistance;
+        loaded.removeIf((chunkX, chunkZ, v) -> Math.abs(chunkX) > r || Math.abs(chunkZ) > r);
+        int missing = 0;
+        for (int x = -r; x <= r; x++) {
+            for (int z = -r; z <= r; z++) {
+                if (loaded.get(x, z) == null) {
+                    loaded.put(x, z, value);
+                    missing++;
+                }
+            }
+        }
+        return missing;
+    }
+}
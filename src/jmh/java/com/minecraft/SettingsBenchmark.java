@@ -0,0 +1,57 @@
+package com.minecraft;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettingsBenchmark {
+
+    // same keys as the shipped settings.json
+    private static final String CONTENT = "{\n"
+            + "  \"renderDistance\": 6,\n"
+            + "  \"nearClip\": 0.1,\n"
+            + "  \"farClip\": 1000.0,\n"
+            + "  \"enableCulling\": 1,\n"
+            + "  \"greedyMeshing\": 0,\n"
+            + "  \"uploadBudgetMs\": 4.0,\n"
+            + "  \"uploadBudgetKB\": 8192\n"
+            + "}\n";
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("settings", ".json");
+        Files.writeString(file, CONTENT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Settings load() {
+        return Settings.load(file.toString());
+    }
+}
@@ -0,0 +1,95 @@
+package com.minecraft.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// ChunkMap against the map it replaced: a ConcurrentHashMap keyed by "x_z"
+// strings. Each benchmark does what the terrain does once per loaded chunk
+// and frame: look up every chunk within the render distance, and walk every
+// loaded chunk with its coordinates, which the string keys gave only through
+// split and parseInt.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkMapBenchmark {
+
+    @Param({"8", "16"})
+    int renderDistance;
+
+    private final ChunkMap<Chunk> chunkMap = new ChunkMap<>();
+    private final Map<String, Chunk> stringMap = new ConcurrentHashMap<>();
+    private long sum;
+    private final ChunkMap.Visitor<Chunk> sumCoordinates = (chunkX, chunkZ, chunk) -> sum += chunkX + chunkZ;
+
+    @Setup
+    public void setup() {
+        for (int x = -renderDistance; x <= renderDistance; x++) {
+            for (int z = -renderDistance; z <= renderDistance; z++) {
+                Chunk chunk = new Chunk();
+                chunkMap.put(x, z, chunk);
+                stringMap.put(x + "_" + z, chunk);
+            }
+        }
+    }
+
+    @Benchmark
+    public int getChunkMap() {
+        int found = 0;
+        for (int x = -renderDistance; x <= renderDistance; x++) {
+            for (int z = -renderDistance; z <= renderDistance; z++) {
+                if (chunkMap.get(x, z) != null) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int getStringMap() {
+        int found = 0;
+        for (int x = -renderDistance; x <= renderDistance; x++) {
+            for (int z = -renderDistance; z <= renderDistance; z++) {
+                if (stringMap.get(x + "_" + z) != null) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public long forEachChunkMap() {
+        sum = 0;
+        chunkMap.forEach(sumCoordinates);
+        return sum;
+    }
+
+    @Benchmark
+    public long forEachStringMap() {
+        long total = 0;
+        for (Map.Entry<String, Chunk> entry : stringMap.entrySet()) {
+            String[] parts = entry.getKey().split("_");
+            int chunkX = Integer.parseInt(parts[0]);
+            int chunkZ = Integer.parseInt(parts[1]);
+            total += chunkX + chunkZ;
+        }
+        return total;
+    }
+}
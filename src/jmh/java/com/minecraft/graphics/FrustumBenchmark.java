@@ -0,0 +1,77 @@
+package com.minecraft.graphics;
+
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Frustum culling of the chunk sections within a render distance, as the
+// per-frame test against every loaded section, plus extracting the planes.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrustumBenchmark {
+    private static final int SECTIONS = 16;
+
+    @Param({"8", "16"})
+    int renderDistance;
+
+    private final Matrix4f projection = new Matrix4f();
+    private final Matrix4f view = new Matrix4f();
+    private final Matrix4f projView = new Matrix4f();
+    private final Frustum frustum = new Frustum();
+    // min corners of every 16^3 section, x y z per box
+    private float[] boxes;
+
+    @Setup
+    public void setup() {
+        projection.perspective((float) Math.toRadians(70.0f), 16 / 9.0f, 0.1f, renderDistance * 16.0f);
+        view.rotateX((float) Math.toRadians(15.0f)).rotateY((float) Math.toRadians(30.0f)).translate(-8, -80, -8);
+        frustum.update(projection.mul(view, projView));
+        int width = 2 * renderDistance + 1;
+        boxes = new float[width * width * SECTIONS * 3];
+        int i = 0;
+        for (int x = -renderDistance; x <= renderDistance; x++) {
+            for (int z = -renderDistance; z <= renderDistance; z++) {
+                for (int y = 0; y < SECTIONS; y++) {
+                    boxes[i++] = x * 16;
+                    boxes[i++] = y * 16;
+                    boxes[i++] = z * 16;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int cullSections() {
+        int visible = 0;
+        for (int i = 0; i < boxes.length; i += 3) {
+            float x = boxes[i];
+            float y = boxes[i + 1];
+            float z = boxes[i + 2];
+            if (frustum.intersectsAabb(x, y, z, x + 16, y + 16, z + 16)) {
+                visible++;
+            }
+        }
+        return visible;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Frustum update() {
+        return frustum.update(projection.mul(view, projView));
+    }
+}
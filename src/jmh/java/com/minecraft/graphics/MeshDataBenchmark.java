@@ -0,0 +1,51 @@
+package com.minecraft.graphics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Upload preparation: writing quads into the pooled buffers and handing them
+// off as MeshData, which is everything a worker does before the GL thread
+// takes over. The data is released straight back to the pool.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeshDataBenchmark {
+
+    // roughly a culled greedy chunk, a culled chunk and an unculled chunk
+    @Param({"100", "1000", "20000"})
+    int quads;
+
+    private final MeshBuilder builder = new MeshBuilder();
+
+    @Benchmark
+    public int buildAndFinish() {
+        builder.reset();
+        for (int i = 0; i < quads; i++) {
+            int x = i & 15;
+            int y = (i >> 8) & 255;
+            int z = (i >> 4) & 15;
+            builder.quad(x, y + 1, z, 0, 0,
+                    x, y + 1, z + 1, 0, 1,
+                    x + 1, y + 1, z + 1, 1, 1,
+                    x + 1, y + 1, z, 1, 0,
+                    i % 6, 0);
+        }
+        MeshData data = builder.finish();
+        int bytes = data.getByteSize();
+        data.release();
+        return bytes;
+    }
+}
@@ -0,0 +1,115 @@
+package com.minecraft;
+
+import com.minecraft.Generation.LodTerrain;
+import com.minecraft.Generation.SectionOcclusionCuller;
+import com.minecraft.Generation.Terrain;
+import com.minecraft.core.Chunk;
+import com.minecraft.core.ChunkMap;
+import com.minecraft.graphics.ArenaMesh;
+import com.minecraft.graphics.DrawCommandBuffer;
+import com.minecraft.graphics.Frustum;
+import com.minecraft.graphics.RenderBackend;
+import com.minecraft.profiling.FrameProfiler;
+import org.joml.Matrix4f;
+
+// One frame of the game loop: streams terrain around the camera, culls the
+// loaded chunks and hands the draw list to the RenderBackend. Nothing here
+// touches GL, and a frame allocates nothing once the terrain around the
+// camera is loaded. Render thread only.
+public class FrameRenderer {
+    private final Terrain terrain;
+    private final RenderBackend backend;
+    private final FrameProfiler profiler;
+    // null when occlusion culling is off
+    private final SectionOcclusionCuller occlusionCuller;
+    private final Frustum frustum = new Frustum();
+    private final Matrix4f projView = new Matrix4f();
+    private final DrawCommandBuffer drawCommands = new DrawCommandBuffer();
+    // bound once, so culling does not allocate a method reference per frame
+    private final ChunkMap.Visitor<Chunk> renderChunk = this::renderChunk;
+    private final LodTerrain.Visitor renderLodTile = this::renderLodTile;
+    private int visibleChunks;
+    private int culledChunks;
+
+    public FrameRenderer(Terrain terrain, RenderBackend backend, FrameProfiler profiler,
+                         SectionOcclusionCuller occlusionCuller) {
+        this.terrain = terrain;
+        this.backend = backend;
+        this.profiler = profiler;
+        this.occlusionCuller = occlusionCuller;
+    }
+
+    public void render(float cameraX, float cameraY, float cameraZ, Matrix4f projection, Matrix4f view) {
+        profiler.beginFrame();
+        int playerChunkX = (int) Math.floor(cameraX / Chunk.CHUNK_WIDTH);
+        int playerChunkZ = (int) Math.floor(cameraZ / Chunk.CHUNK_DEPTH);
+        terrain.update(playerChunkX, playerChunkZ);
+        profiler.end(FrameProfiler.Phase.TERRAIN_UPDATE);
+
+        ChunkMap<Chunk> loadedChunks = terrain.generateMeshes();
+        backend.compact();
+        profiler.end(FrameProfiler.Phase.MESH_UPLOAD);
+
+        backend.beginFrame(projection, view);
+        frustum.update(projection.mul(view, projView));
+        profiler.end(FrameProfiler.Phase.UNIFORMS);
+
+        visibleChunks = 0;
+        culledChunks = 0;
+        drawCommands.reset();
+        if (occlusionCuller != null && occlusionCuller.cull(loadedChunks, frustum,
+                cameraX, cameraY, cameraZ, drawCommands)) {
+            visibleChunks = occlusionCuller.getChunksDrawn();
+            culledChunks = occlusionCuller.getChunksSkipped();
+        } else {
+            loadedChunks.forEach(renderChunk);
+        }
+        if (terrain.getLod() != null) {
+            terrain.getLod().forEachMesh(renderLodTile);
+        }
+        backend.draw(drawCommands);
+        profiler.end(FrameProfiler.Phase.DRAW);
+
+        backend.endFrame();
+        profiler.end(FrameProfiler.Phase.SWAP);
+        profiler.endFrame();
+    }
+
+    private void renderChunk(int chunkX, int chunkZ, Chunk chunk) {
+        ArenaMesh mesh = chunk.getMesh();
+        if (mesh == null) {
+            return;
+        }
+        float minX = chunkX * Chunk.CHUNK_WIDTH;
+        float minZ = chunkZ * Chunk.CHUNK_DEPTH;
+        if (!frustum.intersectsAabb(minX, chunk.getMinY(), minZ,
+                minX + Chunk.CHUNK_WIDTH, chunk.getMaxY() + 1, minZ + Chunk.CHUNK_DEPTH)) {
+            culledChunks++;
+            return;
+        }
+        visibleChunks++;
+        drawCommands.add(mesh, minX, minZ);
+    }
+
+    private void renderLodTile(ArenaMesh mesh, int originX, int originZ, int size, int minY, int maxY) {
+        if (!frustum.intersectsAabb(originX, minY, originZ, originX + size, maxY, originZ + size)) {
+            culledChunks++;
+            return;
+        }
+        visibleChunks++;
+        drawCommands.add(mesh, originX, originZ);
+    }
+
+    public DrawCommandBuffer getDrawCommands() {
+        return drawCommands;
+    }
+
+    // Chunks (and LOD tiles) drawn and culled last frame
+    public int getVisibleChunks() {
+        return visibleChunks;
+    }
+
+    public int getCulledChunks() {
+        return culledChunks;
+    }
+}
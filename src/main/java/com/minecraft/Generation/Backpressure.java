@@ -0,0 +1,106 @@
+package com.minecraft.Generation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+// A limit on the work waiting for one stage of the chunk pipeline. Workers of
+// the stage before it call awaitRoom() before starting a job and wait while the
+// backlog is at the limit; whoever drains the backlog calls signal(). Only
+// workers wait: the render thread submits without checking, so a full stage
+// never blocks a frame.
+//
+// A lock and condition rather than synchronized, so waiting virtual threads
+// do not pin their carrier. Waiters also recheck every few milliseconds, so a
+// backlog that shrinks without a signal (cancelled jobs) is noticed.
+public class Backpressure {
+    private static final long RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final IntSupplier backlog;
+    private volatile int limit;
+    private volatile boolean closed;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition room = lock.newCondition();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong stalls = new AtomicLong();
+    private final AtomicLong stalledNanos = new AtomicLong();
+
+    public Backpressure(IntSupplier backlog, int limit) {
+        this.backlog = backlog;
+        this.limit = limit;
+    }
+
+    public void awaitRoom() {
+        if (closed || backlog.getAsInt() < limit) {
+            return;
+        }
+        long start = System.nanoTime();
+        stalls.incrementAndGet();
+        waiting.incrementAndGet();
+        lock.lock();
+        try {
+            while (!closed && backlog.getAsInt() >= limit) {
+                room.awaitNanos(RECHECK_NANOS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+            waiting.decrementAndGet();
+            stalledNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    // Wakes waiting workers to recheck the backlog; free when nobody waits
+    public void signal() {
+        if (waiting.get() == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            room.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Lets every waiter through from now on, for shutting down
+    public void close() {
+        closed = true;
+        lock.lock();
+        try {
+            room.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+        signal();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getBacklog() {
+        return backlog.getAsInt();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    // Times a worker had to wait, and the total time spent waiting
+    public long getStalls() {
+        return stalls.get();
+    }
+
+    public long getStalledNanos() {
+        return stalledNanos.get();
+    }
+}
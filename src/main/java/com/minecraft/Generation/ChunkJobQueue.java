@@ -0,0 +1,240 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.ChunkMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Generation and meshing jobs, at most one per chunk, run on the worker pool
+// nearest to the player first. Every submit hands the pool one "run the best
+// job" task, so the order is decided when a worker becomes free rather than
+// when the job was queued. Cancelled jobs are skipped when they reach the head.
+//
+// As a pipeline stage, the queue's depth can be bounded for the stage feeding
+// it (getBackpressure), and its own workers can wait for room downstream
+// before taking a job (setDownstream).
+public class ChunkJobQueue {
+    public enum Kind {
+        GENERATE,
+        MESH
+    }
+
+    public interface Worker {
+        void run(int chunkX, int chunkZ, Kind kind);
+    }
+
+    private static final class Job {
+        final int chunkX;
+        final int chunkZ;
+        final Kind kind;
+        boolean cancelled;
+
+        Job(int chunkX, int chunkZ, Kind kind) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.kind = kind;
+        }
+    }
+
+    private final Executor executor;
+    private final Worker worker;
+    private final PriorityQueue<Job> queue = new PriorityQueue<>(this::compare);
+    // live (queued, not cancelled) jobs by chunk
+    private final ChunkMap<Job> queued = new ChunkMap<>();
+    // no limit until a stage feeding this one sets it
+    private final Backpressure backpressure = new Backpressure(this::getQueueDepth, Integer.MAX_VALUE);
+    private Backpressure[] downstream = new Backpressure[0];
+    private int centerX;
+    private int centerZ;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong[] completedByKind = new AtomicLong[Kind.values().length];
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong wasted = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicInteger peakDepth = new AtomicInteger();
+
+    public ChunkJobQueue(Executor executor, Worker worker) {
+        this.executor = executor;
+        this.worker = worker;
+        for (int i = 0; i < completedByKind.length; i++) {
+            completedByKind[i] = new AtomicLong();
+        }
+    }
+
+    // Limits this stage's workers wait on before each job
+    public void setDownstream(Backpressure... downstream) {
+        this.downstream = downstream;
+    }
+
+    // Bounds this queue's depth for the workers of the stage feeding it
+    public Backpressure getBackpressure() {
+        return backpressure;
+    }
+
+    private int compare(Job a, Job b) {
+        int da = distanceSquared(a);
+        int db = distanceSquared(b);
+        if (da != db) {
+            return Integer.compare(da, db);
+        }
+        // terrain before meshes at the same distance, so neighbours exist when meshing
+        return a.kind.compareTo(b.kind);
+    }
+
+    private int distanceSquared(Job job) {
+        int dx = job.chunkX - centerX;
+        int dz = job.chunkZ - centerZ;
+        return dx * dx + dz * dz;
+    }
+
+    // Moves the priority centre. The heap is rebuilt only when the centre changes.
+    public synchronized void setCenter(int chunkX, int chunkZ) {
+        if (chunkX == centerX && chunkZ == centerZ) {
+            return;
+        }
+        centerX = chunkX;
+        centerZ = chunkZ;
+        List<Job> jobs = new ArrayList<>(queue.size());
+        for (Job job : queue) {
+            if (!job.cancelled) {
+                jobs.add(job);
+            }
+        }
+        queue.clear();
+        queue.addAll(jobs);
+    }
+
+    // Returns false if the chunk already has a queued job, or the workers were shut down
+    public synchronized boolean submit(int chunkX, int chunkZ, Kind kind) {
+        if (queued.get(chunkX, chunkZ) != null) {
+            duplicates.incrementAndGet();
+            return false;
+        }
+        Job job = new Job(chunkX, chunkZ, kind);
+        queued.put(chunkX, chunkZ, job);
+        queue.add(job);
+        peakDepth.accumulateAndGet(queued.size(), Math::max);
+        try {
+            executor.execute(this::runNext);
+        } catch (RejectedExecutionException e) {
+            queued.remove(chunkX, chunkZ);
+            queue.remove(job);
+            return false;
+        }
+        return true;
+    }
+
+    // Drops the chunk's queued job, if any. A job that is already running is
+    // not interrupted; the worker discards its result and calls recordWasted.
+    public synchronized void cancel(int chunkX, int chunkZ) {
+        Job job = queued.remove(chunkX, chunkZ);
+        if (job != null) {
+            job.cancelled = true;
+            cancelled.incrementAndGet();
+            backpressure.signal();
+        }
+    }
+
+    private synchronized Job poll() {
+        Job job;
+        do {
+            job = queue.poll();
+        } while (job != null && job.cancelled);
+        if (job != null) {
+            queued.remove(job.chunkX, job.chunkZ);
+            backpressure.signal();
+        }
+        return job;
+    }
+
+    private void runNext() {
+        for (Backpressure limit : downstream) {
+            limit.awaitRoom();
+        }
+        Job job = poll();
+        if (job == null) {
+            return;
+        }
+        running.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            worker.run(job.chunkX, job.chunkZ, job.kind);
+        } finally {
+            busyNanos.addAndGet(System.nanoTime() - start);
+            running.decrementAndGet();
+            completed.incrementAndGet();
+            completedByKind[job.kind.ordinal()].incrementAndGet();
+        }
+    }
+
+    public void recordWasted() {
+        wasted.incrementAndGet();
+    }
+
+    public int getQueueDepth() {
+        return queued.size();
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getCompleted(Kind kind) {
+        return completedByKind[kind.ordinal()].get();
+    }
+
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    public long getCancelled() {
+        return cancelled.get();
+    }
+
+    public long getWasted() {
+        return wasted.get();
+    }
+
+    public int getPeakQueueDepth() {
+        return peakDepth.get();
+    }
+
+    // Time spent running jobs, summed over workers
+    public long getBusyNanos() {
+        return busyNanos.get();
+    }
+
+    // Times a worker waited for room downstream, and how long in total
+    public long getStalls() {
+        long stalls = 0;
+        for (Backpressure limit : downstream) {
+            stalls += limit.getStalls();
+        }
+        return stalls;
+    }
+
+    public long getStalledNanos() {
+        long nanos = 0;
+        for (Backpressure limit : downstream) {
+            nanos += limit.getStalledNanos();
+        }
+        return nanos;
+    }
+
+    public String summary() {
+        return String.format("jobs %d queued, %d running, %d done, %d cancelled, %d wasted",
+                getQueueDepth(), getRunning(), getCompleted(), getCancelled(), getWasted());
+    }
+}
@@ -0,0 +1,72 @@
+package com.minecraft.Generation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Running totals for where loaded chunks came from, updated from the worker threads
+public class ChunkLoadStats {
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong generateNanos = new AtomicLong();
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+    private final AtomicLong saved = new AtomicLong();
+    // time from entering the loaded area to the first finished mesh, guarded by this
+    private long[] readyLatencies = new long[256];
+    private int readyCount;
+
+    public void recordGenerated(long elapsedNanos) {
+        generated.incrementAndGet();
+        generateNanos.addAndGet(elapsedNanos);
+    }
+
+    public void recordLoaded(long elapsedNanos) {
+        loaded.incrementAndGet();
+        loadNanos.addAndGet(elapsedNanos);
+    }
+
+    public void recordSaved() {
+        saved.incrementAndGet();
+    }
+
+    public synchronized void recordReady(long latencyNanos) {
+        if (readyCount == readyLatencies.length) {
+            readyLatencies = Arrays.copyOf(readyLatencies, readyCount * 2);
+        }
+        readyLatencies[readyCount++] = latencyNanos;
+    }
+
+    public synchronized int getReady() {
+        return readyCount;
+    }
+
+    // Nearest-rank percentile of the load-to-ready latencies, 0 if none were recorded
+    public synchronized long readyLatencyPercentile(double percentile) {
+        if (readyCount == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(readyLatencies, readyCount);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * readyCount);
+        return sorted[Math.max(0, Math.min(readyCount - 1, rank - 1))];
+    }
+
+    public long getGenerated() {
+        return generated.get();
+    }
+
+    public long getLoaded() {
+        return loaded.get();
+    }
+
+    public long getSaved() {
+        return saved.get();
+    }
+
+    public String summary() {
+        return String.format("Chunk loading: %d generated (avg %.3f ms), %d read from disk (avg %.3f ms), %d queued for saving, "
+                        + "load to ready p50 %.1f ms / p99 %.1f ms",
+                generated.get(), generateNanos.get() / 1_000_000.0 / Math.max(1, generated.get()),
+                loaded.get(), loadNanos.get() / 1_000_000.0 / Math.max(1, loaded.get()),
+                saved.get(), readyLatencyPercentile(50) / 1_000_000.0, readyLatencyPercentile(99) / 1_000_000.0);
+    }
+}
@@ -0,0 +1,131 @@
+package com.minecraft.Generation;
+
+// Tracks which chunks should be loaded around the player and reports only the
+// changes. The loaded area is described per column of chunks as an interval of
+// z offsets, so moving the centre compares two intervals per column: a move of
+// one chunk costs O(radius) instead of a scan of the whole (2r+1)^2 grid, and
+// staying in the same chunk costs nothing.
+public class ChunkStreamer {
+    public interface Sink {
+        void load(int chunkX, int chunkZ);
+
+        void unload(int chunkX, int chunkZ);
+    }
+
+    private final int radius;
+    // halfExtent[dx + radius] = how far the area reaches in z at x offset dx
+    private final int[] halfExtent;
+    private boolean started;
+    private int centerX;
+    private int centerZ;
+
+    // A circular area keeps chunks whose offset satisfies dx^2 + dz^2 <= r^2 + r,
+    // i.e. within r + 0.5 of the centre, which avoids single-chunk spikes at the axes
+    public ChunkStreamer(int radius, boolean circular) {
+        this.radius = radius;
+        this.halfExtent = new int[2 * radius + 1];
+        for (int dx = -radius; dx <= radius; dx++) {
+            int extent = radius;
+            if (circular) {
+                extent = 0;
+                while (extent < radius && dx * dx + (extent + 1) * (extent + 1) <= radius * radius + radius) {
+                    extent++;
+                }
+            }
+            halfExtent[dx + radius] = extent;
+        }
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public boolean contains(int chunkX, int chunkZ) {
+        return started && contains(centerX, centerZ, chunkX, chunkZ);
+    }
+
+    // Whether the chunk is in the area centred on (originX, originZ)
+    public boolean contains(int originX, int originZ, int chunkX, int chunkZ) {
+        int dx = chunkX - originX;
+        if (dx < -radius || dx > radius) {
+            return false;
+        }
+        int extent = halfExtent[dx + radius];
+        int dz = chunkZ - originZ;
+        return dz >= -extent && dz <= extent;
+    }
+
+    // Number of chunks in the area
+    public int area() {
+        int count = 0;
+        for (int extent : halfExtent) {
+            count += 2 * extent + 1;
+        }
+        return count;
+    }
+
+    // Reports the chunks leaving and entering the area when the centre moves to
+    // (chunkX, chunkZ). Returns false, without calling the sink, if it has not moved.
+    public boolean moveTo(int chunkX, int chunkZ, Sink sink) {
+        if (started && chunkX == centerX && chunkZ == centerZ) {
+            return false;
+        }
+        if (!started) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                int extent = halfExtent[dx + radius];
+                for (int dz = -extent; dz <= extent; dz++) {
+                    sink.load(chunkX + dx, chunkZ + dz);
+                }
+            }
+        } else {
+            // unload first so a sink that recycles chunks has them back before loading
+            diff(centerX, centerZ, chunkX, chunkZ, sink, false);
+            diff(chunkX, chunkZ, centerX, centerZ, sink, true);
+        }
+        started = true;
+        centerX = chunkX;
+        centerZ = chunkZ;
+        return true;
+    }
+
+    // Reports every chunk of the area around (fromX, fromZ) that is not in the
+    // area around (otherX, otherZ), as loads or unloads
+    private void diff(int fromX, int fromZ, int otherX, int otherZ, Sink sink, boolean load) {
+        for (int dx = -radius; dx <= radius; dx++) {
+            int x = fromX + dx;
+            int extent = halfExtent[dx + radius];
+            int low = fromZ - extent;
+            int high = fromZ + extent;
+
+            int otherDx = x - otherX;
+            int otherLow = Integer.MAX_VALUE;
+            int otherHigh = Integer.MIN_VALUE;
+            if (otherDx >= -radius && otherDx <= radius) {
+                int otherExtent = halfExtent[otherDx + radius];
+                otherLow = otherZ - otherExtent;
+                otherHigh = otherZ + otherExtent;
+            }
+
+            // [low, high] minus [otherLow, otherHigh]: at most two runs
+            int firstEnd = Math.min(high, otherLow - 1);
+            for (int z = low; z <= firstEnd; z++) {
+                report(sink, load, x, z);
+            }
+            int secondStart = Math.max(low, otherHigh + 1);
+            if (otherLow > otherHigh) {
+                secondStart = Math.max(secondStart, firstEnd + 1);
+            }
+            for (int z = secondStart; z <= high; z++) {
+                report(sink, load, x, z);
+            }
+        }
+    }
+
+    private static void report(Sink sink, boolean load, int chunkX, int chunkZ) {
+        if (load) {
+            sink.load(chunkX, chunkZ);
+        } else {
+            sink.unload(chunkX, chunkZ);
+        }
+    }
+}
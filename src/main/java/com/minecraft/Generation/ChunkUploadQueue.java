@@ -0,0 +1,135 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.Chunk;
+import com.minecraft.core.ChunkMap;
+
+import java.util.Arrays;
+
+// Chunks whose meshes are ready for the GPU. Worker threads submit chunk
+// coordinates; once per frame the render thread uploads the ones nearest the
+// player until the frame's time or byte budget is spent. The rest wait for the
+// next frame. At least one chunk is uploaded per frame so the queue always drains.
+public class ChunkUploadQueue {
+    private static final long CONSUMED = Long.MIN_VALUE;
+
+    public interface Uploader {
+        void upload(Chunk chunk);
+    }
+
+    private final long budgetNanos;
+    private final long budgetBytes;
+
+    // filled by worker threads, guarded by this
+    private long[] incoming = new long[64];
+    private int incomingCount;
+
+    // render thread only
+    private long[] pending = new long[64];
+    private long[] order = new long[64];
+    private int pendingCount;
+
+    private volatile int queueDepth;
+    private volatile int lastFrameUploads;
+    private volatile long lastFrameBytes;
+    private volatile long lastFrameNanos;
+    private volatile long totalUploads;
+
+    public ChunkUploadQueue(float budgetMillis, long budgetBytes) {
+        this.budgetNanos = (long) (budgetMillis * 1_000_000L);
+        this.budgetBytes = budgetBytes;
+    }
+
+    public synchronized void submit(int chunkX, int chunkZ) {
+        if (incomingCount == incoming.length) {
+            incoming = Arrays.copyOf(incoming, incoming.length * 2);
+        }
+        incoming[incomingCount++] = ChunkMap.key(chunkX, chunkZ);
+        queueDepth = pendingCount + incomingCount;
+    }
+
+    private synchronized void drainIncoming() {
+        if (pendingCount + incomingCount > pending.length) {
+            int capacity = Math.max(pending.length * 2, pendingCount + incomingCount);
+            pending = Arrays.copyOf(pending, capacity);
+            order = new long[capacity];
+        }
+        System.arraycopy(incoming, 0, pending, pendingCount, incomingCount);
+        pendingCount += incomingCount;
+        incomingCount = 0;
+    }
+
+    public void process(ChunkMap<Chunk> chunks, int centerChunkX, int centerChunkZ, Uploader uploader) {
+        drainIncoming();
+        long start = System.nanoTime();
+        int uploads = 0;
+        long bytes = 0;
+
+        // Sort by squared distance; the low 32 bits carry the index into pending
+        for (int i = 0; i < pendingCount; i++) {
+            long dx = ChunkMap.keyX(pending[i]) - centerChunkX;
+            long dz = ChunkMap.keyZ(pending[i]) - centerChunkZ;
+            long distance = Math.min(dx * dx + dz * dz, Integer.MAX_VALUE);
+            order[i] = (distance << 32) | i;
+        }
+        Arrays.sort(order, 0, pendingCount);
+
+        for (int n = 0; n < pendingCount; n++) {
+            int index = (int) order[n];
+            Chunk chunk = chunks.get(pending[index]);
+            if (chunk == null || !chunk.hasPendingMeshData()) {
+                // unloaded, or a duplicate entry for data that was already uploaded
+                pending[index] = CONSUMED;
+                continue;
+            }
+            int size = chunk.getPendingMeshBytes();
+            if (uploads > 0 && (bytes + size > budgetBytes || System.nanoTime() - start >= budgetNanos)) {
+                break;
+            }
+            uploader.upload(chunk);
+            pending[index] = CONSUMED;
+            uploads++;
+            bytes += size;
+        }
+
+        int kept = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            if (pending[i] != CONSUMED) {
+                pending[kept++] = pending[i];
+            }
+        }
+        pendingCount = kept;
+
+        synchronized (this) {
+            queueDepth = pendingCount + incomingCount;
+        }
+        lastFrameUploads = uploads;
+        lastFrameBytes = bytes;
+        lastFrameNanos = System.nanoTime() - start;
+        totalUploads += uploads;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getLastFrameUploads() {
+        return lastFrameUploads;
+    }
+
+    public long getLastFrameBytes() {
+        return lastFrameBytes;
+    }
+
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    public long getTotalUploads() {
+        return totalUploads;
+    }
+
+    public String summary() {
+        return String.format("upload queue %d, last frame %d chunks / %d KB / %.2f ms",
+                queueDepth, lastFrameUploads, lastFrameBytes / 1024, lastFrameNanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,123 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.Chunk;
+import com.minecraft.core.ChunkMap;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Heights of whole chunk columns, so a chunk that is unloaded and generated
+// again (or a height query after the chunk was generated) does not pay for the
+// noise twice. Entries are evicted least recently used first once the cache
+// holds more than maxBytes. Heights fit in a byte, 0-255.
+//
+// Misses are generated outside the lock, so two threads missing the same
+// column at once both generate it; the results are identical.
+public class HeightmapCache {
+    private static final int COLUMNS = Chunk.CHUNK_WIDTH * Chunk.CHUNK_DEPTH;
+    // height array, boxed key and LinkedHashMap entry
+    static final long ENTRY_BYTES = (16 + COLUMNS) + 24 + 40;
+
+    private final HeightmapGenerator generator;
+    // access order, so iteration starts at the least recently used column
+    private final LinkedHashMap<Long, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long maxBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    // per-worker buffer for generating a miss
+    private final ThreadLocal<int[]> scratch = ThreadLocal.withInitial(() -> new int[COLUMNS]);
+
+    public HeightmapCache(HeightmapGenerator generator, long maxBytes) {
+        this.generator = generator;
+        this.maxBytes = maxBytes;
+    }
+
+    // Fills out[x + z * CHUNK_WIDTH] with the heights of the chunk's columns
+    public void chunkHeights(int chunkX, int chunkZ, int[] out) {
+        byte[] heights = get(chunkX, chunkZ);
+        for (int i = 0; i < COLUMNS; i++) {
+            out[i] = heights[i] & 0xFF;
+        }
+    }
+
+    public int height(int worldX, int worldZ) {
+        byte[] heights = get(Math.floorDiv(worldX, Chunk.CHUNK_WIDTH), Math.floorDiv(worldZ, Chunk.CHUNK_DEPTH));
+        return heights[Math.floorMod(worldX, Chunk.CHUNK_WIDTH) + Math.floorMod(worldZ, Chunk.CHUNK_DEPTH) * Chunk.CHUNK_WIDTH] & 0xFF;
+    }
+
+    private byte[] get(int chunkX, int chunkZ) {
+        Long key = ChunkMap.key(chunkX, chunkZ);
+        synchronized (this) {
+            byte[] heights = entries.get(key);
+            if (heights != null) {
+                hits.incrementAndGet();
+                return heights;
+            }
+        }
+        misses.incrementAndGet();
+        int[] generated = scratch.get();
+        generator.heightmap(chunkX * Chunk.CHUNK_WIDTH, chunkZ * Chunk.CHUNK_DEPTH,
+                Chunk.CHUNK_WIDTH, Chunk.CHUNK_DEPTH, generated);
+        byte[] heights = new byte[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            heights[i] = (byte) generated[i];
+        }
+        synchronized (this) {
+            entries.put(key, heights);
+            evict();
+        }
+        return heights;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Long, byte[]>> eldest = entries.entrySet().iterator();
+        while (entries.size() * ENTRY_BYTES > maxBytes && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    // Shrinking the cap evicts right away
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evict();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getBytes() {
+        return entries.size() * ENTRY_BYTES;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public double hitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    public String summary() {
+        return String.format("Heightmap cache: %d columns (%d KB of %d KB), %d hits, %d misses (%.1f%% hit rate), %d evicted",
+                size(), getBytes() / 1024, maxBytes / 1024, hits.get(), misses.get(), hitRate() * 100, evictions.get());
+    }
+}
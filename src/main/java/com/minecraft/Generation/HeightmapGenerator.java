@@ -0,0 +1,230 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.Chunk;
+
+import java.util.Random;
+
+// Terrain height from three layers of octave Perlin noise. height() answers a
+// single column; heightmap() fills a whole rectangle of columns and shares the
+// per-row work (the z half of every noise sample) across the row. Both give the
+// same result for the same column.
+public class HeightmapGenerator {
+
+    public static final int WATER_LEVEL = 32;
+
+    // Base terrain (rolling hills)
+    static final double BASE_FREQUENCY = 0.008;
+    static final int BASE_OCTAVES = 4;
+    static final double BASE_PERSISTENCE = 0.5;
+    static final double BASE_AMPLITUDE = 20.0;
+
+    // Detail layer (adds small variations)
+    static final double DETAIL_FREQUENCY = 0.04;
+    static final int DETAIL_OCTAVES = 3;
+    static final double DETAIL_PERSISTENCE = 0.4;
+    static final double DETAIL_AMPLITUDE = 5.0;
+
+    // Mountain layer (creates dramatic peaks)
+    static final double MOUNTAIN_FREQUENCY = 0.003;
+    static final int MOUNTAIN_OCTAVES = 2;
+    static final double MOUNTAIN_PERSISTENCE = 0.55;
+    static final double MOUNTAIN_AMPLITUDE = 25.0;
+
+    static final int DETAIL_OFFSET = 1000;
+    static final int MOUNTAIN_OFFSET = 2000;
+
+    protected final int[] p = new int[512];
+    // base, detail and mountain noise for one row, reused across calls on each worker
+    private final ThreadLocal<double[][]> rowBuffers = ThreadLocal.withInitial(() -> new double[3][Chunk.CHUNK_WIDTH]);
+
+    public HeightmapGenerator(long seed) {
+        initPerlin(seed);
+    }
+
+    // Uses the Vector API implementation (src/vector) when the JVM was started
+    // with --add-modules jdk.incubator.vector, which the build only does with
+    // -PvectorHeightmaps; otherwise the scalar one. Both give the same heights,
+    // so a world can be generated with either.
+    public static HeightmapGenerator create(long seed) {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (HeightmapGenerator) Class.forName("com.minecraft.Generation.VectorHeightmapGenerator")
+                        .getConstructor(long.class).newInstance(seed);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("Vector heightmap generation unavailable, using scalar: " + e);
+            }
+        }
+        return new HeightmapGenerator(seed);
+    }
+
+    public String getImplementationName() {
+        return "scalar";
+    }
+
+    public int height(int worldX, int worldZ) {
+        // Base terrain - rolling hills
+        double baseNoise = octaveNoise(worldX, worldZ, BASE_FREQUENCY, BASE_OCTAVES, BASE_PERSISTENCE);
+        double baseHeight = baseNoise * BASE_AMPLITUDE;
+
+        // Detail layer - small variations
+        double detailNoise = octaveNoise(worldX + DETAIL_OFFSET, worldZ + DETAIL_OFFSET, DETAIL_FREQUENCY, DETAIL_OCTAVES, DETAIL_PERSISTENCE);
+        double detailHeight = detailNoise * DETAIL_AMPLITUDE;
+
+        // Mountain layer - dramatic peaks
+        double mountainNoise = octaveNoise(worldX + MOUNTAIN_OFFSET, worldZ + MOUNTAIN_OFFSET, MOUNTAIN_FREQUENCY, MOUNTAIN_OCTAVES, MOUNTAIN_PERSISTENCE);
+        // Make mountains sparse - only where noise is high
+        mountainNoise = Math.max(0, (mountainNoise - 0.3) * 2.5);
+        double mountainHeight = mountainNoise * MOUNTAIN_AMPLITUDE;
+
+        return combine(baseHeight, detailHeight, mountainHeight);
+    }
+
+    static int combine(double baseHeight, double detailHeight, double mountainHeight) {
+        int finalHeight = WATER_LEVEL + (int) (baseHeight + detailHeight + mountainHeight);
+        return Math.max(0, Math.min(finalHeight, Chunk.CHUNK_HEIGHT - 1));
+    }
+
+    // Fills out[x + z * width] with the heights of the columns originX + x, originZ + z
+    public void heightmap(int originX, int originZ, int width, int depth, int[] out) {
+        double[][] rows = rowBuffers.get();
+        if (rows[0].length < width) {
+            rows = new double[][]{new double[width], new double[width], new double[width]};
+            rowBuffers.set(rows);
+        }
+        double[] base = rows[0];
+        double[] detail = rows[1];
+        double[] mountain = rows[2];
+        for (int z = 0; z < depth; z++) {
+            int worldZ = originZ + z;
+            octaveNoiseRow(originX, worldZ, width, BASE_FREQUENCY, BASE_OCTAVES, BASE_PERSISTENCE, base);
+            octaveNoiseRow(originX + DETAIL_OFFSET, worldZ + DETAIL_OFFSET, width, DETAIL_FREQUENCY, DETAIL_OCTAVES, DETAIL_PERSISTENCE, detail);
+            octaveNoiseRow(originX + MOUNTAIN_OFFSET, worldZ + MOUNTAIN_OFFSET, width, MOUNTAIN_FREQUENCY, MOUNTAIN_OCTAVES, MOUNTAIN_PERSISTENCE, mountain);
+            writeRow(base, detail, mountain, width, out, z * width);
+        }
+    }
+
+    static void writeRow(double[] base, double[] detail, double[] mountain, int width, int[] out, int offset) {
+        for (int x = 0; x < width; x++) {
+            double mountainNoise = Math.max(0, (mountain[x] - 0.3) * 2.5);
+            out[offset + x] = combine(base[x] * BASE_AMPLITUDE, detail[x] * DETAIL_AMPLITUDE, mountainNoise * MOUNTAIN_AMPLITUDE);
+        }
+    }
+
+    // octaveNoise for the columns startX .. startX + width - 1 of one row, same
+    // operation order as octaveNoise so every column matches bit for bit
+    protected void octaveNoiseRow(int startX, int worldZ, int width, double frequency, int octaves, double persistence, double[] out) {
+        for (int x = 0; x < width; x++) {
+            out[x] = 0;
+        }
+        double amplitude = 1;
+        double freq = frequency;
+        double maxValue = 0;
+        for (int i = 0; i < octaves; i++) {
+            double z = worldZ * freq;
+            double zFloor = Math.floor(z);
+            int zi = (int) zFloor & 255;
+            double zf = z - zFloor;
+            double v = fade(zf);
+            // At terrain frequencies neighbouring columns usually fall in the same
+            // lattice cell, so the corner hashes are only looked up when xi changes
+            int cachedXi = -1;
+            int aa = 0, ab = 0, ba = 0, bb = 0;
+            for (int x = 0; x < width; x++) {
+                double xs = (double) (startX + x) * freq;
+                double xFloor = Math.floor(xs);
+                int xi = (int) xFloor & 255;
+                if (xi != cachedXi) {
+                    aa = p[p[xi] + zi];
+                    ab = p[p[xi] + zi + 1];
+                    ba = p[p[xi + 1] + zi];
+                    bb = p[p[xi + 1] + zi + 1];
+                    cachedXi = xi;
+                }
+                out[x] += perlinNoise(xs - xFloor, zf, v, aa, ab, ba, bb) * amplitude;
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            freq *= 2;
+        }
+        for (int x = 0; x < width; x++) {
+            out[x] /= maxValue;
+        }
+    }
+
+    public double octaveNoise(double x, double z, double frequency, int octaves, double persistence) {
+        double noise = 0;
+        double amplitude = 1;
+        double freq = frequency;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            noise += perlinNoise(x * freq, z * freq) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            freq *= 2;
+        }
+
+        return noise / maxValue;
+    }
+
+    public double perlinNoise(double x, double z) {
+        double zFloor = Math.floor(z);
+        double zf = z - zFloor;
+        return perlinNoise(x, (int) zFloor & 255, zf, fade(zf));
+    }
+
+    // Perlin noise with the z terms already worked out, as they are shared along a row
+    private double perlinNoise(double x, int zi, double zf, double v) {
+        double xFloor = Math.floor(x);
+        int xi = (int) xFloor & 255;
+
+        // Get gradient indices for the 4 corners
+        int aa = p[p[xi] + zi];
+        int ab = p[p[xi] + zi + 1];
+        int ba = p[p[xi + 1] + zi];
+        int bb = p[p[xi + 1] + zi + 1];
+
+        return perlinNoise(x - xFloor, zf, v, aa, ab, ba, bb);
+    }
+
+    private static double perlinNoise(double xf, double zf, double v, int aa, int ab, int ba, int bb) {
+        double u = fade(xf);
+
+        // Calculate dot products with gradients
+        double x1 = lerp(grad(aa, xf, zf), grad(ba, xf - 1, zf), u);
+        double x2 = lerp(grad(ab, xf, zf - 1), grad(bb, xf - 1, zf - 1), u);
+
+        return lerp(x1, x2, v);
+    }
+
+    static double grad(int hash, double x, double z) {
+        int h = hash & 15;
+        double u = h < 8 ? x : z;
+        double v = h < 4 ? z : (h == 12 || h == 14 ? x : 0);
+        return ((h & 1) == 0 ? u : -u) + ((h & 2) == 0 ? v : -v);
+    }
+
+    private void initPerlin(long seed) {
+        Random rand = new Random(seed);
+        for (int i = 0; i < 256; i++) {
+            p[i] = i;
+        }
+        for (int i = 0; i < 256; i++) {
+            int r = rand.nextInt(256 - i) + i;
+            int temp = p[i];
+            p[i] = p[r];
+            p[r] = temp;
+        }
+        for (int i = 0; i < 256; i++) {
+            p[i + 256] = p[i];
+        }
+    }
+
+    static double fade(double t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+
+    static double lerp(double a, double b, double t) {
+        return a + t * (b - a);
+    }
+}
@@ -0,0 +1,465 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.Chunk;
+import com.minecraft.core.ChunkMap;
+import com.minecraft.graphics.ArenaMesh;
+import com.minecraft.graphics.MeshArena;
+import com.minecraft.graphics.MeshBuilder;
+import com.minecraft.graphics.MeshData;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Coarse meshes for the rings of terrain between the render distance and the
+// LOD distance. They are built straight from the heightmap, so no chunks are
+// generated or kept for them.
+//
+// A level L tile covers 2^L x 2^L chunks with CELLS x CELLS cells of 2^(L+1)
+// blocks: 2x, 4x and 8x coarser than blocks for levels 0, 1 and 2, and the same
+// number of quads per tile at every level. A cell is one column at the height
+// sampled at its centre, drawn as a top and the walls down to lower cells.
+// Tiles are chosen top-down: a level 2 tile is split into level 1 tiles (and
+// those into level 0 tiles) if any of its chunks wants a finer level, and level
+// 0 tiles are left out where the full-detail chunks are.
+//
+// Seams: every tile hangs a skirt from its border cells down to the lowest
+// height any level could show just across that border (the true heights, and
+// the cell samples of every level). Whatever neighbour is there, its surface
+// is never below the skirt, and its own skirt covers it where it is higher, so
+// tiles never need remeshing when the neighbouring levels change. Full-detail
+// chunks at the edge of the loaded area already show their sides down to y 0.
+//
+// When the player moves, a tile or an unloaded chunk that is no longer wanted
+// keeps being drawn until everything covering its area has been uploaded, so
+// the swap does not open holes.
+public class LodTerrain {
+    public static final int LEVELS = 3;
+    static final int CELLS = 8;
+    // chunks wide of the level 0 and level 1 rings; level 2 reaches the LOD distance
+    private static final int[] RING_WIDTH = {4, 8};
+    // finished tiles uploaded per frame; a tile is a few kilobytes
+    private static final int UPLOADS_PER_FRAME = 64;
+    private static final int FULL_DETAIL = -1;
+
+    public interface Visitor {
+        // origin and size in blocks
+        void visit(ArenaMesh mesh, int originX, int originZ, int size, int minY, int maxY);
+    }
+
+    private static final class Tile {
+        final int level;
+        final int tileX;
+        final int tileZ;
+        int minY;
+        int maxY;
+        int seen;
+        volatile boolean cancelled;
+        // written by the job, taken on the GL thread
+        volatile MeshData pending;
+        ArenaMesh mesh;
+        // the GL thread has uploaded (or discarded) this tile's mesh
+        boolean uploaded;
+        private boolean claimed;
+
+        Tile(int level, int tileX, int tileZ) {
+            this.level = level;
+            this.tileX = tileX;
+            this.tileZ = tileZ;
+        }
+
+        // A cancelled job and the job of a tile re-added at the same place can
+        // both reach one tile; only the first builds it
+        synchronized boolean claim() {
+            if (claimed) {
+                return false;
+            }
+            claimed = true;
+            return true;
+        }
+
+        int sizeChunks() {
+            return level == FULL_DETAIL ? 1 : 1 << level;
+        }
+    }
+
+    // Per-worker scratch for building tiles
+    private static class TileWorkspace {
+        final MeshBuilder builder = new MeshBuilder();
+        final int[] heights = new int[CELLS * CELLS];
+        final int[] mask = new int[CELLS * CELLS];
+        final int[] quads = new int[CELLS * CELLS * 5];
+        final int[] strip = new int[2 << (LEVELS - 1)];
+    }
+
+    private final HeightmapGenerator heightmap;
+    private final ChunkMap<Chunk> chunks;
+    private final int renderDistance;
+    private final int lodDistance;
+    private final boolean circular;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ChunkMap<Tile>[] tiles = new ChunkMap[LEVELS];
+    private final ChunkJobQueue[] jobQueues = new ChunkJobQueue[LEVELS];
+    private final ConcurrentLinkedQueue<Tile> finished = new ConcurrentLinkedQueue<>();
+    private final ArrayList<Tile> retiring = new ArrayList<>();
+    private final ThreadLocal<TileWorkspace> workspace = ThreadLocal.withInitial(TileWorkspace::new);
+    private ChunkStreamer streamer;
+    private int pass;
+    private int centerX;
+    private int centerZ;
+    private final AtomicLong tilesBuilt = new AtomicLong();
+    private final AtomicLong quadsBuilt = new AtomicLong();
+
+    private Visitor visitor;
+    private final ChunkMap.Visitor<Tile> tileVisitor = (tileX, tileZ, tile) -> visitTile(tile);
+
+    LodTerrain(HeightmapGenerator heightmap, ChunkMap<Chunk> chunks, ExecutorService executor,
+               int renderDistance, int lodDistance, boolean circular) {
+        this.heightmap = heightmap;
+        this.chunks = chunks;
+        this.renderDistance = renderDistance;
+        this.lodDistance = lodDistance;
+        this.circular = circular;
+        for (int level = 0; level < LEVELS; level++) {
+            final int tileLevel = level;
+            tiles[level] = new ChunkMap<>();
+            jobQueues[level] = new ChunkJobQueue(executor, (tileX, tileZ, kind) -> buildTile(tileLevel, tileX, tileZ));
+        }
+    }
+
+    public int getLodDistance() {
+        return lodDistance;
+    }
+
+    // Chooses the tiles around the player's chunk; the streamer must already be
+    // centred there. Called when the player enters a new chunk.
+    void update(int playerChunkX, int playerChunkZ, ChunkStreamer streamer) {
+        this.streamer = streamer;
+        centerX = playerChunkX;
+        centerZ = playerChunkZ;
+        pass++;
+        int top = LEVELS - 1;
+        int minTileX = Math.floorDiv(playerChunkX - lodDistance, 1 << top);
+        int maxTileX = Math.floorDiv(playerChunkX + lodDistance, 1 << top);
+        int minTileZ = Math.floorDiv(playerChunkZ - lodDistance, 1 << top);
+        int maxTileZ = Math.floorDiv(playerChunkZ + lodDistance, 1 << top);
+        for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+            for (int tileZ = minTileZ; tileZ <= maxTileZ; tileZ++) {
+                choose(top, tileX, tileZ);
+            }
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            tiles[level].removeIf(this::removeUnseen);
+            jobQueues[level].setCenter(playerChunkX >> level, playerChunkZ >> level);
+        }
+    }
+
+    private void choose(int level, int tileX, int tileZ) {
+        int size = 1 << level;
+        int finest = LEVELS;
+        for (int dx = 0; dx < size; dx++) {
+            for (int dz = 0; dz < size; dz++) {
+                finest = Math.min(finest, wantedLevel((tileX << level) + dx, (tileZ << level) + dz));
+            }
+        }
+        if (finest >= LEVELS) {
+            return;  // beyond the LOD distance
+        }
+        if (finest >= level) {
+            Tile tile = tiles[level].get(tileX, tileZ);
+            if (tile == null) {
+                tile = new Tile(level, tileX, tileZ);
+                tiles[level].put(tileX, tileZ, tile);
+                jobQueues[level].submit(tileX, tileZ, ChunkJobQueue.Kind.MESH);
+            }
+            tile.seen = pass;
+            return;
+        }
+        if (level == 0) {
+            return;  // a full-detail chunk
+        }
+        for (int i = 0; i < 4; i++) {
+            choose(level - 1, 2 * tileX + (i & 1), 2 * tileZ + (i >> 1));
+        }
+    }
+
+    // FULL_DETAIL inside the loaded area, then the ring's level, LEVELS beyond the LOD distance
+    private int wantedLevel(int chunkX, int chunkZ) {
+        if (streamer.contains(chunkX, chunkZ)) {
+            return FULL_DETAIL;
+        }
+        int dx = chunkX - centerX;
+        int dz = chunkZ - centerZ;
+        int radius = renderDistance;
+        for (int level = 0; level < LEVELS - 1; level++) {
+            radius += RING_WIDTH[level];
+            if (within(dx, dz, radius)) {
+                return level;
+            }
+        }
+        return within(dx, dz, lodDistance) ? LEVELS - 1 : LEVELS;
+    }
+
+    // Same shapes as ChunkStreamer
+    private boolean within(int dx, int dz, int radius) {
+        if (circular) {
+            return dx * dx + dz * dz <= radius * radius + radius;
+        }
+        return Math.abs(dx) <= radius && Math.abs(dz) <= radius;
+    }
+
+    private boolean removeUnseen(int tileX, int tileZ, Tile tile) {
+        if (tile.seen == pass) {
+            return false;
+        }
+        tile.cancelled = true;
+        jobQueues[tile.level].cancel(tileX, tileZ);
+        if (tile.mesh != null) {
+            retiring.add(tile);
+        }
+        return true;
+    }
+
+    // Keeps an unloaded chunk's mesh on screen until its area is covered again
+    void retireChunk(int chunkX, int chunkZ, Chunk chunk) {
+        Tile tile = new Tile(FULL_DETAIL, chunkX, chunkZ);
+        tile.mesh = chunk.getMesh();
+        tile.minY = chunk.getMinY();
+        tile.maxY = chunk.getMaxY() + 1;
+        tile.uploaded = true;
+        tile.cancelled = true;
+        retiring.add(tile);
+    }
+
+    // GL thread: uploads finished tiles (or releases them without an arena) and
+    // frees retired meshes whose area is covered again
+    void upload(MeshArena arena) {
+        for (int i = 0; i < UPLOADS_PER_FRAME; i++) {
+            Tile tile = finished.poll();
+            if (tile == null) {
+                break;
+            }
+            MeshData data = tile.pending;
+            tile.pending = null;
+            if (tile.cancelled || arena == null) {
+                if (data != null) {
+                    data.release();
+                }
+            } else if (data != null) {
+                tile.mesh = arena.upload(data);
+            }
+            tile.uploaded = true;
+        }
+        for (int i = retiring.size() - 1; i >= 0; i--) {
+            Tile tile = retiring.get(i);
+            if (isCovered(tile)) {
+                if (arena != null) {
+                    arena.free(tile.mesh);
+                }
+                tile.mesh = null;
+                retiring.set(i, retiring.get(retiring.size() - 1));
+                retiring.remove(retiring.size() - 1);
+            }
+        }
+    }
+
+    private boolean isCovered(Tile tile) {
+        int size = tile.sizeChunks();
+        int level = Math.max(0, tile.level);
+        int firstX = tile.tileX << level;
+        int firstZ = tile.tileZ << level;
+        for (int dx = 0; dx < size; dx++) {
+            for (int dz = 0; dz < size; dz++) {
+                if (!isShown(firstX + dx, firstZ + dz)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // True if the chunk's area is drawn by its current full-detail chunk or
+    // tile, or is not meant to be drawn at all
+    private boolean isShown(int chunkX, int chunkZ) {
+        if (streamer.contains(chunkX, chunkZ)) {
+            Chunk chunk = chunks.get(chunkX, chunkZ);
+            return chunk != null && chunk.hasUploadedMesh();
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            Tile tile = tiles[level].get(chunkX >> level, chunkZ >> level);
+            if (tile != null) {
+                return tile.uploaded;
+            }
+        }
+        return true;
+    }
+
+    // Visits every tile mesh to draw, including the retiring ones. GL thread.
+    public void forEachMesh(Visitor visitor) {
+        this.visitor = visitor;
+        for (ChunkMap<Tile> levelTiles : tiles) {
+            levelTiles.forEach(tileVisitor);
+        }
+        for (int i = 0; i < retiring.size(); i++) {
+            visitTile(retiring.get(i));
+        }
+        this.visitor = null;
+    }
+
+    private void visitTile(Tile tile) {
+        if (tile.mesh == null) {
+            return;
+        }
+        int size = tile.sizeChunks() * Chunk.CHUNK_WIDTH;
+        int level = Math.max(0, tile.level);
+        visitor.visit(tile.mesh, (tile.tileX << level) * Chunk.CHUNK_WIDTH, (tile.tileZ << level) * Chunk.CHUNK_DEPTH,
+                size, tile.minY, tile.maxY);
+    }
+
+    private void buildTile(int level, int tileX, int tileZ) {
+        Tile tile = tiles[level].get(tileX, tileZ);
+        if (tile == null || tile.cancelled || !tile.claim()) {
+            return;
+        }
+        TileWorkspace work = workspace.get();
+        MeshBuilder builder = work.builder;
+        builder.reset();
+        int cell = 2 << level;
+        int originX = (tileX << level) * Chunk.CHUNK_WIDTH;
+        int originZ = (tileZ << level) * Chunk.CHUNK_DEPTH;
+        int[] heights = work.heights;
+        int minY = Chunk.CHUNK_HEIGHT;
+        int maxY = 0;
+        for (int z = 0; z < CELLS; z++) {
+            for (int x = 0; x < CELLS; x++) {
+                int height = sample(cell, originX + x * cell, originZ + z * cell);
+                heights[x + z * CELLS] = height;
+                maxY = Math.max(maxY, height + 1);
+            }
+        }
+
+        // tops, merged where height and texture match
+        int[] mask = work.mask;
+        for (int i = 0; i < CELLS * CELLS; i++) {
+            mask[i] = heights[i] << 3 | topTexture(heights[i]);
+        }
+        int count = Terrain.mergeMask(mask, CELLS, CELLS, work.quads);
+        for (int q = 0; q < count * 5; q += 5) {
+            int key = work.quads[q + 4];
+            Terrain.emitFace(work.quads[q], key >> 3, work.quads[q + 1], PackedQuad.FACE_UP,
+                    work.quads[q + 2], work.quads[q + 3], key & 7, level + 1, builder);
+        }
+
+        // walls between cells, on the higher cell's side, and skirts on the border
+        for (int z = 0; z < CELLS; z++) {
+            for (int x = 0; x < CELLS; x++) {
+                int height = heights[x + z * CELLS];
+                int east = x + 1 < CELLS ? heights[x + 1 + z * CELLS]
+                        : skirt(level, originX + CELLS * cell, originZ + z * cell, 0, 1, work);
+                int west = x > 0 ? heights[x - 1 + z * CELLS]
+                        : skirt(level, originX - 1, originZ + z * cell, 0, 1, work);
+                int south = z + 1 < CELLS ? heights[x + (z + 1) * CELLS]
+                        : skirt(level, originX + x * cell, originZ + CELLS * cell, 1, 0, work);
+                int north = z > 0 ? heights[x + (z - 1) * CELLS]
+                        : skirt(level, originX + x * cell, originZ - 1, 1, 0, work);
+                minY = Math.min(minY, wall(x, z, height, east, PackedQuad.FACE_EAST, level, builder));
+                minY = Math.min(minY, wall(x, z, height, west, PackedQuad.FACE_WEST, level, builder));
+                minY = Math.min(minY, wall(x, z, height, south, PackedQuad.FACE_SOUTH, level, builder));
+                minY = Math.min(minY, wall(x, z, height, north, PackedQuad.FACE_NORTH, level, builder));
+            }
+        }
+
+        quadsBuilt.addAndGet(builder.getVertexCount() / 4);
+        tilesBuilt.incrementAndGet();
+        MeshData data = builder.finish();
+        tile.minY = Math.min(minY, maxY - 1);
+        tile.maxY = maxY;
+        tile.pending = data;
+        finished.add(tile);
+    }
+
+    // Wall of the cell's side facing a neighbour of the given height, from just
+    // above the neighbour's top to the cell's top. Returns the wall's bottom.
+    private static int wall(int x, int z, int height, int neighbor, int face, int level, MeshBuilder builder) {
+        if (neighbor >= height) {
+            return height + 1;
+        }
+        int bottom = neighbor + 1;
+        int texture = sideTexture(height, height - neighbor);
+        Terrain.emitFace(x, bottom, z, face, 1, height + 1 - bottom, texture, level + 1, builder);
+        return bottom;
+    }
+
+    // Lowest height shown by any level (or the full-detail chunks) along the
+    // CELLS-long line of columns starting at (x, z) in the direction (stepX,
+    // stepZ) just outside a level's tile, over the length of one of its cells
+    private int skirt(int level, int x, int z, int stepX, int stepZ, TileWorkspace work) {
+        int cell = 2 << level;
+        int lowest = Chunk.CHUNK_HEIGHT;
+        // true heights, which the full-detail chunks show
+        heightmap.heightmap(x, z, stepX == 1 ? cell : 1, stepZ == 1 ? cell : 1, work.strip);
+        for (int i = 0; i < cell; i++) {
+            lowest = Math.min(lowest, work.strip[i]);
+        }
+        for (int otherLevel = 0; otherLevel < LEVELS; otherLevel++) {
+            int otherCell = 2 << otherLevel;
+            int first = Math.floorDiv(stepX == 1 ? x : z, otherCell);
+            int last = Math.floorDiv((stepX == 1 ? x : z) + cell - 1, otherCell);
+            for (int c = first; c <= last; c++) {
+                int along = c * otherCell;
+                lowest = Math.min(lowest, stepX == 1 ? sample(otherCell, along, z) : sample(otherCell, x, along));
+            }
+        }
+        return lowest;
+    }
+
+    // Height of the cell of the given size that contains (x, z), sampled at its centre
+    private int sample(int cell, int x, int z) {
+        int cellX = Math.floorDiv(x, cell) * cell;
+        int cellZ = Math.floorDiv(z, cell) * cell;
+        return heightmap.height(cellX + cell / 2, cellZ + cell / 2);
+    }
+
+    // Layers as in Terrain.FACE_TEXTURES, matching the blocks generateChunk places
+    private static int topTexture(int height) {
+        return height >= HeightmapGenerator.WATER_LEVEL ? 1 : 5;  // grass_top or sand
+    }
+
+    private static int sideTexture(int height, int wallHeight) {
+        if (height < HeightmapGenerator.WATER_LEVEL) {
+            return 5;  // sand
+        }
+        return wallHeight == 1 ? 2 : wallHeight <= 4 ? 3 : 4;  // grass_side, dirt, stone
+    }
+
+    public int getTileCount(int level) {
+        return tiles[level].size();
+    }
+
+    public int getRetiringCount() {
+        return retiring.size();
+    }
+
+    public long getTilesBuilt() {
+        return tilesBuilt.get();
+    }
+
+    public long getQuadsBuilt() {
+        return quadsBuilt.get();
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (ChunkJobQueue queue : jobQueues) {
+            depth += queue.getQueueDepth();
+        }
+        return depth;
+    }
+
+    public String summary() {
+        return String.format("LOD: %d/%d/%d tiles (2x/4x/8x), %d retiring, %d built, avg %d quads",
+                tiles[0].size(), tiles[1].size(), tiles[2].size(), retiring.size(),
+                tilesBuilt.get(), quadsBuilt.get() / Math.max(1, tilesBuilt.get()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.minecraft.Generation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Running totals for chunk meshing, updated from the worker threads
+public class MeshingStats {
+    // How the mesher handled a section: no blocks, full and enclosed by full
+    // sections, full with only its boundary layers meshed, or scanned cell by cell
+    public static final int SECTION_EMPTY = 0;
+    public static final int SECTION_BURIED = 1;
+    public static final int SECTION_SHELL = 2;
+    public static final int SECTION_SCANNED = 3;
+
+    private final AtomicLong chunks = new AtomicLong();
+    private final AtomicLong vertices = new AtomicLong();
+    private final AtomicLong indices = new AtomicLong();
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicLong remeshes = new AtomicLong();
+    private final AtomicLong remeshedSections = new AtomicLong();
+    private final AtomicLong quadsRemoved = new AtomicLong();
+    private final AtomicLongArray sections = new AtomicLongArray(4);
+
+    public void record(long vertexCount, long indexCount, long elapsedNanos) {
+        chunks.incrementAndGet();
+        vertices.addAndGet(vertexCount);
+        indices.addAndGet(indexCount);
+        nanos.addAndGet(elapsedNanos);
+    }
+
+    // A chunk meshed again after a neighbour arrived or its blocks changed
+    public void recordRemesh(int sections, int removedQuads) {
+        remeshes.incrementAndGet();
+        remeshedSections.addAndGet(sections);
+        quadsRemoved.addAndGet(removedQuads);
+    }
+
+    public void recordSection(int kind) {
+        sections.incrementAndGet(kind);
+    }
+
+    public long getSections(int kind) {
+        return sections.get(kind);
+    }
+
+    public long getRemeshes() {
+        return remeshes.get();
+    }
+
+    public long getRemeshedSections() {
+        return remeshedSections.get();
+    }
+
+    public long getQuadsRemoved() {
+        return quadsRemoved.get();
+    }
+
+    public long getChunks() {
+        return chunks.get();
+    }
+
+    public long getVertices() {
+        return vertices.get();
+    }
+
+    public long getIndices() {
+        return indices.get();
+    }
+
+    public long getNanos() {
+        return nanos.get();
+    }
+
+    public String summary(String mode) {
+        long n = Math.max(1, chunks.get());
+        return String.format("Meshing (%s): %d chunks, %d vertices, %d indices, avg %d vertices / %d indices / %.3f ms per chunk",
+                mode, chunks.get(), vertices.get(), indices.get(),
+                vertices.get() / n, indices.get() / n, nanos.get() / 1_000_000.0 / n)
+                + String.format("; %d remeshes of %d sections removed %d hidden border quads",
+                remeshes.get(), remeshedSections.get(), quadsRemoved.get())
+                + String.format("; sections: %d empty, %d buried, %d shell-only, %d scanned",
+                sections.get(SECTION_EMPTY), sections.get(SECTION_BURIED),
+                sections.get(SECTION_SHELL), sections.get(SECTION_SCANNED));
+    }
+}
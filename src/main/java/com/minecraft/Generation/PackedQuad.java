@@ -0,0 +1,66 @@
+package com.minecraft.Generation;
+
+// A meshed face (or greedy rectangle of faces) packed into a long, so a
+// section's geometry can be kept between meshing jobs for a few bytes per quad
+// and re-emitted without looking at any blocks.
+//
+//   bits  0-3   x of the origin block within the chunk
+//   bits  4-11  y of the origin block
+//   bits 12-15  z of the origin block
+//   bits 16-18  face (FACE_* below)
+//   bits 19-22  width - 1
+//   bits 23-26  height - 1
+//   bits 27-34  texture layer
+//
+// Width and height run along the face's mask axes: x and z for Y faces, x and
+// y for Z faces, z and y for X faces. Rectangles never leave their section, so
+// both fit in four bits.
+final class PackedQuad {
+    static final int FACE_UP = 0;
+    static final int FACE_DOWN = 1;
+    static final int FACE_SOUTH = 2; // +z
+    static final int FACE_NORTH = 3; // -z
+    static final int FACE_EAST = 4;  // +x
+    static final int FACE_WEST = 5;  // -x
+
+    private PackedQuad() {
+    }
+
+    static long pack(int x, int y, int z, int face, int width, int height, int texture) {
+        return x
+                | (long) y << 4
+                | (long) z << 12
+                | (long) face << 16
+                | (long) (width - 1) << 19
+                | (long) (height - 1) << 23
+                | (long) texture << 27;
+    }
+
+    static int x(long quad) {
+        return (int) (quad & 0xF);
+    }
+
+    static int y(long quad) {
+        return (int) (quad >>> 4) & 0xFF;
+    }
+
+    static int z(long quad) {
+        return (int) (quad >>> 12) & 0xF;
+    }
+
+    static int face(long quad) {
+        return (int) (quad >>> 16) & 0x7;
+    }
+
+    static int width(long quad) {
+        return ((int) (quad >>> 19) & 0xF) + 1;
+    }
+
+    static int height(long quad) {
+        return ((int) (quad >>> 23) & 0xF) + 1;
+    }
+
+    static int texture(long quad) {
+        return (int) (quad >>> 27) & 0xFF;
+    }
+}
@@ -0,0 +1,268 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.Chunk;
+import com.minecraft.core.ChunkMap;
+import com.minecraft.core.ChunkSection;
+import com.minecraft.graphics.ArenaMesh;
+import com.minecraft.graphics.DrawCommandBuffer;
+import com.minecraft.graphics.Frustum;
+
+import java.util.Arrays;
+
+// Decides which chunk sections to draw with a breadth-first search from the
+// camera's section through the sections' SectionVisibility: a section is
+// reached through face a and left through face b only if its air connects a
+// and b. The search never turns back against a direction it already moved in
+// and stops at sections outside the frustum or in chunks that are not loaded,
+// so a cave behind solid ground is never reached from the surface.
+//
+// Everything is sized for the render distance up front; a frame allocates
+// nothing. Only used on the render thread.
+public class SectionOcclusionCuller {
+    private static final int SECTIONS = Chunk.SECTION_COUNT;
+    // queue entries: section cell << 12 | directions moved in << 4 | face entered through
+    private static final int ENTERED_BITS = 4;
+    private static final int DIRECTION_BITS = 8;
+    private static final int NO_FACE = 15;
+
+    private final int radius;
+    private final int width;
+    // chunks around the origin, by (x + radius) + (z + radius) * width, looked up once per frame
+    private final Chunk[] grid;
+    private final int[] gridStamp;
+    // section cells: chunk cell * SECTIONS + sectionY
+    private final int[] visitedStamp;
+    private final int[] queue;
+    // sections to draw per chunk cell, and the cells that have any
+    private final int[] visibleSections;
+    private final int[] visibleCells;
+    private int visibleCount;
+    private int stamp;
+    private int originX;
+    private int originZ;
+    private ChunkMap<Chunk> chunks;
+
+    private int sectionsVisited;
+    private int sectionsDrawn;
+    private int sectionsSkipped;
+    private int chunksDrawn;
+    private int chunksSkipped;
+    private final ChunkMap.Visitor<Chunk> countChunk = this::countChunk;
+
+    // radius in chunks around the camera's chunk; farther chunks are never drawn
+    public SectionOcclusionCuller(int radius) {
+        this.radius = radius;
+        this.width = 2 * radius + 1;
+        grid = new Chunk[width * width];
+        gridStamp = new int[grid.length];
+        visitedStamp = new int[grid.length * SECTIONS];
+        queue = new int[visitedStamp.length];
+        visibleSections = new int[grid.length];
+        visibleCells = new int[grid.length];
+    }
+
+    // Adds the visible sections' quads to out. Returns false, drawing nothing,
+    // if the camera's chunk is not loaded; the caller should then fall back to
+    // frustum culling whole chunks.
+    public boolean cull(ChunkMap<Chunk> chunks, Frustum frustum, float cameraX, float cameraY, float cameraZ,
+                        DrawCommandBuffer out) {
+        originX = Math.floorDiv((int) Math.floor(cameraX), Chunk.CHUNK_WIDTH);
+        originZ = Math.floorDiv((int) Math.floor(cameraZ), Chunk.CHUNK_DEPTH);
+        this.chunks = chunks;
+        nextStamp();
+        visibleCount = 0;
+        sectionsVisited = 0;
+        sectionsDrawn = 0;
+        sectionsSkipped = 0;
+        chunksDrawn = 0;
+        chunksSkipped = 0;
+
+        int origin = cell(originX, originZ);
+        if (chunk(origin) == null) {
+            this.chunks = null;
+            return false;
+        }
+        // above or below the world, start from the nearest layer as if entering through it
+        int cameraSection = Math.floorDiv((int) Math.floor(cameraY), ChunkSection.SIZE);
+        int entered = NO_FACE;
+        int directions = 0;
+        if (cameraSection >= SECTIONS) {
+            cameraSection = SECTIONS - 1;
+            entered = PackedQuad.FACE_UP;
+            directions = 1 << PackedQuad.FACE_DOWN;
+        } else if (cameraSection < 0) {
+            cameraSection = 0;
+            entered = PackedQuad.FACE_DOWN;
+            directions = 1 << PackedQuad.FACE_UP;
+        }
+        search(origin * SECTIONS + cameraSection, entered, directions, frustum);
+        draw(out);
+        chunks.forEach(countChunk);
+        sectionsSkipped -= sectionsDrawn;
+        chunksSkipped -= chunksDrawn;
+        this.chunks = null;
+        return true;
+    }
+
+    private void search(int start, int entered, int directions, Frustum frustum) {
+        int head = 0;
+        int tail = 0;
+        visitedStamp[start] = stamp;
+        queue[tail++] = start << (DIRECTION_BITS + ENTERED_BITS) | directions << ENTERED_BITS | entered;
+        while (head < tail) {
+            int entry = queue[head++];
+            int section = entry >>> (DIRECTION_BITS + ENTERED_BITS);
+            int moved = (entry >>> ENTERED_BITS) & ((1 << DIRECTION_BITS) - 1);
+            int from = entry & ((1 << ENTERED_BITS) - 1);
+            int cell = section / SECTIONS;
+            int sectionY = section % SECTIONS;
+            Chunk chunk = grid[cell];
+            sectionsVisited++;
+            if (visibleSections[cell] == 0) {
+                visibleCells[visibleCount++] = cell;
+            }
+            visibleSections[cell] |= 1 << sectionY;
+
+            long visibility = chunk.getSectionVisibility(sectionY);
+            int cellX = cell % width;
+            int cellZ = cell / width;
+            for (int face = 0; face < SectionVisibility.FACES; face++) {
+                // the face opposite to face is face ^ 1
+                if ((moved & (1 << (face ^ 1))) != 0) {
+                    continue;
+                }
+                if (from != NO_FACE && !SectionVisibility.connects(visibility, from, face)) {
+                    continue;
+                }
+                int nextY = sectionY + Terrain.FACE_DY[face];
+                int nextX = cellX + Terrain.FACE_DX[face];
+                int nextZ = cellZ + Terrain.FACE_DZ[face];
+                if (nextY < 0 || nextY >= SECTIONS || nextX < 0 || nextX >= width || nextZ < 0 || nextZ >= width) {
+                    continue;
+                }
+                int nextCell = nextX + nextZ * width;
+                int next = nextCell * SECTIONS + nextY;
+                if (visitedStamp[next] == stamp || chunk(nextCell) == null) {
+                    continue;
+                }
+                float minX = (originX - radius + nextX) * Chunk.CHUNK_WIDTH;
+                float minY = nextY * ChunkSection.SIZE;
+                float minZ = (originZ - radius + nextZ) * Chunk.CHUNK_DEPTH;
+                if (!frustum.intersectsAabb(minX, minY, minZ,
+                        minX + Chunk.CHUNK_WIDTH, minY + ChunkSection.SIZE, minZ + Chunk.CHUNK_DEPTH)) {
+                    continue;
+                }
+                visitedStamp[next] = stamp;
+                queue[tail++] = next << (DIRECTION_BITS + ENTERED_BITS) | (moved | 1 << face) << ENTERED_BITS | (face ^ 1);
+            }
+        }
+    }
+
+    // One draw per run of consecutive visible sections
+    private void draw(DrawCommandBuffer out) {
+        for (int i = 0; i < visibleCount; i++) {
+            int cell = visibleCells[i];
+            int sections = visibleSections[cell];
+            visibleSections[cell] = 0;
+            ArenaMesh mesh = grid[cell].getMesh();
+            if (mesh == null) {
+                continue;
+            }
+            float minX = (originX - radius + cell % width) * Chunk.CHUNK_WIDTH;
+            float minZ = (originZ - radius + cell / width) * Chunk.CHUNK_DEPTH;
+            if (!mesh.hasSections()) {
+                out.add(mesh, minX, minZ);
+                chunksDrawn++;
+                continue;
+            }
+            int drawn = 0;
+            int sectionY = 0;
+            while (sectionY < SECTIONS) {
+                if ((sections & (1 << sectionY)) == 0) {
+                    sectionY++;
+                    continue;
+                }
+                int first = sectionY;
+                while (sectionY < SECTIONS && (sections & (1 << sectionY)) != 0) {
+                    if (mesh.getSectionStart(sectionY + 1) > mesh.getSectionStart(sectionY)) {
+                        drawn++;
+                    }
+                    sectionY++;
+                }
+                int firstQuad = mesh.getSectionStart(first);
+                int quads = mesh.getSectionStart(sectionY) - firstQuad;
+                if (quads > 0) {
+                    out.add(mesh, firstQuad, quads, minX, minZ);
+                }
+            }
+            if (drawn > 0) {
+                sectionsDrawn += drawn;
+                chunksDrawn++;
+            }
+        }
+    }
+
+    // Totals over every meshed chunk; cull() subtracts what was drawn
+    private void countChunk(int chunkX, int chunkZ, Chunk chunk) {
+        ArenaMesh mesh = chunk.getMesh();
+        if (mesh == null) {
+            return;
+        }
+        chunksSkipped++;
+        if (!mesh.hasSections()) {
+            return;
+        }
+        for (int sectionY = 0; sectionY < SECTIONS; sectionY++) {
+            if (mesh.getSectionStart(sectionY + 1) > mesh.getSectionStart(sectionY)) {
+                sectionsSkipped++;
+            }
+        }
+    }
+
+    private int cell(int chunkX, int chunkZ) {
+        return (chunkX - originX + radius) + (chunkZ - originZ + radius) * width;
+    }
+
+    private Chunk chunk(int cell) {
+        if (gridStamp[cell] != stamp) {
+            gridStamp[cell] = stamp;
+            grid[cell] = chunks.get(originX - radius + cell % width, originZ - radius + cell / width);
+        }
+        return grid[cell];
+    }
+
+    private void nextStamp() {
+        if (++stamp == 0) {
+            Arrays.fill(gridStamp, 0);
+            Arrays.fill(visitedStamp, 0);
+            stamp = 1;
+        }
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    // Sections the search reached, including empty ones
+    public int getSectionsVisited() {
+        return sectionsVisited;
+    }
+
+    // Sections with quads that were drawn last frame
+    public int getSectionsDrawn() {
+        return sectionsDrawn;
+    }
+
+    // Sections with quads that were not drawn last frame: occluded, outside the frustum or out of range
+    public int getSectionsSkipped() {
+        return sectionsSkipped;
+    }
+
+    public int getChunksDrawn() {
+        return chunksDrawn;
+    }
+
+    public int getChunksSkipped() {
+        return chunksSkipped;
+    }
+}
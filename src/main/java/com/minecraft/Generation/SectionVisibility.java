@@ -0,0 +1,138 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.ChunkSection;
+
+import java.util.Arrays;
+
+// Which faces of a 16x16x16 section can see each other through its air cells.
+// Air cells are grouped into connected regions; every pair of section faces
+// touched by the same region is connected. The result is a long with bit
+// a * 6 + b set when face a connects to face b, faces numbered as PackedQuad's
+// FACE_* (up, down, +z, -z, +x, -x). Every block counts as opaque, as in
+// Terrain.isFaceExposed.
+//
+// Regions are grown a whole column at a time: each column is a 16-bit mask of
+// y, like ChunkSection.columnMask, so one step spreads up and down a column
+// with shifts and sideways by or-ing the neighbouring columns in.
+//
+// An instance holds the buffers and is not thread-safe; compute() itself
+// depends only on the section, so it can be checked without GL.
+public final class SectionVisibility {
+    public static final int FACES = 6;
+    public static final long ALL = (1L << FACES * FACES) - 1;
+    public static final long NONE = 0;
+
+    private static final int SIZE = ChunkSection.SIZE;
+    private static final int COLUMNS = SIZE * SIZE;
+    private static final int COLUMN = (1 << SIZE) - 1;
+    private static final int TOP_AND_BOTTOM = 1 | 1 << (SIZE - 1);
+
+    // bit y of open[x + z * SIZE] set for each air cell not in a region yet
+    private final int[] open = new int[COLUMNS];
+    // the region being grown, same layout
+    private final int[] region = new int[COLUMNS];
+
+    // An empty (null) section connects everything, a full one nothing
+    public long compute(ChunkSection section) {
+        if (section == null || section.isEmpty()) {
+            return ALL;
+        }
+        if (section.isFull()) {
+            return NONE;
+        }
+        for (int z = 0; z < SIZE; z++) {
+            for (int x = 0; x < SIZE; x++) {
+                open[x + z * SIZE] = ~section.columnMask(x, z) & COLUMN;
+            }
+        }
+
+        long result = NONE;
+        for (int i = 0; i < COLUMNS; i++) {
+            // only regions that reach the boundary can connect faces
+            int boundary = isSide(i) ? COLUMN : TOP_AND_BOTTOM;
+            while ((open[i] & boundary) != 0) {
+                int touched = grow(i, Integer.lowestOneBit(open[i] & boundary));
+                for (int a = 0; a < FACES; a++) {
+                    if ((touched & (1 << a)) != 0) {
+                        result |= (long) touched << a * FACES;
+                    }
+                }
+                if (result == ALL) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Grows the air region containing cell bit of column start, takes it out
+    // of open and returns the faces it touches
+    private int grow(int start, int bit) {
+        Arrays.fill(region, 0);
+        region[start] = bit;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            // sweeping both ways carries the region across the section in one pass
+            for (int i = 0; i < COLUMNS; i++) {
+                changed |= spread(i);
+            }
+            for (int i = COLUMNS - 1; i >= 0; i--) {
+                changed |= spread(i);
+            }
+        }
+
+        int touched = 0;
+        for (int i = 0; i < COLUMNS; i++) {
+            int cells = region[i];
+            if (cells == 0) {
+                continue;
+            }
+            open[i] &= ~cells;
+            int x = i & (SIZE - 1);
+            int z = i / SIZE;
+            if ((cells & (1 << (SIZE - 1))) != 0) touched |= 1 << PackedQuad.FACE_UP;
+            if ((cells & 1) != 0) touched |= 1 << PackedQuad.FACE_DOWN;
+            if (z == SIZE - 1) touched |= 1 << PackedQuad.FACE_SOUTH;
+            if (z == 0) touched |= 1 << PackedQuad.FACE_NORTH;
+            if (x == SIZE - 1) touched |= 1 << PackedQuad.FACE_EAST;
+            if (x == 0) touched |= 1 << PackedQuad.FACE_WEST;
+        }
+        return touched;
+    }
+
+    // Adds the open cells of column i next to the region; true if it grew
+    private boolean spread(int i) {
+        int cells = region[i];
+        int x = i & (SIZE - 1);
+        int grown = cells;
+        if (x > 0) grown |= region[i - 1];
+        if (x < SIZE - 1) grown |= region[i + 1];
+        if (i >= SIZE) grown |= region[i - SIZE];
+        if (i < COLUMNS - SIZE) grown |= region[i + SIZE];
+        grown &= open[i];
+        if (grown == 0) {
+            return false;
+        }
+        // up and down the column until a solid cell
+        int next;
+        while ((next = (grown | grown << 1 | grown >>> 1) & open[i]) != grown) {
+            grown = next;
+        }
+        if (grown == cells) {
+            return false;
+        }
+        region[i] = grown;
+        return true;
+    }
+
+    private static boolean isSide(int column) {
+        int x = column & (SIZE - 1);
+        int z = column / SIZE;
+        return x == 0 || x == SIZE - 1 || z == 0 || z == SIZE - 1;
+    }
+
+    public static boolean connects(long visibility, int fromFace, int toFace) {
+        return (visibility & (1L << fromFace * FACES + toFace)) != 0;
+    }
+}
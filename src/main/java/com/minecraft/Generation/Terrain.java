@@ -2,206 +2,648 @@ package com.minecraft.Generation;
 
 import com.minecraft.core.Block;
 import com.minecraft.core.Chunk;
-import com.minecraft.graphics.Mesh;
-import com.minecraft.graphics.TextureHandler;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
+import com.minecraft.core.ChunkMap;
+import com.minecraft.core.ChunkSection;
+import com.minecraft.core.ChunkState;
+import com.minecraft.graphics.MeshArena;
+import com.minecraft.graphics.MeshBuilder;
+import com.minecraft.graphics.MeshData;
+import com.minecraft.profiling.MetricsRegistry;
+import com.minecraft.storage.RegionStore;
+
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class Terrain {
 
     private final int renderDistance;
-    private final Map<String, Chunk> chunks = new ConcurrentHashMap<>();
-    private final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-    
-    // Terrain generation parameters - tuned for Minecraft-like terrain
-    private static final int WATER_LEVEL = 32;
-    private static final int MAX_HEIGHT = 64;
-    
-    // Base terrain (rolling hills)
-    private static final double BASE_FREQUENCY = 0.008;
-    private static final int BASE_OCTAVES = 4;
-    private static final double BASE_PERSISTENCE = 0.5;
-    private static final double BASE_AMPLITUDE = 20.0;
-    
-    // Detail layer (adds small variations)
-    private static final double DETAIL_FREQUENCY = 0.04;
-    private static final int DETAIL_OCTAVES = 3;
-    private static final double DETAIL_PERSISTENCE = 0.4;
-    private static final double DETAIL_AMPLITUDE = 5.0;
+    private final ChunkMap<Chunk> chunks = new ChunkMap<>();
+
+    // Default limits on the backlog waiting for the mesh, upload and save stages
+    private static final int MESH_QUEUE_LIMIT = 128;
+    private static final int UPLOAD_QUEUE_LIMIT = 64;
+    private static final int SAVE_QUEUE_LIMIT = 256;
     
-    // Mountain layer (creates dramatic peaks)
-    private static final double MOUNTAIN_FREQUENCY = 0.003;
-    private static final int MOUNTAIN_OCTAVES = 2;
-    private static final double MOUNTAIN_PERSISTENCE = 0.55;
-    private static final double MOUNTAIN_AMPLITUDE = 25.0;
+    private static final int WATER_LEVEL = HeightmapGenerator.WATER_LEVEL;
 
     private final long seed;
-    private final int[] p = new int[512];
-    private final double[][] G = {
-            {1, 1, 0}, {-1, 1, 0}, {1, -1, 0}, {-1, -1, 0},
-            {1, 0, 1}, {-1, 0, 1}, {1, 0, -1}, {-1, 0, -1},
-            {0, 1, 1}, {0, -1, 1}, {0, 1, -1}, {0, -1, -1},
-            {1, 1, 0}, {-1, 1, 0}, {0, -1, 1}, {0, -1, -1}
-    };
+    private final HeightmapGenerator heightmapGenerator;
+    private final HeightmapCache heightmapCache;
+
+    // Face textures by index. The index is also the layer in the block texture
+    // array, and greedy meshing compares these indices instead of names.
+    public static final String[] FACE_TEXTURES = {"default", "grass_top", "grass_side", "dirt", "stone", "sand"};
+
+    // Horizontal neighbours as +x, -x, +z, -z, so i ^ 1 is the opposite direction
+    private static final int[] NEIGHBOR_DX = {1, -1, 0, 0};
+    private static final int[] NEIGHBOR_DZ = {0, 0, 1, -1};
+
+    // Unit direction of each PackedQuad FACE_* code
+    static final int[] FACE_DX = {0, 0, 0, 0, 1, -1};
+    static final int[] FACE_DY = {1, -1, 0, 0, 0, 0};
+    static final int[] FACE_DZ = {0, 0, 1, -1, 0, 0};
+    private static final int ALL_SIDES = (1 << 6) - 1;
+
+    // Binary meshing columns: x and z from -1 to 16, bits 0-17 for y from minY - 1 to minY + 16
+    private static final int COLUMNS_WIDTH = Chunk.CHUNK_WIDTH + 2;
+    private static final long SECTION_BITS = ((1L << ChunkSection.SIZE) - 1) << 1;
+
+    // Per-worker meshing state, reused across chunks so meshing allocates next to nothing
+    private static class MeshWorkspace {
+        final MeshBuilder builder = new MeshBuilder();
+        final int[] mask = new int[Chunk.CHUNK_WIDTH * Chunk.CHUNK_DEPTH];
+        final int[] quads = new int[mask.length * 5];
+        // occupancy of the section's columns plus a one-block border, see generateBinarySectionMesh
+        final long[] columns = new long[COLUMNS_WIDTH * COLUMNS_WIDTH];
+        final SectionVisibility visibility = new SectionVisibility();
+        // packed quads of the section being meshed
+        long[] sectionQuads = new long[1024];
+        int quadCount;
+
+        void add(long quad) {
+            if (quadCount == sectionQuads.length) {
+                sectionQuads = Arrays.copyOf(sectionQuads, quadCount * 2);
+            }
+            sectionQuads[quadCount++] = quad;
+        }
+    }
+
+    private final ThreadLocal<MeshWorkspace> meshWorkspace = ThreadLocal.withInitial(MeshWorkspace::new);
 
     private int enableCulling = 0;
+    private int greedyMeshing = 0;
+    private int binaryMeshing = 0;
+    private final MeshingStats meshingStats = new MeshingStats();
+    private ChunkUploadQueue uploadQueue = new ChunkUploadQueue(4.0f, 8L * 1024 * 1024);
+    private final ChunkUploadQueue.Uploader uploader = this::uploadPendingMesh;
+    private final ChunkUploadQueue.Uploader discarder = this::discardPendingMesh;
+
+    // The chunk pipeline: generate (or load) on the generate workers, mesh on
+    // the mesh workers, upload on the render thread and save on the region
+    // store's writers. Generate workers wait while too many chunks wait for
+    // meshing or saving, and mesh workers while too many meshes wait for
+    // upload, so finished work cannot pile up on the heap. The pools are
+    // started by the first update(); nothing is queued before that.
+    private ExecutorService generatePool;
+    private ExecutorService meshPool;
+    private final ChunkJobQueue generateQueue = new ChunkJobQueue(job -> generatePool.execute(job), this::runJob);
+    private final ChunkJobQueue meshQueue = new ChunkJobQueue(job -> meshPool.execute(job), this::runJob);
+    private int generateThreads;
+    private int meshThreads;
+    private boolean virtualThreads;
+    private int meshQueueLimit = MESH_QUEUE_LIMIT;
+    private final Backpressure uploadLimit = new Backpressure(() -> uploadQueue.getQueueDepth(), UPLOAD_QUEUE_LIMIT);
+    private final Backpressure saveLimit =
+            new Backpressure(() -> this.regionStore == null ? 0 : this.regionStore.getPendingWrites(), SAVE_QUEUE_LIMIT);
+    private ChunkStreamer streamer;
+    private final ChunkStreamer.Sink streamSink = new ChunkStreamer.Sink() {
+        @Override
+        public void load(int chunkX, int chunkZ) {
+            loadChunk(chunkX, chunkZ);
+        }
+
+        @Override
+        public void unload(int chunkX, int chunkZ) {
+            unloadChunk(chunkX, chunkZ);
+        }
+    };
+    private RegionStore regionStore;
+    private MeshArena meshArena;
+    private final ChunkLoadStats loadStats = new ChunkLoadStats();
+    private int lastPlayerChunkX;
+    private int lastPlayerChunkZ;
+    private boolean circularLoading;
+    private int lodDistance;
+    private LodTerrain lod;
 
     public Terrain(long seed, int renderDistance) {
         this.seed = seed;
         this.renderDistance = renderDistance;
-        initPerlin();
+        this.heightmapGenerator = HeightmapGenerator.create(seed);
+        this.heightmapCache = new HeightmapCache(heightmapGenerator, 4L * 1024 * 1024);
+        this.streamer = new ChunkStreamer(renderDistance, false);
+        setWorkerThreads(0, 0, 0);
+        meshQueue.getBackpressure().setLimit(meshQueueLimit);
+        generateQueue.setDownstream(meshQueue.getBackpressure(), saveLimit);
+        meshQueue.setDownstream(uploadLimit);
+    }
+
+    // Worker pool sizes of the generate and mesh stages; 0 splits the
+    // processors left after the render thread between them. virtualThreads 1
+    // runs the workers on virtual threads where the JVM has them.
+    // Only before the first update(), which starts the pools.
+    public void setWorkerThreads(int generateThreads, int meshThreads, int virtualThreads) {
+        if (generatePool != null) {
+            throw new IllegalStateException("Worker threads are already running");
+        }
+        int workers = WorkerThreads.available();
+        this.generateThreads = generateThreads > 0 ? generateThreads : Math.max(1, workers / 2);
+        this.meshThreads = meshThreads > 0 ? meshThreads : Math.max(1, workers - this.generateThreads);
+        this.virtualThreads = virtualThreads != 0;
+    }
+
+    private void startWorkers() {
+        if (generatePool == null) {
+            generatePool = WorkerThreads.pool("generate", generateThreads, virtualThreads);
+            meshPool = WorkerThreads.pool("mesh", meshThreads, virtualThreads);
+        }
+    }
+
+    // Chunks that may wait for meshing, meshes that may wait for upload and
+    // chunks that may wait for saving before the stage feeding them pauses;
+    // 0 removes a limit. Work submitted by the render thread is never held back.
+    public void setQueueLimits(int meshQueueLimit, int uploadQueueLimit, int saveQueueLimit) {
+        this.meshQueueLimit = meshQueueLimit > 0 ? meshQueueLimit : Integer.MAX_VALUE;
+        meshQueue.getBackpressure().setLimit(this.meshQueueLimit);
+        uploadLimit.setLimit(uploadQueueLimit > 0 ? uploadQueueLimit : Integer.MAX_VALUE);
+        saveLimit.setLimit(saveQueueLimit > 0 ? saveQueueLimit : Integer.MAX_VALUE);
+    }
+
+    // 1 = load chunks within a circle of radius renderDistance instead of a square.
+    // Takes effect only before the first update().
+    public void setCircularLoading(int circularLoading) {
+        this.circularLoading = circularLoading != 0;
+        this.streamer = new ChunkStreamer(renderDistance, this.circularLoading);
+    }
+
+    // Chunks beyond the render distance and within lodDistance are drawn as
+    // LodTerrain tiles; 0 (or anything up to the render distance) disables them.
+    // Takes effect only before the first update().
+    public void setLodDistance(int lodDistance) {
+        this.lodDistance = lodDistance;
+    }
+
+    // null unless a LOD distance beyond the render distance was set
+    public LodTerrain getLod() {
+        return lod;
     }
 
     public void setEnableCulling(int enableCulling) {
         this.enableCulling = enableCulling;
     }
 
+    public void setGreedyMeshing(int greedyMeshing) {
+        this.greedyMeshing = greedyMeshing;
+    }
+
+    // Culled per-face meshing from column bitmasks instead of per-face neighbour
+    // lookups; the faces are the same. Ignored for greedy meshing and without culling.
+    public void setBinaryMeshing(int binaryMeshing) {
+        this.binaryMeshing = binaryMeshing;
+    }
+
+    public MeshingStats getMeshingStats() {
+        return meshingStats;
+    }
+
+    public void setUploadBudget(float budgetMillis, long budgetBytes) {
+        this.uploadQueue = new ChunkUploadQueue(budgetMillis, budgetBytes);
+    }
+
+    public ChunkUploadQueue getUploadQueue() {
+        return uploadQueue;
+    }
+
+    // Chunks are read from the store before generating, and written back when unloaded
+    public void setRegionStore(RegionStore regionStore) {
+        this.regionStore = regionStore;
+    }
+
+    // Where uploaded chunk meshes go; without one, generateMeshes discards them
+    public void setMeshArena(MeshArena meshArena) {
+        this.meshArena = meshArena;
+    }
+
+    public ChunkLoadStats getLoadStats() {
+        return loadStats;
+    }
+
+    public ChunkJobQueue getGenerateQueue() {
+        return generateQueue;
+    }
+
+    public ChunkJobQueue getMeshQueue() {
+        return meshQueue;
+    }
+
+    // No jobs queued or running and no meshes waiting for upload
+    public boolean isIdle() {
+        return generateQueue.getQueueDepth() == 0 && generateQueue.getRunning() == 0
+                && meshQueue.getQueueDepth() == 0 && meshQueue.getRunning() == 0
+                && uploadQueue.getQueueDepth() == 0;
+    }
+
+    public String jobSummary() {
+        return "generate " + generateQueue.summary() + " | mesh " + meshQueue.summary();
+    }
+
+    // Per stage: workers, backlog against its limit, jobs done, throughput per
+    // busy worker and time the stage's workers spent waiting for the next one
+    public String pipelineSummary() {
+        StringBuilder summary = new StringBuilder(String.format("Pipeline (%s threads):",
+                virtualThreads ? "virtual" : "platform"));
+        appendStage(summary, "generate", generateThreads, generateQueue, Integer.MAX_VALUE);
+        appendStage(summary, "mesh", meshThreads, meshQueue, meshQueueLimit);
+        summary.append(String.format("%n  upload: %d queued (limit %s), %d uploaded",
+                uploadQueue.getQueueDepth(), limitText(uploadLimit.getLimit()), uploadQueue.getTotalUploads()));
+        if (regionStore != null) {
+            long writes = regionStore.getWrites();
+            summary.append(String.format("%n  save: %d threads, %d pending (limit %s), %d written, %.3f ms each",
+                    regionStore.getWriterThreads(), regionStore.getPendingWrites(), limitText(saveLimit.getLimit()),
+                    writes, writes == 0 ? 0 : regionStore.getWriteNanos() / 1_000_000.0 / writes));
+        }
+        return summary.toString();
+    }
+
+    private static void appendStage(StringBuilder summary, String name, int threads, ChunkJobQueue queue, int limit) {
+        long done = queue.getCompleted();
+        summary.append(String.format("%n  %s: %d threads, %d queued (peak %d, limit %s), %d done, %.3f ms each, "
+                        + "waited %d times for %.1f s",
+                name, threads, queue.getQueueDepth(), queue.getPeakQueueDepth(), limitText(limit), done,
+                done == 0 ? 0 : queue.getBusyNanos() / 1_000_000.0 / done,
+                queue.getStalls(), queue.getStalledNanos() / 1_000_000_000.0));
+    }
+
+    private static String limitText(int limit) {
+        return limit == Integer.MAX_VALUE ? "none" : Integer.toString(limit);
+    }
+
+    public int getLoadedChunkCount() {
+        return chunks.size();
+    }
+
+    // Chunk counters under "terrain.", per-stage queue and worker counters under
+    // "pipeline."; each value is recorded once, and totals across stages are left
+    // to whoever reads the log. All of them are safe to read from any thread.
+    public void registerMetrics(MetricsRegistry registry) {
+        registry.gauge("terrain.loadedChunks", chunks::size);
+        registry.gauge("terrain.jobsCancelled", () -> generateQueue.getCancelled() + meshQueue.getCancelled());
+        registry.gauge("pipeline.generate.queued", () -> generateQueue.getQueueDepth());
+        registry.gauge("pipeline.generate.running", () -> generateQueue.getRunning());
+        registry.gauge("pipeline.generate.completed", () -> generateQueue.getCompleted());
+        registry.gauge("pipeline.generate.busyMillis", () -> generateQueue.getBusyNanos() / 1_000_000);
+        registry.gauge("pipeline.generate.stalledMillis", () -> generateQueue.getStalledNanos() / 1_000_000);
+        registry.gauge("pipeline.mesh.queued", () -> meshQueue.getQueueDepth());
+        registry.gauge("pipeline.mesh.running", () -> meshQueue.getRunning());
+        registry.gauge("pipeline.mesh.completed", () -> meshQueue.getCompleted());
+        registry.gauge("pipeline.mesh.busyMillis", () -> meshQueue.getBusyNanos() / 1_000_000);
+        registry.gauge("pipeline.mesh.stalledMillis", () -> meshQueue.getStalledNanos() / 1_000_000);
+        registry.gauge("pipeline.upload.queued", () -> uploadQueue.getQueueDepth());
+        registry.gauge("pipeline.save.pending", () -> regionStore == null ? 0 : regionStore.getPendingWrites());
+        registry.gauge("pipeline.save.written", () -> regionStore == null ? 0 : regionStore.getWrites());
+        registry.gauge("terrain.chunksGenerated", loadStats::getGenerated);
+        registry.gauge("terrain.chunksLoadedFromDisk", loadStats::getLoaded);
+        registry.gauge("terrain.remeshes", meshingStats::getRemeshes);
+        registry.gauge("terrain.uploadsLastFrame", () -> uploadQueue.getLastFrameUploads());
+        registry.gauge("heightmap.hits", heightmapCache::getHits);
+        registry.gauge("heightmap.misses", heightmapCache::getMisses);
+        registry.gauge("heightmap.evictions", heightmapCache::getEvictions);
+        registry.gauge("heightmap.columns", heightmapCache::size);
+        // the LOD terrain is created on the first update()
+        for (int level = 0; level < LodTerrain.LEVELS; level++) {
+            int tileLevel = level;
+            registry.gauge("lod.tiles" + (2 << level) + "x", () -> lod == null ? 0 : lod.getTileCount(tileLevel));
+        }
+        registry.gauge("lod.retiring", () -> lod == null ? 0 : lod.getRetiringCount());
+        registry.gauge("lod.jobsQueued", () -> lod == null ? 0 : lod.getQueueDepth());
+        registry.gauge("lod.tilesBuilt", () -> lod == null ? 0 : lod.getTilesBuilt());
+    }
+
+    // Does nothing unless the player entered a new chunk; then only the chunks
+    // entering and leaving the loaded area are touched. Meshing is requested by
+    // the jobs themselves as chunks finish generating.
     public void update(int playerChunkX, int playerChunkZ) {
-        chunks.keySet().removeIf(key -> {
-            String[] parts = key.split("_");
-            int chunkX = Integer.parseInt(parts[0]);
-            int chunkZ = Integer.parseInt(parts[1]);
-            boolean outOfRange = Math.abs(chunkX - playerChunkX) > renderDistance || Math.abs(chunkZ - playerChunkZ) > renderDistance;
-            if (outOfRange) {
-                Chunk chunk = chunks.get(key);
-                if (chunk != null) {
-                    chunk.getMeshes().values().forEach(Mesh::cleanup);
-                }
-            }
-            return outOfRange;
-        });
-
-        for (int x = -renderDistance; x <= renderDistance; x++) {
-            for (int z = -renderDistance; z <= renderDistance; z++) {
-                int chunkX = playerChunkX + x;
-                int chunkZ = playerChunkZ + z;
-                loadChunk(chunkX, chunkZ);
-                Chunk chunk = chunks.get(chunkX + "_" + chunkZ);
-                if (chunk != null && chunk.needsRebuild()) {
-                    executor.submit(() -> buildChunkMesh(chunkX, chunkZ));
-                }
-            }
+        startWorkers();
+        if (lod == null && lodDistance > renderDistance) {
+            lod = new LodTerrain(heightmapGenerator, chunks, generatePool, renderDistance, lodDistance, circularLoading);
+        }
+        if (!streamer.moveTo(playerChunkX, playerChunkZ, streamSink)) {
+            return;
+        }
+        lastPlayerChunkX = playerChunkX;
+        lastPlayerChunkZ = playerChunkZ;
+        generateQueue.setCenter(playerChunkX, playerChunkZ);
+        meshQueue.setCenter(playerChunkX, playerChunkZ);
+        if (lod != null) {
+            lod.update(playerChunkX, playerChunkZ, streamer);
+        }
+    }
+
+    // Queues a meshing job unless one is already queued or running
+    public void requestMesh(int chunkX, int chunkZ) {
+        Chunk chunk = chunks.get(chunkX, chunkZ);
+        if (chunk != null && chunk.beginMeshing()) {
+            meshQueue.submit(chunkX, chunkZ, ChunkJobQueue.Kind.MESH);
+        }
+    }
+
+    private void unloadChunk(int chunkX, int chunkZ) {
+        Chunk chunk = chunks.remove(chunkX, chunkZ);
+        generateQueue.cancel(chunkX, chunkZ);
+        meshQueue.cancel(chunkX, chunkZ);
+        if (chunk == null) {
+            return;
         }
+        if (lod != null && chunk.getMesh() != null) {
+            // drawn until the LOD tile replacing it is uploaded
+            lod.retireChunk(chunkX, chunkZ, chunk);
+        } else if (meshArena != null) {
+            meshArena.free(chunk.getMesh());
+        }
+        chunk.setMesh(null);
+        chunk.unload();
+        saveChunk(chunkX, chunkZ, chunk);
     }
 
+    // Inserts a GENERATING placeholder, which is never meshed, and queues the
+    // job that replaces it with the real chunk
     private void loadChunk(int chunkX, int chunkZ) {
-        String key = chunkX + "_" + chunkZ;
-        if (!chunks.containsKey(key)) {
-            chunks.put(key, new Chunk());
-            executor.submit(() -> {
-                Chunk chunk = new Chunk();
-                generateChunk(chunk, chunkX, chunkZ);
-                chunks.put(key, chunk);
-            });
+        Chunk placeholder = new Chunk();
+        placeholder.setState(ChunkState.GENERATING);
+        placeholder.setRequestedNanos(System.nanoTime());
+        chunks.put(chunkX, chunkZ, placeholder);
+        generateQueue.submit(chunkX, chunkZ, ChunkJobQueue.Kind.GENERATE);
+    }
+
+    private void runJob(int chunkX, int chunkZ, ChunkJobQueue.Kind kind) {
+        if (kind == ChunkJobQueue.Kind.GENERATE) {
+            generateOrLoadChunk(chunkX, chunkZ);
+        } else {
+            buildChunkMesh(chunkX, chunkZ);
+        }
+    }
+
+    private void generateOrLoadChunk(int chunkX, int chunkZ) {
+        Chunk placeholder = chunks.get(chunkX, chunkZ);
+        if (placeholder == null || placeholder.getState() != ChunkState.GENERATING) {
+            return;
+        }
+        Chunk chunk = loadStoredChunk(chunkX, chunkZ);
+        if (chunk == null) {
+            long start = System.nanoTime();
+            chunk = new Chunk();
+            generateChunk(chunk, chunkX, chunkZ);
+            loadStats.recordGenerated(System.nanoTime() - start);
+        }
+        chunk.setState(ChunkState.GENERATED);
+        chunk.setRequestedNanos(placeholder.getRequestedNanos());
+        if (!chunks.replace(chunkX, chunkZ, placeholder, chunk)) {
+            // unloaded while generating; keep the work if there is somewhere to put it
+            generateQueue.recordWasted();
+            saveChunk(chunkX, chunkZ, chunk);
+            return;
+        }
+        requestMesh(chunkX, chunkZ);
+        onChunkArrived(chunkX, chunkZ, chunk);
+    }
+
+    private Chunk loadStoredChunk(int chunkX, int chunkZ) {
+        if (regionStore == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            Chunk chunk = regionStore.load(chunkX, chunkZ);
+            if (chunk != null) {
+                loadStats.recordLoaded(System.nanoTime() - start);
+            }
+            return chunk;
+        } catch (IOException e) {
+            System.err.println("Failed to load chunk " + chunkX + ", " + chunkZ + ": " + e.getMessage());
+            return null;
         }
     }
 
+    private void saveChunk(int chunkX, int chunkZ, Chunk chunk) {
+        if (regionStore != null && chunk.isModified()) {
+            regionStore.saveAsync(chunkX, chunkZ, chunk);
+            loadStats.recordSaved();
+        }
+    }
+
+    // Meshes the chunk's dirty sections, keeps their quads on the chunk and
+    // assembles the chunk mesh from every section's quads
     public void buildChunkMesh(int chunkX, int chunkZ) {
-        Chunk chunk = chunks.get(chunkX + "_" + chunkZ);
-        if (chunk == null) return;
+        Chunk chunk = chunks.get(chunkX, chunkZ);
+        if (chunk == null || chunk.getState() != ChunkState.MESHING) return;
+
+        MeshWorkspace workspace = meshWorkspace.get();
+        MeshBuilder builder = workspace.builder;
+        builder.reset();
+        long start = System.nanoTime();
+        int dirty = chunk.takeDirtySections();
+        chunk.setMeshedNeighbors(presentNeighbors(chunkX, chunkZ));
+        int sections = 0;
+        int quadsBefore = 0;
+        int quadsAfter = 0;
+        boolean remesh = chunk.hasSectionQuads();
+        for (int sectionY = 0; sectionY < Chunk.SECTION_COUNT; sectionY++) {
+            if ((dirty & (1 << sectionY)) == 0) {
+                continue;
+            }
+            long[] previous = chunk.getSectionQuads(sectionY);
+            quadsBefore += previous == null ? 0 : previous.length;
+            workspace.quadCount = 0;
+            meshSection(chunk, chunkX, chunkZ, sectionY, true, workspace);
+            long[] quads = workspace.quadCount == 0 ? null : Arrays.copyOf(workspace.sectionQuads, workspace.quadCount);
+            chunk.setSectionQuads(sectionY, quads);
+            chunk.setSectionVisibility(sectionY, workspace.visibility.compute(chunk.getSection(sectionY)));
+            quadsAfter += workspace.quadCount;
+            sections++;
+        }
+        int[] sectionStarts = new int[Chunk.SECTION_COUNT + 1];
+        for (int sectionY = 0; sectionY < Chunk.SECTION_COUNT; sectionY++) {
+            sectionStarts[sectionY] = builder.getVertexCount() / 4;
+            long[] quads = chunk.getSectionQuads(sectionY);
+            if (quads != null) {
+                for (long quad : quads) {
+                    emitQuad(quad, builder);
+                }
+            }
+        }
+        sectionStarts[Chunk.SECTION_COUNT] = builder.getVertexCount() / 4;
+        long elapsed = System.nanoTime() - start;
 
-        Map<String, List<Float>> positionsMap = new HashMap<>();
-        Map<String, List<Float>> textCoordsMap = new HashMap<>();
-        Map<String, List<Integer>> indicesMap = new HashMap<>();
-        generateChunkMesh(chunkX, chunkZ, positionsMap, textCoordsMap, indicesMap);
+        meshingStats.record(builder.getVertexCount(), builder.getIndexCount(), elapsed);
+        if (remesh) {
+            meshingStats.recordRemesh(sections, quadsBefore - quadsAfter);
+        }
+        MeshData meshData = builder.finish();
+        if (meshData != null) {
+            meshData.setSectionStarts(sectionStarts);
+        }
+        if (chunk.finishMeshing(meshData)) {
+            if (!remesh) {
+                loadStats.recordReady(System.nanoTime() - chunk.getRequestedNanos());
+            }
+            uploadQueue.submit(chunkX, chunkZ);
+            // blocks or neighbours changed while this job ran
+            if (chunk.needsRebuild()) {
+                requestMesh(chunkX, chunkZ);
+            }
+        } else {
+            meshQueue.recordWasted();
+        }
+    }
 
-        Map<String, float[]> posArrMap = new HashMap<>();
-        Map<String, float[]> textCoordsArrMap = new HashMap<>();
-        Map<String, int[]> indicesArrMap = new HashMap<>();
+    // Meshes a loaded chunk into builder with the current settings, without
+    // queueing an upload or touching the chunk's cached section quads
+    void meshChunk(int chunkX, int chunkZ, MeshBuilder builder) {
+        meshChunk(chunkX, chunkZ, builder, true);
+    }
 
-        for (String texture : positionsMap.keySet()) {
-            List<Float> positions = positionsMap.get(texture);
-            List<Float> textCoords = textCoordsMap.get(texture);
-            List<Integer> indices = indicesMap.get(texture);
+    // shells false scans full sections cell by cell like any other, which
+    // must give the same quads
+    void meshChunk(int chunkX, int chunkZ, MeshBuilder builder, boolean shells) {
+        Chunk chunk = chunks.get(chunkX, chunkZ);
+        if (chunk == null) return;
+        MeshWorkspace workspace = meshWorkspace.get();
+        for (int sectionY = 0; sectionY < Chunk.SECTION_COUNT; sectionY++) {
+            workspace.quadCount = 0;
+            meshSection(chunk, chunkX, chunkZ, sectionY, shells, workspace);
+            for (int i = 0; i < workspace.quadCount; i++) {
+                emitQuad(workspace.sectionQuads[i], builder);
+            }
+        }
+    }
 
-            float[] posArr = new float[positions.size()];
-            for (int i = 0; i < positions.size(); i++) {
-                posArr[i] = positions.get(i);
+    // Bit per loaded neighbour, see NEIGHBOR_DX / NEIGHBOR_DZ
+    private int presentNeighbors(int chunkX, int chunkZ) {
+        int present = 0;
+        for (int i = 0; i < 4; i++) {
+            Chunk neighbor = chunks.get(chunkX + NEIGHBOR_DX[i], chunkZ + NEIGHBOR_DZ[i]);
+            if (neighbor != null && neighbor.getState() != ChunkState.GENERATING) {
+                present |= 1 << i;
             }
+        }
+        return present;
+    }
 
-            float[] textCoordsArr = new float[textCoords.size()];
-            for (int i = 0; i < textCoords.size(); i++) {
-                textCoordsArr[i] = textCoords.get(i);
+    // A newly loaded chunk hides border faces of neighbours that were meshed
+    // without it. Only the sections where both chunks have blocks can change.
+    private void onChunkArrived(int chunkX, int chunkZ, Chunk chunk) {
+        for (int i = 0; i < 4; i++) {
+            int neighborX = chunkX + NEIGHBOR_DX[i];
+            int neighborZ = chunkZ + NEIGHBOR_DZ[i];
+            Chunk neighbor = chunks.get(neighborX, neighborZ);
+            if (neighbor == null) {
+                continue;
             }
+            ChunkState state = neighbor.getState();
+            if (state != ChunkState.MESHING && state != ChunkState.READY) {
+                continue;
+            }
+            // direction from the neighbour back to this chunk
+            int opposite = i ^ 1;
+            if ((neighbor.getMeshedNeighbors() & (1 << opposite)) != 0) {
+                continue;
+            }
+            int sections = 0;
+            for (int sectionY = 0; sectionY < Chunk.SECTION_COUNT; sectionY++) {
+                if (chunk.getSection(sectionY) != null && neighbor.getSection(sectionY) != null) {
+                    sections |= 1 << sectionY;
+                }
+            }
+            if (enableCulling == 0 || sections == 0) {
+                continue;
+            }
+            neighbor.markSectionsDirty(sections);
+            requestMesh(neighborX, neighborZ);
+        }
+    }
 
-            int[] indicesArr = new int[indices.size()];
-            for (int i = 0; i < indices.size(); i++) {
-                indicesArr[i] = indices.get(i);
+    // Empty sections have nothing to mesh. Inside a full section every face is
+    // hidden, so only the boundary layers facing a section that is not full can
+    // have visible faces; a full section surrounded by full sections has none.
+    private void meshSection(Chunk chunk, int chunkX, int chunkZ, int sectionY, boolean shells, MeshWorkspace workspace) {
+        if (chunk.getSection(sectionY) == null) {
+            meshingStats.recordSection(MeshingStats.SECTION_EMPTY);
+            return;
+        }
+        boolean full = shells && enableCulling != 0 && chunk.isSectionFull(sectionY);
+        int open = ALL_SIDES;
+        if (full) {
+            open = openSides(chunk, chunkX, chunkZ, sectionY);
+            if (open == 0) {
+                meshingStats.recordSection(MeshingStats.SECTION_BURIED);
+                return;
             }
+            meshingStats.recordSection(MeshingStats.SECTION_SHELL);
+        } else {
+            meshingStats.recordSection(MeshingStats.SECTION_SCANNED);
+        }
+        if (greedyMeshing != 0) {
+            generateGreedySectionMesh(chunk, chunkX, chunkZ, sectionY, full, open, workspace);
+        } else if (binaryMeshing != 0 && enableCulling != 0) {
+            generateBinarySectionMesh(chunk, chunkX, chunkZ, sectionY, workspace);
+        } else if (full) {
+            generateShellMesh(chunk, chunkX, chunkZ, sectionY, open, workspace);
+        } else {
+            generateSectionMesh(chunk, chunkX, chunkZ, sectionY, workspace);
+        }
+    }
 
-            posArrMap.put(texture, posArr);
-            textCoordsArrMap.put(texture, textCoordsArr);
-            indicesArrMap.put(texture, indicesArr);
+    // Bit per FACE_* direction whose neighbouring section is not full. Outside
+    // the world and next to unloaded chunks faces count as exposed, as in isFaceExposed.
+    private int openSides(Chunk chunk, int chunkX, int chunkZ, int sectionY) {
+        int open = 0;
+        if (sectionY == Chunk.SECTION_COUNT - 1 || !chunk.isSectionFull(sectionY + 1)) {
+            open |= 1 << PackedQuad.FACE_UP;
         }
+        if (sectionY == 0 || !chunk.isSectionFull(sectionY - 1)) {
+            open |= 1 << PackedQuad.FACE_DOWN;
+        }
+        for (int face = PackedQuad.FACE_SOUTH; face <= PackedQuad.FACE_WEST; face++) {
+            Chunk neighbor = chunks.get(chunkX + FACE_DX[face], chunkZ + FACE_DZ[face]);
+            if (neighbor == null || !neighbor.isSectionFull(sectionY)) {
+                open |= 1 << face;
+            }
+        }
+        return open;
+    }
 
-        chunk.setPendingMeshData(posArrMap, textCoordsArrMap, indicesArrMap);
+    // Inserts an already generated chunk, bypassing the worker pool
+    void putChunk(int chunkX, int chunkZ, Chunk chunk) {
+        chunks.put(chunkX, chunkZ, chunk);
     }
 
-    private void generateChunk(Chunk chunk, int chunkX, int chunkZ) {
+    Chunk getChunk(int chunkX, int chunkZ) {
+        return chunks.get(chunkX, chunkZ);
+    }
+
+    void generateChunk(Chunk chunk, int chunkX, int chunkZ) {
+        int[] heights = new int[Chunk.CHUNK_WIDTH * Chunk.CHUNK_DEPTH];
+        heightmapCache.chunkHeights(chunkX, chunkZ, heights);
         for (int x = 0; x < Chunk.CHUNK_WIDTH; x++) {
             for (int z = 0; z < Chunk.CHUNK_DEPTH; z++) {
-                int worldX = chunkX * Chunk.CHUNK_WIDTH + x;
-                int worldZ = chunkZ * Chunk.CHUNK_DEPTH + z;
-                
-                int height = generateHeight(worldX, worldZ);
-                
-                for (int y = 0; y < Chunk.CHUNK_HEIGHT; y++) {
-                    if (y <= height) {
-                        int blockType = getBlockType(y, height);
-                        chunk.setBlock(x, y, z, new Block(blockType));
-                    }
+                int height = heights[x + z * Chunk.CHUNK_WIDTH];
+                for (int y = 0; y <= height; y++) {
+                    chunk.setBlockId(x, y, z, getBlockType(y, height));
                 }
             }
         }
+        chunk.compact();
     }
-    
-    private int generateHeight(int worldX, int worldZ) {
-        // Base terrain - rolling hills
-        double baseNoise = octaveNoise(worldX, worldZ, BASE_FREQUENCY, BASE_OCTAVES, BASE_PERSISTENCE);
-        double baseHeight = baseNoise * BASE_AMPLITUDE;
-        
-        // Detail layer - small variations
-        double detailNoise = octaveNoise(worldX + 1000, worldZ + 1000, DETAIL_FREQUENCY, DETAIL_OCTAVES, DETAIL_PERSISTENCE);
-        double detailHeight = detailNoise * DETAIL_AMPLITUDE;
-        
-        // Mountain layer - dramatic peaks
-        double mountainNoise = octaveNoise(worldX + 2000, worldZ + 2000, MOUNTAIN_FREQUENCY, MOUNTAIN_OCTAVES, MOUNTAIN_PERSISTENCE);
-        // Make mountains sparse - only where noise is high
-        mountainNoise = Math.max(0, (mountainNoise - 0.3) * 2.5);
-        double mountainHeight = mountainNoise * MOUNTAIN_AMPLITUDE;
-        
-        // Combine all layers
-        int finalHeight = WATER_LEVEL + (int)(baseHeight + detailHeight + mountainHeight);
-        
-        return Math.max(0, Math.min(finalHeight, Chunk.CHUNK_HEIGHT - 1));
+
+    public int getHeight(int worldX, int worldZ) {
+        return heightmapCache.height(worldX, worldZ);
     }
-    
-    private double octaveNoise(double x, double z, double frequency, int octaves, double persistence) {
-        double noise = 0;
-        double amplitude = 1;
-        double freq = frequency;
-        double maxValue = 0;
-        
-        for (int i = 0; i < octaves; i++) {
-            noise += perlinNoise(x * freq, z * freq) * amplitude;
-            maxValue += amplitude;
-            amplitude *= persistence;
-            freq *= 2;
-        }
-        
-        return noise / maxValue;
+
+    // Surface heights of chunk columns; use this rather than the generator
+    public HeightmapCache getHeightmapCache() {
+        return heightmapCache;
     }
 
-    public int getHeight(int worldX, int worldZ) {
-        return generateHeight(worldX, worldZ);
+    public void setHeightmapCacheSize(long maxBytes) {
+        heightmapCache.setMaxBytes(maxBytes);
     }
-    
+
+    public HeightmapGenerator getHeightmapGenerator() {
+        return heightmapGenerator;
+    }
+
     private int getBlockType(int y, int terrainHeight) {
         if (y == terrainHeight) {
             if (terrainHeight >= WATER_LEVEL) {
@@ -218,115 +660,294 @@ public class Terrain {
         }
     }
     
-    private double perlinNoise(double x, double z) {
-        int xi = (int) Math.floor(x) & 255;
-        int zi = (int) Math.floor(z) & 255;
-        
-        double xf = x - Math.floor(x);
-        double zf = z - Math.floor(z);
-        
-        double u = fade(xf);
-        double v = fade(zf);
-        
-        // Get gradient indices for the 4 corners
-        int aa = p[p[xi] + zi];
-        int ab = p[p[xi] + zi + 1];
-        int ba = p[p[xi + 1] + zi];
-        int bb = p[p[xi + 1] + zi + 1];
-        
-        // Calculate dot products with gradients
-        double x1 = lerp(grad(aa, xf, zf), grad(ba, xf - 1, zf), u);
-        double x2 = lerp(grad(ab, xf, zf - 1), grad(bb, xf - 1, zf - 1), u);
-        
-        return lerp(x1, x2, v);
-    }
-    
-    private double grad(int hash, double x, double z) {
-        int h = hash & 15;
-        double u = h < 8 ? x : z;
-        double v = h < 4 ? z : (h == 12 || h == 14 ? x : 0);
-        return ((h & 1) == 0 ? u : -u) + ((h & 2) == 0 ? v : -v);
+    private void generateSectionMesh(Chunk chunk, int chunkX, int chunkZ, int sectionY, MeshWorkspace workspace) {
+        int minY = sectionY * ChunkSection.SIZE;
+        for (int x = 0; x < Chunk.CHUNK_WIDTH; x++) {
+            for (int y = minY; y < minY + ChunkSection.SIZE; y++) {
+                for (int z = 0; z < Chunk.CHUNK_DEPTH; z++) {
+                    if (chunk.getBlockId(x, y, z) != Block.AIR) {
+                        generateBlockMesh(chunk, chunkX, chunkZ, x, y, z, workspace);
+                    }
+                }
+            }
+        }
     }
 
-    private void initPerlin() {
-        Random rand = new Random(seed);
-        for (int i = 0; i < 256; i++) {
-            p[i] = i;
+    // Culled per-face meshing with bit operations. Each column of the section,
+    // and of the one-block border around it, becomes a long with bit y - minY + 1
+    // set for every non-air block, so the block below the section is bit 0 and
+    // the block above it bit 17. A face is exposed where its block's bit is set
+    // and the bit for the next block along the face is clear: the column shifted
+    // by one for up and down faces, the neighbouring column for side faces. The
+    // border stays zero outside the world and next to unloaded chunks, which
+    // isFaceExposed also treats as exposed.
+    private void generateBinarySectionMesh(Chunk chunk, int chunkX, int chunkZ, int sectionY, MeshWorkspace workspace) {
+        long[] columns = workspace.columns;
+        Arrays.fill(columns, 0);
+        int minY = sectionY * ChunkSection.SIZE;
+        int last = ChunkSection.SIZE - 1;
+        ChunkSection section = chunk.getSection(sectionY);
+        ChunkSection below = sectionY > 0 ? chunk.getSection(sectionY - 1) : null;
+        ChunkSection above = sectionY < Chunk.SECTION_COUNT - 1 ? chunk.getSection(sectionY + 1) : null;
+        for (int z = 0; z < Chunk.CHUNK_DEPTH; z++) {
+            for (int x = 0; x < Chunk.CHUNK_WIDTH; x++) {
+                long column = (long) section.columnMask(x, z) << 1;
+                if (below != null && below.get(x, last, z) != Block.AIR) {
+                    column |= 1;
+                }
+                if (above != null && above.get(x, 0, z) != Block.AIR) {
+                    column |= 1L << (ChunkSection.SIZE + 1);
+                }
+                columns[(x + 1) + (z + 1) * COLUMNS_WIDTH] = column;
+            }
         }
-        for (int i = 0; i < 256; i++) {
-            int r = rand.nextInt(256 - i) + i;
-            int temp = p[i];
-            p[i] = p[r];
-            p[r] = temp;
+        for (int i = 0; i < 4; i++) {
+            Chunk neighbor = chunks.get(chunkX + NEIGHBOR_DX[i], chunkZ + NEIGHBOR_DZ[i]);
+            ChunkSection border = neighbor == null ? null : neighbor.getSection(sectionY);
+            if (border == null) {
+                continue;
+            }
+            // the neighbour's column next to each of ours along the shared edge
+            for (int k = 0; k < ChunkSection.SIZE; k++) {
+                int x = NEIGHBOR_DX[i] > 0 ? Chunk.CHUNK_WIDTH : NEIGHBOR_DX[i] < 0 ? -1 : k;
+                int z = NEIGHBOR_DZ[i] > 0 ? Chunk.CHUNK_DEPTH : NEIGHBOR_DZ[i] < 0 ? -1 : k;
+                int column = border.columnMask(Math.floorMod(x, Chunk.CHUNK_WIDTH), Math.floorMod(z, Chunk.CHUNK_DEPTH));
+                columns[(x + 1) + (z + 1) * COLUMNS_WIDTH] = (long) column << 1;
+            }
         }
-        for (int i = 0; i < 256; i++) {
-            p[i + 256] = p[i];
+
+        for (int z = 0; z < Chunk.CHUNK_DEPTH; z++) {
+            for (int x = 0; x < Chunk.CHUNK_WIDTH; x++) {
+                int c = (x + 1) + (z + 1) * COLUMNS_WIDTH;
+                long column = columns[c];
+                long solid = column & SECTION_BITS;
+                if (solid == 0) {
+                    continue;
+                }
+                emitColumnFaces(chunk, x, minY, z, solid & ~(column >>> 1), PackedQuad.FACE_UP, workspace);
+                emitColumnFaces(chunk, x, minY, z, solid & ~(column << 1), PackedQuad.FACE_DOWN, workspace);
+                emitColumnFaces(chunk, x, minY, z, solid & ~columns[c + COLUMNS_WIDTH], PackedQuad.FACE_SOUTH, workspace);
+                emitColumnFaces(chunk, x, minY, z, solid & ~columns[c - COLUMNS_WIDTH], PackedQuad.FACE_NORTH, workspace);
+                emitColumnFaces(chunk, x, minY, z, solid & ~columns[c + 1], PackedQuad.FACE_EAST, workspace);
+                emitColumnFaces(chunk, x, minY, z, solid & ~columns[c - 1], PackedQuad.FACE_WEST, workspace);
+            }
         }
     }
 
-    private double fade(double t) {
-        return t * t * t * (t * (t * 6 - 15) + 10);
-    }
-    
-    private double lerp(double a, double b, double t) {
-        return a + t * (b - a);
+    // One quad per set bit of faces, a column bitmask as in generateBinarySectionMesh
+    private void emitColumnFaces(Chunk chunk, int x, int minY, int z, long faces, int face, MeshWorkspace workspace) {
+        while (faces != 0) {
+            int y = minY + Long.numberOfTrailingZeros(faces) - 1;
+            int texture = getTextureIndexForFace(chunk.getBlockId(x, y, z), FACE_DX[face], FACE_DY[face], FACE_DZ[face]);
+            workspace.add(PackedQuad.pack(x, y, z, face, 1, 1, texture));
+            faces &= faces - 1;
+        }
     }
 
-    private void generateChunkMesh(int chunkX, int chunkZ, Map<String, List<Float>> positionsMap, Map<String, List<Float>> textCoordsMap, Map<String, List<Integer>> indicesMap) {
-        Chunk chunk = chunks.get(chunkX + "_" + chunkZ);
-        if (chunk == null) return;
-        for (int x = 0; x < Chunk.CHUNK_WIDTH; x++) {
-            for (int y = 0; y < Chunk.CHUNK_HEIGHT; y++) {
-                for (int z = 0; z < Chunk.CHUNK_DEPTH; z++) {
-                    Block block = chunk.getBlock(x, y, z);
-                    if (block != null) {
-                        generateBlockMesh(chunkX, chunkZ, x, y, z, positionsMap, textCoordsMap, indicesMap);
+    // Per-face meshing of a full section: only the 16x16 layer on each open side
+    // can have exposed faces, and only on that side
+    private void generateShellMesh(Chunk chunk, int chunkX, int chunkZ, int sectionY, int open, MeshWorkspace workspace) {
+        int minY = sectionY * ChunkSection.SIZE;
+        int last = ChunkSection.SIZE - 1;
+        for (int face = 0; face < 6; face++) {
+            if ((open & (1 << face)) == 0) {
+                continue;
+            }
+            int dirX = FACE_DX[face];
+            int dirY = FACE_DY[face];
+            int dirZ = FACE_DZ[face];
+            // the layer's two free axes: (x, z) for Y faces, (x, y) for Z faces, (z, y) for X faces
+            for (int b = 0; b < ChunkSection.SIZE; b++) {
+                for (int a = 0; a < ChunkSection.SIZE; a++) {
+                    int x = dirX != 0 ? (dirX > 0 ? last : 0) : a;
+                    int y = minY + (dirY != 0 ? (dirY > 0 ? last : 0) : b);
+                    int z = dirZ != 0 ? (dirZ > 0 ? last : 0) : (dirX != 0 ? a : b);
+                    if (isFaceExposed(chunkX, chunkZ, x, y, z, dirX, dirY, dirZ)) {
+                        int texture = getTextureIndexForFace(chunk.getBlockId(x, y, z), dirX, dirY, dirZ);
+                        workspace.add(PackedQuad.pack(x, y, z, face, 1, 1, texture));
                     }
                 }
             }
         }
     }
 
-    private void generateBlockMesh(int chunkX, int chunkZ, int x, int y, int z, Map<String, List<Float>> positionsMap, Map<String, List<Float>> textCoordsMap, Map<String, List<Integer>> indicesMap) {
-        float worldX = chunkX * Chunk.CHUNK_WIDTH + x;
-        float worldZ = chunkZ * Chunk.CHUNK_DEPTH + z;
-        Chunk chunk = chunks.get(chunkX + "_" + chunkZ);
-        if (chunk == null) return;
-        Block block = chunk.getBlock(x, y, z);
-        if (block == null) return;
-        int blockType = block.getType();
-        
+    private void generateBlockMesh(Chunk chunk, int chunkX, int chunkZ, int x, int y, int z, MeshWorkspace workspace) {
+        int blockType = chunk.getBlockId(x, y, z);
+        if (blockType == Block.AIR) return;
+
         if (isFaceExposed(chunkX, chunkZ, x, y, z, 0, 1, 0)) {
-            String topTexture = getTextureForFace(blockType, 0, 1, 0);
-            addFace(worldX, y + 1, worldZ, worldX + 1, y + 1, worldZ + 1, 0, 1, 0, topTexture, positionsMap, textCoordsMap, indicesMap);
+            int topTexture = getTextureIndexForFace(blockType, 0, 1, 0);
+            workspace.add(PackedQuad.pack(x, y, z, PackedQuad.FACE_UP, 1, 1, topTexture));
         }
 
         if (isFaceExposed(chunkX, chunkZ, x, y, z, 0, -1, 0)) {
-            String bottomTexture = getTextureForFace(blockType, 0, -1, 0);
-            addFace(worldX, y, worldZ + 1, worldX + 1, y, worldZ, 0, -1, 0, bottomTexture, positionsMap, textCoordsMap, indicesMap);
+            int bottomTexture = getTextureIndexForFace(blockType, 0, -1, 0);
+            workspace.add(PackedQuad.pack(x, y, z, PackedQuad.FACE_DOWN, 1, 1, bottomTexture));
         }
 
         if (isFaceExposed(chunkX, chunkZ, x, y, z, 0, 0, 1)) {
-            String frontTexture = getTextureForFace(blockType, 0, 0, 1);
-            addFace(worldX, y, worldZ + 1, worldX + 1, y + 1, worldZ + 1, 0, 0, 1, frontTexture, positionsMap, textCoordsMap, indicesMap);
+            int frontTexture = getTextureIndexForFace(blockType, 0, 0, 1);
+            workspace.add(PackedQuad.pack(x, y, z, PackedQuad.FACE_SOUTH, 1, 1, frontTexture));
         }
 
         if (isFaceExposed(chunkX, chunkZ, x, y, z, 0, 0, -1)) {
-            String backTexture = getTextureForFace(blockType, 0, 0, -1);
-            addFace(worldX + 1, y, worldZ, worldX, y + 1, worldZ, 0, 0, -1, backTexture, positionsMap, textCoordsMap, indicesMap);
+            int backTexture = getTextureIndexForFace(blockType, 0, 0, -1);
+            workspace.add(PackedQuad.pack(x, y, z, PackedQuad.FACE_NORTH, 1, 1, backTexture));
         }
 
         if (isFaceExposed(chunkX, chunkZ, x, y, z, 1, 0, 0)) {
-            String rightTexture = getTextureForFace(blockType, 1, 0, 0);
-            addFace(worldX + 1, y, worldZ + 1, worldX + 1, y + 1, worldZ, 1, 0, 0, rightTexture, positionsMap, textCoordsMap, indicesMap);
+            int rightTexture = getTextureIndexForFace(blockType, 1, 0, 0);
+            workspace.add(PackedQuad.pack(x, y, z, PackedQuad.FACE_EAST, 1, 1, rightTexture));
         }
 
         if (isFaceExposed(chunkX, chunkZ, x, y, z, -1, 0, 0)) {
-            String leftTexture = getTextureForFace(blockType, -1, 0, 0);
-            addFace(worldX, y, worldZ, worldX, y + 1, worldZ + 1, -1, 0, 0, leftTexture, positionsMap, textCoordsMap, indicesMap);
+            int leftTexture = getTextureIndexForFace(blockType, -1, 0, 0);
+            workspace.add(PackedQuad.pack(x, y, z, PackedQuad.FACE_WEST, 1, 1, leftTexture));
         }
     }
 
+    // Greedy meshing: for each face direction and each slice of the section, build a
+    // mask of exposed faces keyed by texture and merge equal neighbours into
+    // rectangles. Masks for Y faces are (x, z); for Z faces (x, y); for X faces (z, y).
+    // A full section only has faces on the outermost slice of each open side.
+    private void generateGreedySectionMesh(Chunk chunk, int chunkX, int chunkZ, int sectionY, boolean full, int open,
+                                           MeshWorkspace workspace) {
+        int[] mask = workspace.mask;
+        int[] quads = workspace.quads;
+        int minY = sectionY * ChunkSection.SIZE;
+        int size = ChunkSection.SIZE;
+
+        for (int dir = -1; dir <= 1; dir += 2) {
+            // slices first..last along the face's axis
+            int first = full && dir > 0 ? size - 1 : 0;
+            int last = full && dir < 0 ? 0 : size - 1;
+
+            int face = dir > 0 ? PackedQuad.FACE_UP : PackedQuad.FACE_DOWN;
+            for (int y = minY + first; y <= minY + last && (open & (1 << face)) != 0; y++) {
+                for (int z = 0; z < Chunk.CHUNK_DEPTH; z++) {
+                    for (int x = 0; x < Chunk.CHUNK_WIDTH; x++) {
+                        mask[x + z * Chunk.CHUNK_WIDTH] = faceTexture(chunk, chunkX, chunkZ, x, y, z, 0, dir, 0);
+                    }
+                }
+                int count = mergeMask(mask, Chunk.CHUNK_WIDTH, Chunk.CHUNK_DEPTH, quads);
+                for (int q = 0; q < count * 5; q += 5) {
+                    workspace.add(PackedQuad.pack(quads[q], y, quads[q + 1], face, quads[q + 2], quads[q + 3], quads[q + 4]));
+                }
+            }
+
+            face = dir > 0 ? PackedQuad.FACE_SOUTH : PackedQuad.FACE_NORTH;
+            for (int z = first; z <= last && (open & (1 << face)) != 0; z++) {
+                for (int y = 0; y < size; y++) {
+                    for (int x = 0; x < Chunk.CHUNK_WIDTH; x++) {
+                        mask[x + y * Chunk.CHUNK_WIDTH] = faceTexture(chunk, chunkX, chunkZ, x, minY + y, z, 0, 0, dir);
+                    }
+                }
+                int count = mergeMask(mask, Chunk.CHUNK_WIDTH, size, quads);
+                for (int q = 0; q < count * 5; q += 5) {
+                    workspace.add(PackedQuad.pack(quads[q], minY + quads[q + 1], z, face, quads[q + 2], quads[q + 3], quads[q + 4]));
+                }
+            }
+
+            face = dir > 0 ? PackedQuad.FACE_EAST : PackedQuad.FACE_WEST;
+            for (int x = first; x <= last && (open & (1 << face)) != 0; x++) {
+                for (int y = 0; y < size; y++) {
+                    for (int z = 0; z < Chunk.CHUNK_DEPTH; z++) {
+                        mask[z + y * Chunk.CHUNK_DEPTH] = faceTexture(chunk, chunkX, chunkZ, x, minY + y, z, dir, 0, 0);
+                    }
+                }
+                int count = mergeMask(mask, Chunk.CHUNK_DEPTH, size, quads);
+                for (int q = 0; q < count * 5; q += 5) {
+                    workspace.add(PackedQuad.pack(x, minY + quads[q + 1], quads[q], face, quads[q + 2], quads[q + 3], quads[q + 4]));
+                }
+            }
+        }
+    }
+
+    // Turns a packed quad back into the chunk-relative face it describes. The
+    // FACE_* codes are the ones PackedVertex carries to the shader.
+    private void emitQuad(long quad, MeshBuilder builder) {
+        emitFace(PackedQuad.x(quad), PackedQuad.y(quad), PackedQuad.z(quad), PackedQuad.face(quad),
+                PackedQuad.width(quad), PackedQuad.height(quad), PackedQuad.texture(quad), 0, builder);
+    }
+
+    // Emits the face of the w x h rectangle of blocks (or LOD cells, with a scale
+    // shift) starting at (x0, y0, z0), spanning the face's mask axes
+    static void emitFace(int x0, int y0, int z0, int face, int w, int h, int texture, int scaleShift, MeshBuilder builder) {
+        switch (face) {
+            case PackedQuad.FACE_UP:
+                addFace(x0, y0 + 1, z0, x0 + w, y0 + 1, z0 + h, face, texture, w, h, scaleShift, builder);
+                break;
+            case PackedQuad.FACE_DOWN:
+                addFace(x0, y0, z0 + h, x0 + w, y0, z0, face, texture, w, h, scaleShift, builder);
+                break;
+            case PackedQuad.FACE_SOUTH:
+                addFace(x0, y0, z0 + 1, x0 + w, y0 + h, z0 + 1, face, texture, w, h, scaleShift, builder);
+                break;
+            case PackedQuad.FACE_NORTH:
+                addFace(x0 + w, y0, z0, x0, y0 + h, z0, face, texture, w, h, scaleShift, builder);
+                break;
+            case PackedQuad.FACE_EAST:
+                addFace(x0 + 1, y0, z0 + w, x0 + 1, y0 + h, z0, face, texture, w, h, scaleShift, builder);
+                break;
+            default:
+                addFace(x0, y0, z0, x0, y0 + h, z0 + w, face, texture, w, h, scaleShift, builder);
+                break;
+        }
+    }
+
+    // Texture index of the face of (x, y, z) pointing along dir, or -1 if there is no visible face
+    private int faceTexture(Chunk chunk, int chunkX, int chunkZ, int x, int y, int z, int dirX, int dirY, int dirZ) {
+        int blockType = chunk.getBlockId(x, y, z);
+        if (blockType == Block.AIR || !isFaceExposed(chunkX, chunkZ, x, y, z, dirX, dirY, dirZ)) {
+            return -1;
+        }
+        return getTextureIndexForFace(blockType, dirX, dirY, dirZ);
+    }
+
+    // Merges equal, non-negative mask cells into rectangles. Writes (u, v, width,
+    // height, texture) per rectangle into quads and clears the mask as it goes.
+    static int mergeMask(int[] mask, int width, int height, int[] quads) {
+        int count = 0;
+        for (int v = 0; v < height; v++) {
+            int u = 0;
+            while (u < width) {
+                int texture = mask[u + v * width];
+                if (texture < 0) {
+                    u++;
+                    continue;
+                }
+                int w = 1;
+                while (u + w < width && mask[u + w + v * width] == texture) {
+                    w++;
+                }
+                int h = 1;
+                grow:
+                while (v + h < height) {
+                    for (int k = 0; k < w; k++) {
+                        if (mask[u + k + (v + h) * width] != texture) {
+                            break grow;
+                        }
+                    }
+                    h++;
+                }
+                for (int dv = 0; dv < h; dv++) {
+                    for (int du = 0; du < w; du++) {
+                        mask[u + du + (v + dv) * width] = -1;
+                    }
+                }
+                int q = count * 5;
+                quads[q] = u;
+                quads[q + 1] = v;
+                quads[q + 2] = w;
+                quads[q + 3] = h;
+                quads[q + 4] = texture;
+                count++;
+                u += w;
+            }
+        }
+        return count;
+    }
+
     private boolean isFaceExposed(int chunkX, int chunkZ, int x, int y, int z, int dirX, int dirY, int dirZ) {
         if (enableCulling == 0) return true;
         
@@ -342,113 +963,112 @@ public class Terrain {
 
         if (localY < 0 || localY >= Chunk.CHUNK_HEIGHT) return true;
 
-        Chunk neighborChunk = chunks.get(neighborChunkX + "_" + neighborChunkZ);
+        Chunk neighborChunk = chunks.get(neighborChunkX, neighborChunkZ);
         if (neighborChunk == null) return true;
 
-        Block neighbor = neighborChunk.getBlock(localX, localY, localZ);
-        return neighbor == null;
+        return neighborChunk.getBlockId(localX, localY, localZ) == Block.AIR;
     }
 
-    private void addFace(float x1, float y1, float z1, float x2, float y2, float z2, int normX, int normY, int normZ, String texture, Map<String, List<Float>> positionsMap, Map<String, List<Float>> textCoordsMap, Map<String, List<Integer>> indicesMap) {
-        positionsMap.computeIfAbsent(texture, k -> new ArrayList<>());
-        textCoordsMap.computeIfAbsent(texture, k -> new ArrayList<>());
-        indicesMap.computeIfAbsent(texture, k -> new ArrayList<>());
-
-        List<Float> positions = positionsMap.get(texture);
-        List<Float> textCoords = textCoordsMap.get(texture);
-        List<Integer> indices = indicesMap.get(texture);
-
-        int vertexOffset = positions.size() / 3;
 
-        if (normY != 0) {
-            positions.add(x1); positions.add(y1); positions.add(z1);
-            textCoords.add(0.0f); textCoords.add(1.0f);
-
-            positions.add(x1); positions.add(y1); positions.add(z2);
-            textCoords.add(0.0f); textCoords.add(0.0f);
-
-            positions.add(x2); positions.add(y2); positions.add(z2);
-            textCoords.add(1.0f); textCoords.add(0.0f);
-
-            positions.add(x2); positions.add(y2); positions.add(z1);
-            textCoords.add(1.0f); textCoords.add(1.0f);
+    // uSpan/vSpan are the quad's size in blocks; texture coordinates run past 1 so
+    // the (GL_REPEAT) texture tiles once per block on merged quads.
+    private static void addFace(int x1, int y1, int z1, int x2, int y2, int z2, int face, int texture, int uSpan, int vSpan,
+                                int scaleShift, MeshBuilder builder) {
+        if (face == PackedQuad.FACE_UP || face == PackedQuad.FACE_DOWN) {
+            builder.quad(x1, y1, z1, 0, vSpan,
+                    x1, y1, z2, 0, 0,
+                    x2, y2, z2, uSpan, 0,
+                    x2, y2, z1, uSpan, vSpan,
+                    texture, face, scaleShift);
         } else {
-            positions.add(x1); positions.add(y1); positions.add(z1);
-            textCoords.add(0.0f); textCoords.add(1.0f);
-
-            positions.add(x2); positions.add(y1); positions.add(z2);
-            textCoords.add(1.0f); textCoords.add(1.0f);
-
-            positions.add(x2); positions.add(y2); positions.add(z2);
-            textCoords.add(1.0f); textCoords.add(0.0f);
-
-            positions.add(x1); positions.add(y2); positions.add(z1);
-            textCoords.add(0.0f); textCoords.add(0.0f);
+            builder.quad(x1, y1, z1, 0, vSpan,
+                    x2, y1, z2, uSpan, vSpan,
+                    x2, y2, z2, uSpan, 0,
+                    x1, y2, z1, 0, 0,
+                    texture, face, scaleShift);
         }
-
-        indices.add(vertexOffset);
-        indices.add(vertexOffset + 1);
-        indices.add(vertexOffset + 2);
-
-        indices.add(vertexOffset);
-        indices.add(vertexOffset + 2);
-        indices.add(vertexOffset + 3);
     }
-    
-    private String getTextureForFace(int blockType, int normX, int normY, int normZ) {
+
+    private int getTextureIndexForFace(int blockType, int normX, int normY, int normZ) {
         switch (blockType) {
             case 1:
-                if (normY == 1) return "grass_top";
-                if (normY == -1) return "dirt";
-                return "grass_side";
+                if (normY == 1) return 1;   // grass_top
+                if (normY == -1) return 3;  // dirt
+                return 2;                   // grass_side
             case 2:
-                return "dirt";
+                return 3;  // dirt
             case 3:
-                return "stone";
+                return 4;  // stone
             case 4:
-                return "sand";
+                return 5;  // sand
             default:
-                return "default";
-        }
-    }
-
-    public Map<String, Mesh> generateMeshes() {
-        Map<String, Mesh> combined = new HashMap<>();
-        for (Map.Entry<String, Chunk> entry : chunks.entrySet()) {
-            String chunkKey = entry.getKey();
-            Chunk chunk = entry.getValue();
-            if (chunk == null) continue;
-            
-            if (chunk.hasPendingMeshData()) {
-                Map<String, float[]> posMap = chunk.getPendingPositions();
-                Map<String, float[]> tcMap = chunk.getPendingTextCoords();
-                Map<String, int[]> indMap = chunk.getPendingIndices();
-                Map<String, Mesh> meshes = new HashMap<>();
-                for (String texture : posMap.keySet()) {
-                    float[] posArr = posMap.get(texture);
-                    float[] tcArr = tcMap.get(texture);
-                    int[] indArr = indMap.get(texture);
-                    try {
-                        TextureHandler textureHandler = new TextureHandler("src/main/resources/texture/blocks/" + texture + ".png");
-                        meshes.put(texture, new Mesh(posArr, tcArr, indArr, textureHandler));
-                    } catch (Exception e) {
-                        System.err.println("Failed to load texture for block type '" + texture + "': " + e.getMessage());
-                    }
-                }
-                chunk.setMeshes(meshes);
-                chunk.clearPendingMeshData();
-            }
+                return 0;  // default
+        }
+    }
+
+    // Uploads finished mesh data, nearest chunks first and within this frame's
+    // upload budget, and returns the loaded chunks for rendering
+    public ChunkMap<Chunk> generateMeshes() {
+        uploadQueue.process(chunks, lastPlayerChunkX, lastPlayerChunkZ, uploader);
+        uploadLimit.signal();
+        if (lod != null) {
+            lod.upload(meshArena);
+        }
+        return chunks;
+    }
+
+    // Headless counterpart of generateMeshes: finished mesh data goes through the
+    // same upload queue but is released instead of uploaded, so no GL context is needed
+    public void discardMeshes() {
+        uploadQueue.process(chunks, lastPlayerChunkX, lastPlayerChunkZ, discarder);
+        uploadLimit.signal();
+        if (lod != null) {
+            lod.upload(null);
+        }
+    }
+
+    private void discardPendingMesh(Chunk chunk) {
+        MeshData meshData = chunk.takePendingMeshData();
+        if (meshData != null) {
+            meshData.release();
+        }
+        chunk.setUploadedMesh(true);
+    }
 
-            Map<String, Mesh> meshes = chunk.getMeshes();
-            if (meshes == null) continue;
-            for (Map.Entry<String, Mesh> m : meshes.entrySet()) {
-                combined.put(chunkKey + "_" + m.getKey(), m.getValue());
+    private void uploadPendingMesh(Chunk chunk) {
+        MeshData meshData = chunk.takePendingMeshData();
+        if (meshArena == null) {
+            if (meshData != null) {
+                meshData.release();
             }
+            return;
         }
-        return combined;
+        meshArena.free(chunk.getMesh());
+        chunk.setMesh(meshData == null ? null : meshArena.upload(meshData));
+        chunk.setUploadedMesh(true);
     }
 
     public void cleanup() {
-        executor.shutdown();
+        // let workers waiting on a full stage through, nothing drains it any more
+        meshQueue.getBackpressure().close();
+        uploadLimit.close();
+        saveLimit.close();
+        // mesh jobs queued by generate jobs still running are dropped
+        if (generatePool != null) {
+            generatePool.shutdown();
+            meshPool.shutdown();
+        }
+        if (regionStore != null) {
+            try {
+                if (generatePool != null) {
+                    generatePool.awaitTermination(10, TimeUnit.SECONDS);
+                    meshPool.awaitTermination(10, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            chunks.forEach(this::saveChunk);
+            regionStore.close();
+        }
     }
 }
\ No newline at end of file
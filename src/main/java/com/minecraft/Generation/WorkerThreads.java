@@ -0,0 +1,53 @@
+package com.minecraft.Generation;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Worker pools for the chunk pipeline stages. Pools are fixed-size even with
+// virtual threads: the size is the stage's parallelism, and each worker keeps
+// its thread-local meshing and noise buffers for its whole life.
+//
+// Virtual threads need Java 21. The build does not require it, so they are
+// created through reflection and platform threads are used on older JVMs.
+public final class WorkerThreads {
+    private static volatile boolean warned;
+
+    private WorkerThreads() {
+    }
+
+    public static ExecutorService pool(String name, int threads, boolean virtual) {
+        return Executors.newFixedThreadPool(threads, factory(name, virtual));
+    }
+
+    // Threads named name-0, name-1, ...; platform threads are daemons so an
+    // unfinished stage never keeps the JVM alive
+    public static ThreadFactory factory(String name, boolean virtual) {
+        if (virtual) {
+            try {
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+                return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                if (!warned) {
+                    warned = true;
+                    System.err.println("Virtual threads unavailable (Java " + System.getProperty("java.version")
+                            + "), using platform threads");
+                }
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Processors left for workers once the render thread has one
+    public static int available() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+}
@@ -0,0 +1,216 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.Chunk;
+import com.minecraft.core.ChunkMap;
+import com.minecraft.storage.ChunkCodec;
+import com.minecraft.storage.RegionFile;
+import com.minecraft.storage.RegionStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Generates every chunk of a square or circular area (the same shapes as
+// ChunkStreamer) and writes it to a RegionStore, with no window or GL.
+//
+// The work is split by region file: a fork-join task per region generates,
+// encodes and writes that region's chunks in a fixed order, then closes the
+// file, so each file is only touched by one thread and comes out the same for
+// any thread count. Chunks already in the store are skipped, which makes an
+// interrupted run resumable: RegionFile writes a chunk's header entry last, so
+// a chunk is either stored completely or not at all.
+public class WorldPregenerator {
+    private final Terrain terrain;
+    private final RegionStore store;
+    private final ChunkStreamer area;
+    private final int centerX;
+    private final int centerZ;
+    private final int radius;
+    // region keys, nearest to the centre first, so the middle of the world is
+    // done early (work stealing only roughly keeps this order)
+    private final long[] regions;
+    private final ThreadLocal<ByteBuffer> encodeBuffer =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(ChunkCodec.maxEncodedSize()));
+    private volatile boolean cancelled;
+
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong regionsDone = new AtomicLong();
+    private final AtomicLong generateNanos = new AtomicLong();
+    private final AtomicLong encodeNanos = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+
+    // ForkJoinTask is Serializable, but these are never serialized
+    @SuppressWarnings("serial")
+    private final class RegionTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        RegionTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (from == to) {
+                return;
+            }
+            if (to - from == 1) {
+                try {
+                    pregenerateRegion(ChunkMap.keyX(regions[from]), ChunkMap.keyZ(regions[from]));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RegionTask(from, middle), new RegionTask(middle, to));
+        }
+    }
+
+    // Generates with terrain's generation code; terrain needs no chunks loaded
+    public WorldPregenerator(Terrain terrain, RegionStore store, int centerX, int centerZ, int radius, boolean circular) {
+        this.terrain = terrain;
+        this.store = store;
+        this.area = new ChunkStreamer(radius, circular);
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radius = radius;
+
+        int firstX = (centerX - radius) >> RegionFile.REGION_SHIFT;
+        int lastX = (centerX + radius) >> RegionFile.REGION_SHIFT;
+        int firstZ = (centerZ - radius) >> RegionFile.REGION_SHIFT;
+        int lastZ = (centerZ + radius) >> RegionFile.REGION_SHIFT;
+        long[] keys = new long[(lastX - firstX + 1) * (lastZ - firstZ + 1)];
+        long[] order = new long[keys.length];
+        int count = 0;
+        for (int regionX = firstX; regionX <= lastX; regionX++) {
+            for (int regionZ = firstZ; regionZ <= lastZ; regionZ++) {
+                // squared distance from the centre to the region's middle, in chunks
+                long dx = (regionX << RegionFile.REGION_SHIFT) + RegionFile.REGION_SIZE / 2 - centerX;
+                long dz = (regionZ << RegionFile.REGION_SHIFT) + RegionFile.REGION_SIZE / 2 - centerZ;
+                order[count] = (dx * dx + dz * dz) << 24 | count;
+                keys[count++] = ChunkMap.key(regionX, regionZ);
+            }
+        }
+        Arrays.sort(order);
+        regions = new long[count];
+        for (int i = 0; i < count; i++) {
+            regions[i] = keys[(int) (order[i] & 0xFFFFFF)];
+        }
+    }
+
+    // Starts on pool; the task completes once every region is done or after
+    // cancel(). An IOException fails it with an UncheckedIOException.
+    public ForkJoinTask<Void> start(ForkJoinPool pool) {
+        return pool.submit(new RegionTask(0, regions.length));
+    }
+
+    // Stops after the chunks being written; the started task then completes
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private void pregenerateRegion(int regionX, int regionZ) throws IOException {
+        int firstX = regionX << RegionFile.REGION_SHIFT;
+        int firstZ = regionZ << RegionFile.REGION_SHIFT;
+        ByteBuffer buffer = encodeBuffer.get();
+        boolean opened = false;
+        try {
+            for (int z = firstZ; z < firstZ + RegionFile.REGION_SIZE; z++) {
+                for (int x = firstX; x < firstX + RegionFile.REGION_SIZE; x++) {
+                    if (cancelled) {
+                        return;
+                    }
+                    if (!area.contains(centerX, centerZ, x, z)) {
+                        continue;
+                    }
+                    opened = true;
+                    if (store.contains(x, z)) {
+                        skipped.incrementAndGet();
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    Chunk chunk = new Chunk();
+                    terrain.generateChunk(chunk, x, z);
+                    long generatedAt = System.nanoTime();
+                    buffer.clear();
+                    ChunkCodec.encode(chunk, buffer);
+                    buffer.flip();
+                    long encodedAt = System.nanoTime();
+                    store.write(x, z, buffer);
+                    long writtenAt = System.nanoTime();
+
+                    generateNanos.addAndGet(generatedAt - start);
+                    encodeNanos.addAndGet(encodedAt - generatedAt);
+                    writeNanos.addAndGet(writtenAt - encodedAt);
+                    generated.incrementAndGet();
+                }
+            }
+            regionsDone.incrementAndGet();
+        } finally {
+            if (opened) {
+                store.closeRegion(regionX, regionZ);
+            }
+        }
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public long getTotal() {
+        return area.area();
+    }
+
+    public int getRegionCount() {
+        return regions.length;
+    }
+
+    public long getRegionsDone() {
+        return regionsDone.get();
+    }
+
+    public long getGenerated() {
+        return generated.get();
+    }
+
+    // Chunks that were already stored, from an earlier run
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Progress after elapsedNanos of this run: the rate counts only chunks
+    // generated by this run, and stage times are per chunk, summed over threads
+    public String progress(long elapsedNanos) {
+        long done = generated.get() + skipped.get();
+        long total = getTotal();
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        double rate = seconds > 0 ? generated.get() / seconds : 0;
+        String eta = rate > 0 ? formatSeconds((total - done) / rate) : "-";
+        long n = Math.max(1, generated.get());
+        return String.format("%d/%d chunks (%.1f%%), %d skipped, %d/%d regions, %.0f chunks/s, elapsed %s, ETA %s; "
+                        + "per chunk: generate %.3f ms, encode %.3f ms, write %.3f ms",
+                done, total, 100.0 * done / Math.max(1, total), skipped.get(), regionsDone.get(), regions.length,
+                rate, formatSeconds(seconds), eta,
+                generateNanos.get() / 1_000_000.0 / n, encodeNanos.get() / 1_000_000.0 / n, writeNanos.get() / 1_000_000.0 / n);
+    }
+
+    private static String formatSeconds(double seconds) {
+        long s = Math.round(seconds);
+        if (s >= 3600) {
+            return String.format("%dh%02dm%02ds", s / 3600, s / 60 % 60, s % 60);
+        }
+        return s >= 60 ? String.format("%dm%02ds", s / 60, s % 60) : s + "s";
+    }
+}
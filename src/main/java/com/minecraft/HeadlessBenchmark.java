@@ -0,0 +1,250 @@
+package com.minecraft;
+
+import com.minecraft.Generation.ChunkJobQueue;
+import com.minecraft.Generation.ChunkLoadStats;
+import com.minecraft.Generation.MeshingStats;
+import com.minecraft.Generation.Terrain;
+import com.minecraft.core.Chunk;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+// Drives Terrain along a scripted camera path with generation and meshing but
+// no window, GL context or GPU upload, and reports throughput, latency and
+// memory as JSON. Runs at Main's pace of one update per 60 Hz tick, then waits
+// for the remaining jobs to finish.
+//
+// Usage: HeadlessBenchmark <path file> [result.json]
+//
+// The path file has one waypoint per line, "x z [seconds]" in block
+// coordinates; the camera moves in a straight line from the previous waypoint
+// over the given time (a waypoint equal to the previous one waits there).
+// Text after # is ignored.
+public class HeadlessBenchmark {
+    private static final int TICKS_PER_SECOND = 60;
+    private static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    private static final long DRAIN_TIMEOUT_NANOS = 120_000_000_000L;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: HeadlessBenchmark <path file> [result.json]");
+            System.exit(2);
+        }
+        Settings settings = Settings.load("src/main/java/com/minecraft/settings.json");
+        List<float[]> waypoints = readPath(Path.of(args[0]));
+
+        // A fixed seed unless one is configured, so runs are comparable.
+        // No region store: this measures generation, not the disk.
+        long seed = settings.getSeed() != 0 ? settings.getSeed() : 1;
+        Terrain terrain = new Terrain(seed, settings.getRenderDistance());
+        terrain.setEnableCulling(settings.getEnableCulling());
+        terrain.setGreedyMeshing(settings.getGreedyMeshing());
+        terrain.setBinaryMeshing(settings.getBinaryMeshing());
+        terrain.setCircularLoading(settings.getCircularLoading());
+        terrain.setLodDistance(settings.getLodDistance());
+        terrain.setUploadBudget(settings.getUploadBudgetMs(), settings.getUploadBudgetKB() * 1024L);
+        terrain.setHeightmapCacheSize(settings.getHeightmapCacheKB() * 1024L);
+        terrain.setWorkerThreads(settings.getGenerateThreads(), settings.getMeshThreads(), settings.getVirtualThreads());
+        terrain.setQueueLimits(settings.getMeshQueueLimit(), settings.getUploadQueueLimit(), settings.getSaveQueueLimit());
+
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+
+        long start = System.nanoTime();
+        long nextTick = start;
+        float[] from = waypoints.get(0);
+        int ticks = 0;
+        for (int i = 1; i < waypoints.size(); i++) {
+            float[] to = waypoints.get(i);
+            int steps = Math.max(1, Math.round(to[2] * TICKS_PER_SECOND));
+            for (int step = 1; step <= steps; step++) {
+                float t = (float) step / steps;
+                tick(terrain, from[0] + (to[0] - from[0]) * t, from[1] + (to[1] - from[1]) * t);
+                ticks++;
+                nextTick = sleepUntil(nextTick + TICK_NANOS);
+            }
+            from = to;
+        }
+        long pathEnd = System.nanoTime();
+
+        // Let the jobs for the final position finish
+        while (!terrain.isIdle() && System.nanoTime() - pathEnd < DRAIN_TIMEOUT_NANOS) {
+            tick(terrain, from[0], from[1]);
+            ticks++;
+            nextTick = sleepUntil(nextTick + TICK_NANOS);
+        }
+        long end = System.nanoTime();
+
+        // Sum of each pool's peak; the pools do not peak together, so this is an upper bound
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        double seconds = (end - start) / 1_000_000_000.0;
+        ChunkLoadStats loadStats = terrain.getLoadStats();
+        long meshed = terrain.getMeshingStats().getChunks();
+
+        StringBuilder json = new StringBuilder("{\n");
+        field(json, "path", quote(args[0]));
+        field(json, "seed", Long.toString(seed));
+        field(json, "renderDistance", Integer.toString(settings.getRenderDistance()));
+        field(json, "enableCulling", Integer.toString(settings.getEnableCulling()));
+        field(json, "greedyMeshing", Integer.toString(settings.getGreedyMeshing()));
+        field(json, "binaryMeshing", Integer.toString(settings.getBinaryMeshing()));
+        field(json, "circularLoading", Integer.toString(settings.getCircularLoading()));
+        field(json, "lodDistance", Integer.toString(settings.getLodDistance()));
+        field(json, "heightmapGenerator", quote(terrain.getHeightmapGenerator().getImplementationName()));
+        field(json, "javaVersion", quote(System.getProperty("java.version")));
+        field(json, "jvmArgs", quote(String.join(" ", ManagementFactory.getRuntimeMXBean().getInputArguments())));
+        field(json, "availableProcessors", Integer.toString(Runtime.getRuntime().availableProcessors()));
+        field(json, "ticks", Integer.toString(ticks));
+        field(json, "pathSeconds", number((pathEnd - start) / 1_000_000_000.0));
+        field(json, "elapsedSeconds", number(seconds));
+        field(json, "chunksGenerated", Long.toString(loadStats.getGenerated()));
+        field(json, "chunksGeneratedPerSecond", number(loadStats.getGenerated() / seconds));
+        field(json, "chunksMeshed", Long.toString(meshed));
+        field(json, "chunksMeshedPerSecond", number(meshed / seconds));
+        field(json, "heightmapCacheHits", Long.toString(terrain.getHeightmapCache().getHits()));
+        field(json, "heightmapCacheMisses", Long.toString(terrain.getHeightmapCache().getMisses()));
+        field(json, "remeshes", Long.toString(terrain.getMeshingStats().getRemeshes()));
+        field(json, "sectionsBuried", Long.toString(terrain.getMeshingStats().getSections(MeshingStats.SECTION_BURIED)));
+        field(json, "sectionsShellOnly", Long.toString(terrain.getMeshingStats().getSections(MeshingStats.SECTION_SHELL)));
+        if (terrain.getLod() != null) {
+            field(json, "lodTilesBuilt", Long.toString(terrain.getLod().getTilesBuilt()));
+            field(json, "lodQuadsBuilt", Long.toString(terrain.getLod().getQuadsBuilt()));
+        }
+        field(json, "chunksReady", Integer.toString(loadStats.getReady()));
+        field(json, "latencyP50Ms", number(loadStats.readyLatencyPercentile(50) / 1_000_000.0));
+        field(json, "latencyP99Ms", number(loadStats.readyLatencyPercentile(99) / 1_000_000.0));
+        field(json, "latencyMaxMs", number(loadStats.readyLatencyPercentile(100) / 1_000_000.0));
+        ChunkJobQueue generate = terrain.getGenerateQueue();
+        ChunkJobQueue mesh = terrain.getMeshQueue();
+        field(json, "jobsCancelled", Long.toString(generate.getCancelled() + mesh.getCancelled()));
+        field(json, "jobsWasted", Long.toString(generate.getWasted() + mesh.getWasted()));
+        stageFields(json, "generate", generate, seconds);
+        stageFields(json, "mesh", mesh, seconds);
+        field(json, "peakHeapBytes", Long.toString(peakHeap));
+        field(json, "gcCount", Long.toString(gcCount() - gcCountBefore));
+        field(json, "gcTimeMs", Long.toString(gcMillis() - gcMillisBefore));
+        json.setLength(json.length() - 2);
+        json.append("\n}\n");
+
+        terrain.cleanup();
+        System.out.print(json);
+        if (args.length > 1) {
+            Files.writeString(Path.of(args[1]), json);
+        }
+    }
+
+    // Jobs per second of the run, peak backlog and time spent waiting for the next stage
+    private static void stageFields(StringBuilder json, String stage, ChunkJobQueue queue, double seconds) {
+        field(json, stage + "JobsPerSecond", number(queue.getCompleted() / seconds));
+        field(json, stage + "BusySeconds", number(queue.getBusyNanos() / 1_000_000_000.0));
+        field(json, stage + "PeakQueued", Integer.toString(queue.getPeakQueueDepth()));
+        field(json, stage + "StalledSeconds", number(queue.getStalledNanos() / 1_000_000_000.0));
+    }
+
+    private static void tick(Terrain terrain, float x, float z) {
+        terrain.update((int) Math.floor(x / Chunk.CHUNK_WIDTH), (int) Math.floor(z / Chunk.CHUNK_DEPTH));
+        terrain.discardMeshes();
+    }
+
+    // Sleeps until deadline, or returns at once if the tick overran. Returns the
+    // next tick's base so an overrun does not cause a burst of catch-up ticks.
+    private static long sleepUntil(long deadline) {
+        long now = System.nanoTime();
+        if (now >= deadline) {
+            return now;
+        }
+        while (now < deadline) {
+            LockSupport.parkNanos(deadline - now);
+            now = System.nanoTime();
+        }
+        return deadline;
+    }
+
+    static List<float[]> readPath(Path file) throws IOException {
+        List<float[]> waypoints = new ArrayList<>();
+        List<String> lines = Files.readAllLines(file);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IOException(file + ":" + (i + 1) + ": expected \"x z [seconds]\"");
+            }
+            try {
+                float seconds = parts.length == 3 ? Float.parseFloat(parts[2]) : 0;
+                waypoints.add(new float[]{Float.parseFloat(parts[0]), Float.parseFloat(parts[1]), seconds});
+            } catch (NumberFormatException e) {
+                throw new IOException(file + ":" + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        if (waypoints.isEmpty()) {
+            throw new IOException(file + ": no waypoints");
+        }
+        return waypoints;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private static void field(StringBuilder json, String name, String value) {
+        json.append("  \"").append(name).append("\": ").append(value).append(",\n");
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
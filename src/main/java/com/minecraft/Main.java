@@ -1,19 +1,34 @@
 package com.minecraft;
 
+import com.minecraft.Generation.SectionOcclusionCuller;
 import com.minecraft.Generation.Terrain;
+import com.minecraft.Generation.WorkerThreads;
 import com.minecraft.Settings;
-import com.minecraft.core.Chunk;
 import com.minecraft.graphics.*;
+import com.minecraft.profiling.FrameProfiler;
+import com.minecraft.profiling.MetricsLog;
+import com.minecraft.profiling.MetricsRegistry;
+import com.minecraft.storage.RegionStore;
+import com.minecraft.storage.WorldSeed;
 import org.lwjgl.glfw.GLFW;
 import org.lwjgl.opengl.GL;
-import org.lwjgl.opengl.GL11;
-import java.util.Map;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicReference;
  
 import static org.lwjgl.opengl.GL11.*;
  
 public class Main {
     private static boolean cursorLocked = true;
+
+    // Heap bytes allocated by the render thread per frame, which should be 0 once
+    // nothing is loading; shown in the title as the worst frame of the last second
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static long maxFrameAllocation;
+    private static final FrameProfiler profiler = new FrameProfiler();
+    private static final MetricsRegistry metrics = new MetricsRegistry();
  
     public static void main(String[] args) {
         DisplayManager.createDisplay();
@@ -43,6 +58,13 @@ public class Main {
             e.printStackTrace();
         }
  
+        TextureArray blockTextures = null;
+        try {
+            blockTextures = TextureArray.load("src/main/resources/texture/blocks/", Terrain.FACE_TEXTURES);
+        } catch (Exception e) {
+            System.err.println("Failed to load block textures: " + e.getMessage());
+        }
+
         GLFW.glfwSetKeyCallback(DisplayManager.getWindow(), (window, key, scancode, action, mods) -> {
             if (key == GLFW.GLFW_KEY_ESCAPE && action == GLFW.GLFW_PRESS) {
                 cursorLocked = !cursorLocked;
@@ -73,47 +95,122 @@ public class Main {
  
         DisplayManager.handleCursorState(cursorLocked);
  
-    Terrain terrain = new Terrain(System.currentTimeMillis(), RENDER_DISTANCE);
+    // a random seed (0) is remembered in the world directory, so the saved world is found again
+    long seed = settings.getSeed();
+    RegionStore regionStore = null;
+    if (!settings.getWorldDirectory().isEmpty()) {
+        try {
+            Path worldDirectory = Path.of(settings.getWorldDirectory());
+            seed = WorldSeed.resolve(worldDirectory, seed);
+            regionStore = new RegionStore(worldDirectory.resolve(Long.toString(seed)),
+                    Math.max(1, settings.getSaveThreads()), WorkerThreads.factory("save", settings.getVirtualThreads() != 0));
+        } catch (IOException e) {
+            System.err.println("World saving disabled: " + e.getMessage());
+        }
+    }
+    if (seed == 0) {
+        seed = System.currentTimeMillis();
+    }
+    Terrain terrain = new Terrain(seed, RENDER_DISTANCE);
+    MeshArena meshArena = new MeshArena();
+    terrain.setMeshArena(meshArena);
     terrain.setEnableCulling(settings.getEnableCulling());
+    terrain.setGreedyMeshing(settings.getGreedyMeshing());
+    terrain.setBinaryMeshing(settings.getBinaryMeshing());
+    terrain.setCircularLoading(settings.getCircularLoading());
+    terrain.setLodDistance(settings.getLodDistance());
+    terrain.setUploadBudget(settings.getUploadBudgetMs(), settings.getUploadBudgetKB() * 1024L);
+    terrain.setHeightmapCacheSize(settings.getHeightmapCacheKB() * 1024L);
+    terrain.setWorkerThreads(settings.getGenerateThreads(), settings.getMeshThreads(), settings.getVirtualThreads());
+    terrain.setQueueLimits(settings.getMeshQueueLimit(), settings.getUploadQueueLimit(), settings.getSaveQueueLimit());
+    if (regionStore != null) {
+        terrain.setRegionStore(regionStore);
+    }
+        profiler.register(metrics);
+        terrain.registerMetrics(metrics);
+        meshArena.registerMetrics(metrics);
+        SectionOcclusionCuller occlusionCuller = settings.getOcclusionCulling() != 0
+                ? new SectionOcclusionCuller(RENDER_DISTANCE) : null;
+        if (occlusionCuller != null) {
+            metrics.gauge("occlusion.sectionsDrawn", occlusionCuller::getSectionsDrawn);
+            metrics.gauge("occlusion.sectionsSkipped", occlusionCuller::getSectionsSkipped);
+        }
+        metrics.gauge("frame.maxAllocatedBytes", () -> maxFrameAllocation);
+        metrics.gauge("jvm.heapUsedBytes", () -> Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
+        MetricsLog metricsLog = null;
+        if (!settings.getMetricsFile().isEmpty()) {
+            try {
+                metricsLog = new MetricsLog(Path.of(settings.getMetricsFile()), metrics);
+            } catch (IOException e) {
+                System.err.println("Metrics log disabled: " + e.getMessage());
+            }
+        }
+        double metricsInterval = settings.getMetricsIntervalSeconds();
+        double lastMetricsTime = 0;
+
         int spawnX = 0;
         int spawnZ = 0;
         int spawnY = terrain.getHeight(spawnX, spawnZ) + 2;
         camera.setPosition(spawnX, spawnY, spawnZ);
+        double lastStatsTime = 0;
 
-        while (!DisplayManager.isCloseRequested()) {
-            int playerChunkX = (int) Math.floor(camera.getPosition().x / Chunk.CHUNK_WIDTH);
-            int playerChunkZ = (int) Math.floor(camera.getPosition().z / Chunk.CHUNK_DEPTH);
-            terrain.update(playerChunkX, playerChunkZ);
-
-            Map<String, Mesh> terrainMeshes = terrain.generateMeshes();
-
-            glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
-
-            ShaderProgram shaderProgram = shaderProgramRef.get();
-            shaderProgram.start();
-
-            shaderProgram.setUniform("projectionMatrix",
-                    transformation.getProjectionMatrix((float) Math.toRadians(70.0f),
-                            (float) DisplayManager.getWidth(), (float) DisplayManager.getHeight(), NEAR_PLANE, FAR_PLANE));
-            shaderProgram.setUniform("viewMatrix", transformation.getViewMatrix(camera));
-            shaderProgram.setUniform("modelMatrix", new org.joml.Matrix4f().identity());
-            shaderProgram.setUniform("texture_sampler", 0);
-
-            for (Mesh mesh : terrainMeshes.values()) {
-                mesh.render();
-            }
+        FrameRenderer frameRenderer = new FrameRenderer(terrain,
+                new GlRenderBackend(shaderProgramRef.get(), blockTextures, meshArena), profiler, occlusionCuller);
 
+        while (!DisplayManager.isCloseRequested()) {
+            long frameStartAllocation = threads.getCurrentThreadAllocatedBytes();
             camera.update(cursorLocked);
+            org.joml.Matrix4f projectionMatrix = transformation.getProjectionMatrix((float) Math.toRadians(70.0f),
+                    (float) DisplayManager.getWidth(), (float) DisplayManager.getHeight(), NEAR_PLANE, FAR_PLANE);
+            org.joml.Matrix4f viewMatrix = transformation.getViewMatrix(camera);
+            frameRenderer.render(camera.getX(), camera.getY(), camera.getZ(), projectionMatrix, viewMatrix);
 
-            shaderProgram.stop();
-
-            DisplayManager.updateDisplay();
+            maxFrameAllocation = Math.max(maxFrameAllocation,
+                    threads.getCurrentThreadAllocatedBytes() - frameStartAllocation);
+            // once a second, outside the measured frame
+            double now = GLFW.glfwGetTime();
+            if (now - lastMetricsTime >= metricsInterval) {
+                metrics.sample();
+                if (metricsLog != null) {
+                    metricsLog.write();
+                }
+                lastMetricsTime = now;
+            }
+            if (now - lastStatsTime >= 1.0) {
+                DisplayManager.setTitleSuffix(terrain.getUploadQueue().summary()
+                        + " | " + terrain.jobSummary()
+                        + " | " + meshArena.summary()
+                        + " | chunks drawn " + frameRenderer.getVisibleChunks()
+                        + ", culled " + frameRenderer.getCulledChunks()
+                        + (occlusionCuller != null ? " | sections drawn " + occlusionCuller.getSectionsDrawn()
+                                + ", skipped " + occlusionCuller.getSectionsSkipped() : "")
+                        + String.format(" | frame p99 %.1f ms", profiler.getFrame().percentile(99) / 1_000_000.0)
+                        + " | frame alloc " + maxFrameAllocation + " B");
+                maxFrameAllocation = 0;
+                lastStatsTime = now;
+            }
         }
         if (shaderProgramRef.get() != null) {
             shaderProgramRef.get().cleanUp();
         }
+        if (metricsLog != null) {
+            metricsLog.close();
+        }
+        System.out.println(profiler.summary());
+        meshArena.cleanup();
+        QuadIndexBuffer.cleanup();
+        System.out.println(terrain.getMeshingStats().summary(settings.getGreedyMeshing() != 0 ? "greedy"
+                : settings.getBinaryMeshing() != 0 && settings.getEnableCulling() != 0 ? "binary" : "per-face"));
         terrain.cleanup();
+        System.out.println(terrain.getLoadStats().summary());
+        System.out.println(terrain.pipelineSummary());
+        System.out.println(terrain.getHeightmapCache().summary());
+        if (terrain.getLod() != null) {
+            System.out.println(terrain.getLod().summary());
+        }
+        if (blockTextures != null) {
+            blockTextures.cleanup();
+        }
         DisplayManager.closeDisplay();
     }
-
 }
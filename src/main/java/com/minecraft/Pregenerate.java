@@ -0,0 +1,95 @@
+package com.minecraft;
+
+import com.minecraft.Generation.Terrain;
+import com.minecraft.Generation.WorldPregenerator;
+import com.minecraft.storage.RegionStore;
+import com.minecraft.storage.WorldSeed;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Generates the chunks around the origin into the world directory before
+// anyone plays, without a window or GL context. Writes where Main reads:
+// <worldDirectory>/<seed> from settings.json. Running it again, e.g. after it
+// was interrupted, only generates the chunks that are still missing.
+//
+// Usage: Pregenerate <seed> <radius in chunks> [square|circle] [threads]
+//
+// Seed 0 is the game's random world, whose seed is kept in the world
+// directory (see WorldSeed). A radius of 1000 is a 2001 x 2001 chunk square.
+// Threads default to the number of processors; the output does not depend
+// on it.
+public class Pregenerate {
+    private static final long REPORT_INTERVAL_SECONDS = 5;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: Pregenerate <seed> <radius in chunks> [square|circle] [threads]");
+            System.exit(2);
+        }
+        long seed = Long.parseLong(args[0]);
+        int radius = Integer.parseInt(args[1]);
+        boolean circular = args.length > 2 && args[2].equals("circle");
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        Settings settings = Settings.load("src/main/java/com/minecraft/settings.json");
+        if (settings.getWorldDirectory().isEmpty()) {
+            System.err.println("worldDirectory is empty in settings.json, nowhere to write the world");
+            System.exit(2);
+        }
+        // seed 0 is the random world the game remembered (or picks now), as when it launches with seed 0
+        Path worldDirectory = Path.of(settings.getWorldDirectory());
+        seed = WorldSeed.resolve(worldDirectory, seed);
+        RegionStore store = new RegionStore(worldDirectory.resolve(Long.toString(seed)));
+        Terrain terrain = new Terrain(seed, 0);
+        // every chunk is generated once, so there is nothing to reuse
+        terrain.setHeightmapCacheSize(0);
+        WorldPregenerator pregenerator = new WorldPregenerator(terrain, store, 0, 0, radius, circular);
+        System.out.println("Pregenerating " + pregenerator.getTotal() + " chunks in " + pregenerator.getRegionCount()
+                + " regions into " + store.getDirectory() + " with " + threads + " threads, "
+                + terrain.getHeightmapGenerator().getImplementationName() + " heightmaps");
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        ForkJoinTask<Void> run = pregenerator.start(pool);
+        // Ctrl-C or kill: let the regions in progress stop cleanly so the next run resumes
+        Thread shutdownHook = new Thread(() -> {
+            pregenerator.cancel();
+            pool.awaitQuiescence(1, TimeUnit.MINUTES);
+            store.close();
+            System.out.println("Interrupted: " + pregenerator.progress(System.nanoTime() - start));
+        });
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        boolean failed = false;
+        while (true) {
+            try {
+                run.get(REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+                break;
+            } catch (TimeoutException e) {
+                System.out.println(pregenerator.progress(System.nanoTime() - start));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+                System.err.println("Pregeneration failed: " + cause);
+                failed = true;
+                break;
+            }
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            return;  // interrupted, the shutdown hook closes the store
+        }
+        pool.shutdown();
+        store.close();
+        terrain.cleanup();
+        System.out.println("Done: " + pregenerator.progress(System.nanoTime() - start));
+        System.exit(failed ? 1 : 0);
+    }
+}
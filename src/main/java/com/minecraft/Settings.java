@@ -11,6 +11,25 @@ public class Settings {
     private float nearClip = 0.1f;
     private float farClip = 1000.0f;
     private int enableCulling = 0; // 0 = disabled by default
+    private int greedyMeshing = 0; // 0 = one quad per face, 1 = merge coplanar faces
+    private int binaryMeshing = 1; // 1 = culled per-face meshing from column bitmasks, 0 = per-face neighbour lookups
+    private float uploadBudgetMs = 4.0f; // GPU mesh upload time per frame
+    private int uploadBudgetKB = 8192; // GPU mesh upload bytes per frame
+    private int heightmapCacheKB = 4096; // cached chunk column heights, evicted least recently used first
+    private int circularLoading = 0; // 1 = load a circle of chunks around the player instead of a square
+    private long seed = 0; // 0 = a random world, its seed remembered in <worldDirectory>/level
+    private String worldDirectory = "world"; // region files go in <worldDirectory>/<seed>; empty disables saving
+    private int lodDistance = 0; // chunks drawn as coarse LOD tiles beyond renderDistance; 0 disables them
+    private int generateThreads = 0; // generate stage worker threads; 0 = half of the processors left after the render thread
+    private int meshThreads = 0; // mesh stage worker threads; 0 = the rest of the processors left after the render thread
+    private int saveThreads = 1; // threads writing unloaded chunks to the region files
+    private int virtualThreads = 0; // 1 = run the stage workers on virtual threads (Java 21+)
+    private int meshQueueLimit = 128; // chunks waiting for meshing before generation pauses; 0 = no limit
+    private int uploadQueueLimit = 64; // meshes waiting for upload before meshing pauses; 0 = no limit
+    private int saveQueueLimit = 256; // chunks waiting to be saved before generation pauses; 0 = no limit
+    private int occlusionCulling = 1; // 1 = draw only sections the camera can see through air, 0 = every section in the frustum
+    private String metricsFile = ""; // frame and engine metrics log, .csv or JSON lines; empty disables it
+    private float metricsIntervalSeconds = 1.0f; // time between metrics log rows
 
     public static Settings load(String path) {
         Settings s = new Settings();
@@ -32,6 +51,82 @@ public class Settings {
             Pattern cullPat = Pattern.compile("\"enableCulling\"\s*:\s*(\\d+)");
             m = cullPat.matcher(content);
             if (m.find()) s.enableCulling = Integer.parseInt(m.group(1));
+
+            Pattern greedyPat = Pattern.compile("\"greedyMeshing\"\s*:\s*(\\d+)");
+            m = greedyPat.matcher(content);
+            if (m.find()) s.greedyMeshing = Integer.parseInt(m.group(1));
+
+            Pattern binaryPat = Pattern.compile("\"binaryMeshing\"\s*:\s*(\\d+)");
+            m = binaryPat.matcher(content);
+            if (m.find()) s.binaryMeshing = Integer.parseInt(m.group(1));
+
+            Pattern uploadMsPat = Pattern.compile("\"uploadBudgetMs\"\s*:\s*([-+]?[0-9]*\\.?[0-9]+)");
+            m = uploadMsPat.matcher(content);
+            if (m.find()) s.uploadBudgetMs = Float.parseFloat(m.group(1));
+
+            Pattern uploadKbPat = Pattern.compile("\"uploadBudgetKB\"\s*:\s*(\\d+)");
+            m = uploadKbPat.matcher(content);
+            if (m.find()) s.uploadBudgetKB = Integer.parseInt(m.group(1));
+
+            Pattern heightmapCachePat = Pattern.compile("\"heightmapCacheKB\"\s*:\s*(\\d+)");
+            m = heightmapCachePat.matcher(content);
+            if (m.find()) s.heightmapCacheKB = Integer.parseInt(m.group(1));
+
+            Pattern circularPat = Pattern.compile("\"circularLoading\"\s*:\s*(\\d+)");
+            m = circularPat.matcher(content);
+            if (m.find()) s.circularLoading = Integer.parseInt(m.group(1));
+
+            Pattern seedPat = Pattern.compile("\"seed\"\s*:\s*(-?\\d+)");
+            m = seedPat.matcher(content);
+            if (m.find()) s.seed = Long.parseLong(m.group(1));
+
+            Pattern worldPat = Pattern.compile("\"worldDirectory\"\s*:\s*\"([^\"]*)\"");
+            m = worldPat.matcher(content);
+            if (m.find()) s.worldDirectory = m.group(1);
+
+            Pattern lodPat = Pattern.compile("\"lodDistance\"\s*:\s*(\\d+)");
+            m = lodPat.matcher(content);
+            if (m.find()) s.lodDistance = Integer.parseInt(m.group(1));
+
+            Pattern occlusionPat = Pattern.compile("\"occlusionCulling\"\s*:\s*(\\d+)");
+            m = occlusionPat.matcher(content);
+            if (m.find()) s.occlusionCulling = Integer.parseInt(m.group(1));
+
+            Pattern generateThreadsPat = Pattern.compile("\"generateThreads\"\s*:\s*(\\d+)");
+            m = generateThreadsPat.matcher(content);
+            if (m.find()) s.generateThreads = Integer.parseInt(m.group(1));
+
+            Pattern meshThreadsPat = Pattern.compile("\"meshThreads\"\s*:\s*(\\d+)");
+            m = meshThreadsPat.matcher(content);
+            if (m.find()) s.meshThreads = Integer.parseInt(m.group(1));
+
+            Pattern saveThreadsPat = Pattern.compile("\"saveThreads\"\s*:\s*(\\d+)");
+            m = saveThreadsPat.matcher(content);
+            if (m.find()) s.saveThreads = Integer.parseInt(m.group(1));
+
+            Pattern virtualThreadsPat = Pattern.compile("\"virtualThreads\"\s*:\s*(\\d+)");
+            m = virtualThreadsPat.matcher(content);
+            if (m.find()) s.virtualThreads = Integer.parseInt(m.group(1));
+
+            Pattern meshQueueLimitPat = Pattern.compile("\"meshQueueLimit\"\s*:\s*(\\d+)");
+            m = meshQueueLimitPat.matcher(content);
+            if (m.find()) s.meshQueueLimit = Integer.parseInt(m.group(1));
+
+            Pattern uploadQueueLimitPat = Pattern.compile("\"uploadQueueLimit\"\s*:\s*(\\d+)");
+            m = uploadQueueLimitPat.matcher(content);
+            if (m.find()) s.uploadQueueLimit = Integer.parseInt(m.group(1));
+
+            Pattern saveQueueLimitPat = Pattern.compile("\"saveQueueLimit\"\s*:\s*(\\d+)");
+            m = saveQueueLimitPat.matcher(content);
+            if (m.find()) s.saveQueueLimit = Integer.parseInt(m.group(1));
+
+            Pattern metricsFilePat = Pattern.compile("\"metricsFile\"\s*:\s*\"([^\"]*)\"");
+            m = metricsFilePat.matcher(content);
+            if (m.find()) s.metricsFile = m.group(1);
+
+            Pattern metricsIntervalPat = Pattern.compile("\"metricsIntervalSeconds\"\s*:\s*([-+]?[0-9]*\\.?[0-9]+)");
+            m = metricsIntervalPat.matcher(content);
+            if (m.find()) s.metricsIntervalSeconds = Float.parseFloat(m.group(1));
         } catch (IOException e) {
         }
         return s;
@@ -52,4 +147,80 @@ public class Settings {
     public int getEnableCulling() {
         return enableCulling;
     }
+
+    public int getGreedyMeshing() {
+        return greedyMeshing;
+    }
+
+    public int getBinaryMeshing() {
+        return binaryMeshing;
+    }
+
+    public float getUploadBudgetMs() {
+        return uploadBudgetMs;
+    }
+
+    public int getUploadBudgetKB() {
+        return uploadBudgetKB;
+    }
+
+    public int getHeightmapCacheKB() {
+        return heightmapCacheKB;
+    }
+
+    public int getCircularLoading() {
+        return circularLoading;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getWorldDirectory() {
+        return worldDirectory;
+    }
+
+    public int getLodDistance() {
+        return lodDistance;
+    }
+
+    public int getOcclusionCulling() {
+        return occlusionCulling;
+    }
+
+    public int getGenerateThreads() {
+        return generateThreads;
+    }
+
+    public int getMeshThreads() {
+        return meshThreads;
+    }
+
+    public int getSaveThreads() {
+        return saveThreads;
+    }
+
+    public int getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getMeshQueueLimit() {
+        return meshQueueLimit;
+    }
+
+    public int getUploadQueueLimit() {
+        return uploadQueueLimit;
+    }
+
+    public int getSaveQueueLimit() {
+        return saveQueueLimit;
+    }
+
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    public float getMetricsIntervalSeconds() {
+        return metricsIntervalSeconds;
+    }
 }
@@ -1,13 +1,41 @@
 package com.minecraft.core;
 
 public class Block {
+    public static final int AIR = 0;
+    public static final int MAX_ID = 255;
+
+    // Shared instances so Chunk.getBlock can hand out Blocks without allocating
+    private static final Block[] CACHE = new Block[MAX_ID + 1];
+
+    static {
+        for (int id = 1; id <= MAX_ID; id++) {
+            CACHE[id] = new Block(id);
+        }
+    }
+
     private final int id;
 
     public Block(int id) {
-        this.id = id;
+        this.id = checkId(id);
+    }
+
+    public static Block of(int id) {
+        if (id == AIR) {
+            return null;
+        }
+        return CACHE[checkId(id)];
+    }
+
+    // Ids are stored and saved as unsigned bytes (ChunkCodec), so anything
+    // outside 0..MAX_ID is rejected where it would enter a chunk
+    public static int checkId(int id) {
+        if (id < AIR || id > MAX_ID) {
+            throw new IllegalArgumentException("Block id out of range 0-" + MAX_ID + ": " + id);
+        }
+        return id;
     }
 
     public int getType() {
         return id;
     }
-}
\ No newline at end of file
+}
@@ -1,82 +1,325 @@
 package com.minecraft.core;
 
-import com.minecraft.graphics.Mesh;
-import java.util.Map;
-import java.util.HashMap;
+import com.minecraft.graphics.ArenaMesh;
+import com.minecraft.graphics.MeshData;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public class Chunk {
     public static final int CHUNK_WIDTH = 16;
     public static final int CHUNK_HEIGHT = 256;
     public static final int CHUNK_DEPTH = 16;
 
-    private final Block[][][] blocks;
-    private Map<String, Mesh> meshes;
-    private boolean needsRebuild = true;
+    public static final int SECTION_COUNT = CHUNK_HEIGHT / ChunkSection.SIZE;
+
+    // null entries are sections that contain only air
+    private final ChunkSection[] sections;
+    private ArenaMesh mesh;
+    // Lowest and highest y that ever held a block; never shrinks, so it is a safe bound
+    private int minY = CHUNK_HEIGHT;
+    private int maxY = -1;
+    // Bit per section whose 4096 cells are all non-air
+    private int fullSections;
+    private static final AtomicIntegerFieldUpdater<Chunk> DIRTY_SECTIONS =
+            AtomicIntegerFieldUpdater.newUpdater(Chunk.class, "dirtySections");
+
+    // Bit per section whose mesh is out of date; starts with every section
+    private volatile int dirtySections = (1 << SECTION_COUNT) - 1;
+    // Quads of each section's last mesh, in the mesher's packed format; null when it has none
+    private final long[][] sectionQuads = new long[SECTION_COUNT][];
+    private volatile boolean hasSectionQuads;
+    // SectionVisibility of each section as of its last meshing; sections not meshed yet see through
+    private final long[] sectionVisibility = new long[SECTION_COUNT];
+    // Which horizontal neighbours were loaded when the chunk was last meshed
+    private volatile int meshedNeighbors;
+    // set on the GL thread once the first mesh has been uploaded (or the chunk has none)
+    private volatile boolean uploadedMesh;
+    private ChunkState state = ChunkState.UNLOADED;
+    // Blocks changed since the chunk was created, or last written to or read from disk.
+    // Placeholder chunks never have blocks set, so they are never saved.
+    private boolean modified;
     // Pending mesh data produced by background threads (not yet uploaded to GPU)
-    private Map<String, float[]> pendingPositions = new HashMap<>();
-    private Map<String, float[]> pendingTextCoords = new HashMap<>();
-    private Map<String, int[]> pendingIndices = new HashMap<>();
+    private MeshData pendingMeshData;
+    private boolean hasPendingMeshData;
+    // System.nanoTime() when the chunk entered the loaded area, for load-to-ready latency
+    private long requestedNanos;
 
     public Chunk() {
-        blocks = new Block[CHUNK_WIDTH][CHUNK_HEIGHT][CHUNK_DEPTH];
-        meshes = new HashMap<>();
+        sections = new ChunkSection[SECTION_COUNT];
+        Arrays.fill(sectionVisibility, -1L);
     }
 
     public Block getBlock(int x, int y, int z) {
+        return Block.of(getBlockId(x, y, z));
+    }
+
+    public void setBlock(int x, int y, int z, Block block) {
+        setBlockId(x, y, z, block == null ? Block.AIR : block.getType());
+    }
+
+    public int getBlockId(int x, int y, int z) {
         if (x < 0 || x >= CHUNK_WIDTH || y < 0 || y >= CHUNK_HEIGHT || z < 0 || z >= CHUNK_DEPTH) {
-            return null;
+            return Block.AIR;
+        }
+        ChunkSection section = sections[y >> 4];
+        if (section == null) {
+            return Block.AIR;
         }
-        return blocks[x][y][z];
+        return section.get(x, y & 15, z);
     }
 
-    public void setBlock(int x, int y, int z, Block block) {
+    public void setBlockId(int x, int y, int z, int id) {
+        Block.checkId(id);
         if (x < 0 || x >= CHUNK_WIDTH || y < 0 || y >= CHUNK_HEIGHT || z < 0 || z >= CHUNK_DEPTH) {
             return;
         }
-        blocks[x][y][z] = block;
-        needsRebuild = true;
+        ChunkSection section = sections[y >> 4];
+        if (section == null) {
+            if (id == Block.AIR) {
+                return;
+            }
+            section = new ChunkSection(Block.AIR);
+            sections[y >> 4] = section;
+        }
+        section.set(x, y & 15, z, id);
+        if (section.isFull()) {
+            fullSections |= 1 << (y >> 4);
+        } else {
+            fullSections &= ~(1 << (y >> 4));
+        }
+        if (id != Block.AIR) {
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        if (section.isEmpty()) {
+            sections[y >> 4] = null;
+        }
+        markBlockDirty(y);
+        modified = true;
     }
 
-    public Map<String, Mesh> getMeshes() {
-        return meshes;
+    public void compact() {
+        for (ChunkSection section : sections) {
+            if (section != null) {
+                section.compact();
+            }
+        }
     }
 
-    public void setMeshes(Map<String, Mesh> meshes) {
-        this.meshes = meshes;
-        needsRebuild = false;
+    public boolean isEmpty() {
+        return maxY < 0;
     }
 
-    public synchronized void setPendingMeshData(Map<String, float[]> positions, Map<String, float[]> textCoords, Map<String, int[]> indices) {
-        this.pendingPositions = positions;
-        this.pendingTextCoords = textCoords;
-        this.pendingIndices = indices;
-        // mark as not needing rebuild; the GPU upload will happen on the main thread
-        this.needsRebuild = false;
+    public int getMinY() {
+        return minY;
     }
 
-    public synchronized boolean hasPendingMeshData() {
-        return pendingPositions != null && !pendingPositions.isEmpty();
+    public int getMaxY() {
+        return maxY;
+    }
+
+    public boolean isModified() {
+        return modified;
+    }
+
+    public void markSaved() {
+        modified = false;
+    }
+
+    public long getRequestedNanos() {
+        return requestedNanos;
     }
 
-    public synchronized Map<String, float[]> getPendingPositions() {
-        return pendingPositions;
+    public void setRequestedNanos(long requestedNanos) {
+        this.requestedNanos = requestedNanos;
     }
 
-    public synchronized Map<String, float[]> getPendingTextCoords() {
-        return pendingTextCoords;
+    public ChunkSection getSection(int sectionY) {
+        return sections[sectionY];
     }
 
-    public synchronized Map<String, int[]> getPendingIndices() {
-        return pendingIndices;
+    public int getNonAirCount(int sectionY) {
+        ChunkSection section = sections[sectionY];
+        return section == null ? 0 : section.getNonAirCount();
     }
 
-    public synchronized void clearPendingMeshData() {
-        pendingPositions.clear();
-        pendingTextCoords.clear();
-        pendingIndices.clear();
+    public boolean isSectionFull(int sectionY) {
+        return (fullSections & (1 << sectionY)) != 0;
+    }
+
+    public int getFullSections() {
+        return fullSections;
+    }
+
+    // Approximate heap footprint of the block storage, for comparing layouts
+    public long estimateMemoryBytes() {
+        long bytes = 16 + 4L * SECTION_COUNT;
+        for (ChunkSection section : sections) {
+            if (section != null) {
+                bytes += section.estimateMemoryBytes();
+            }
+        }
+        return bytes;
+    }
+
+    // What the previous Block[16][256][16] layout cost for the same contents:
+    // the nested reference arrays plus one 16-byte Block per solid voxel.
+    public long estimateLegacyMemoryBytes() {
+        long bytes = (16 + 4L * CHUNK_WIDTH)
+                + CHUNK_WIDTH * (16 + 4L * CHUNK_HEIGHT)
+                + (long) CHUNK_WIDTH * CHUNK_HEIGHT * (16 + 4L * CHUNK_DEPTH);
+        for (ChunkSection section : sections) {
+            if (section != null) {
+                bytes += 16L * section.getNonAirCount();
+            }
+        }
+        return bytes;
+    }
+
+    // null until the first mesh is uploaded, or if the chunk has no visible faces
+    public ArenaMesh getMesh() {
+        return mesh;
+    }
+
+    public void setMesh(ArenaMesh mesh) {
+        this.mesh = mesh;
+    }
+
+    public boolean hasUploadedMesh() {
+        return uploadedMesh;
+    }
+
+    public void setUploadedMesh(boolean uploadedMesh) {
+        this.uploadedMesh = uploadedMesh;
+    }
+
+    public synchronized ChunkState getState() {
+        return state;
+    }
+
+    public synchronized void setState(ChunkState state) {
+        this.state = state;
+    }
+
+    // GENERATED or READY -> MESHING. Returns false if the chunk is in any other
+    // state, so a chunk never has two meshing jobs.
+    public synchronized boolean beginMeshing() {
+        if (state != ChunkState.GENERATED && state != ChunkState.READY) {
+            return false;
+        }
+        state = ChunkState.MESHING;
+        return true;
+    }
+
+    // A block's faces can touch the sections above and below it. Lock-free,
+    // and a plain read while generating, when every section is already dirty.
+    private void markBlockDirty(int y) {
+        int sectionY = y >> 4;
+        int bits = 1 << sectionY;
+        if ((y & 15) == 0 && sectionY > 0) {
+            bits |= 1 << (sectionY - 1);
+        }
+        if ((y & 15) == 15 && sectionY < SECTION_COUNT - 1) {
+            bits |= 1 << (sectionY + 1);
+        }
+        if ((dirtySections & bits) != bits) {
+            markSectionsDirty(bits);
+        }
+    }
+
+    public void markSectionsDirty(int sectionMask) {
+        DIRTY_SECTIONS.getAndAccumulate(this, sectionMask, (a, b) -> a | b);
+    }
+
+    // Returns the dirty sections and clears them; called by the meshing job
+    public int takeDirtySections() {
+        return DIRTY_SECTIONS.getAndSet(this, 0);
+    }
+
+    // Only the meshing job touches the section quads, and a chunk has one
+    // meshing job at a time
+    public long[] getSectionQuads(int sectionY) {
+        return sectionQuads[sectionY];
+    }
+
+    public void setSectionQuads(int sectionY, long[] quads) {
+        sectionQuads[sectionY] = quads;
+        hasSectionQuads = true;
+    }
+
+    public long getSectionVisibility(int sectionY) {
+        return sectionVisibility[sectionY];
+    }
+
+    public void setSectionVisibility(int sectionY, long visibility) {
+        sectionVisibility[sectionY] = visibility;
+    }
+
+    // True once the chunk has been meshed at least once
+    public boolean hasSectionQuads() {
+        return hasSectionQuads;
+    }
+
+    public int getMeshedNeighbors() {
+        return meshedNeighbors;
+    }
+
+    public void setMeshedNeighbors(int meshedNeighbors) {
+        this.meshedNeighbors = meshedNeighbors;
+    }
+
+    // MESHING -> READY with the new mesh data. If the chunk was unloaded while
+    // meshing, the data is released and false is returned.
+    public synchronized boolean finishMeshing(MeshData meshData) {
+        if (state != ChunkState.MESHING) {
+            if (meshData != null) {
+                meshData.release();
+            }
+            return false;
+        }
+        setPendingMeshData(meshData);
+        state = ChunkState.READY;
+        return true;
+    }
+
+    public synchronized void unload() {
+        state = ChunkState.UNLOADED;
+        releasePendingMeshData();
+    }
+
+    // meshData may be null when the chunk has no visible faces
+    public synchronized void setPendingMeshData(MeshData meshData) {
+        releasePendingMeshData();
+        this.pendingMeshData = meshData;
+        this.hasPendingMeshData = true;
+    }
+
+    public synchronized boolean hasPendingMeshData() {
+        return hasPendingMeshData;
+    }
+
+    public synchronized int getPendingMeshBytes() {
+        return pendingMeshData == null ? 0 : pendingMeshData.getByteSize();
+    }
+
+    // Hands the pending data to the caller, who becomes responsible for releasing it
+    public synchronized MeshData takePendingMeshData() {
+        MeshData meshData = pendingMeshData;
+        pendingMeshData = null;
+        hasPendingMeshData = false;
+        return meshData;
+    }
+
+    public synchronized void releasePendingMeshData() {
+        if (pendingMeshData != null) {
+            pendingMeshData.release();
+        }
+        pendingMeshData = null;
+        hasPendingMeshData = false;
     }
 
     public boolean needsRebuild() {
-        return needsRebuild;
+        return dirtySections != 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,258 @@
+package com.minecraft.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Open-addressing hash map from packed (chunkX, chunkZ) coordinates to values.
+// Lookups and iteration are lock-free and never allocate; writers synchronize
+// on the map. A slot only ever goes EMPTY -> key -> TOMBSTONE, and tombstones
+// are reclaimed by rehashing into a fresh table, so a reader that matched a key
+// can never observe a value that belongs to a different key.
+public class ChunkMap<V> {
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final long TOMBSTONE = Long.MIN_VALUE + 1;
+    private static final int MIN_CAPACITY = 16;
+
+    public interface Visitor<V> {
+        void visit(int chunkX, int chunkZ, V value);
+    }
+
+    public interface Filter<V> {
+        boolean test(int chunkX, int chunkZ, V value);
+    }
+
+    private static final class Table<V> {
+        final AtomicLongArray keys;
+        final AtomicReferenceArray<V> values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            values = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+            for (int i = 0; i < capacity; i++) {
+                keys.set(i, EMPTY);
+            }
+        }
+    }
+
+    private volatile Table<V> table;
+    private volatile int size;
+    // live entries + tombstones, guarded by this
+    private int occupied;
+
+    public ChunkMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public ChunkMap(int expectedSize) {
+        table = new Table<>(capacityFor(expectedSize));
+    }
+
+    public static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int keyX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int keyZ(long key) {
+        return (int) key;
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < entries * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    public V get(int chunkX, int chunkZ) {
+        return get(key(chunkX, chunkZ));
+    }
+
+    public V get(long key) {
+        Table<V> t = table;
+        int i = hash(key) & t.mask;
+        while (true) {
+            long k = t.keys.get(i);
+            if (k == key) {
+                return t.values.get(i);
+            }
+            if (k == EMPTY) {
+                return null;
+            }
+            i = (i + 1) & t.mask;
+        }
+    }
+
+    public boolean containsKey(int chunkX, int chunkZ) {
+        return get(key(chunkX, chunkZ)) != null;
+    }
+
+    public V put(int chunkX, int chunkZ, V value) {
+        return put(key(chunkX, chunkZ), value, false);
+    }
+
+    public V putIfAbsent(int chunkX, int chunkZ, V value) {
+        return put(key(chunkX, chunkZ), value, true);
+    }
+
+    private synchronized V put(long key, V value, boolean onlyIfAbsent) {
+        if (value == null) {
+            throw new NullPointerException("ChunkMap does not accept null values");
+        }
+        Table<V> t = table;
+        int i = hash(key) & t.mask;
+        while (true) {
+            long k = t.keys.get(i);
+            if (k == key) {
+                V previous = t.values.get(i);
+                if (!onlyIfAbsent || previous == null) {
+                    t.values.set(i, value);
+                }
+                return previous;
+            }
+            if (k == EMPTY) {
+                break;
+            }
+            i = (i + 1) & t.mask;
+        }
+
+        // value first, so a reader that sees the key also sees its value
+        t.values.set(i, value);
+        t.keys.set(i, key);
+        size++;
+        occupied++;
+        if (occupied * 2 > t.mask + 1) {
+            rehash();
+        }
+        return null;
+    }
+
+    // Replaces the value only if the key currently maps to expected (by identity)
+    public synchronized boolean replace(int chunkX, int chunkZ, V expected, V value) {
+        if (value == null) {
+            throw new NullPointerException("ChunkMap does not accept null values");
+        }
+        long key = key(chunkX, chunkZ);
+        Table<V> t = table;
+        int i = hash(key) & t.mask;
+        while (true) {
+            long k = t.keys.get(i);
+            if (k == key) {
+                if (t.values.get(i) != expected) {
+                    return false;
+                }
+                t.values.set(i, value);
+                return true;
+            }
+            if (k == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & t.mask;
+        }
+    }
+
+    public V remove(int chunkX, int chunkZ) {
+        return remove(key(chunkX, chunkZ));
+    }
+
+    public synchronized V remove(long key) {
+        Table<V> t = table;
+        int i = hash(key) & t.mask;
+        while (true) {
+            long k = t.keys.get(i);
+            if (k == key) {
+                V previous = t.values.get(i);
+                t.values.set(i, null);
+                t.keys.set(i, TOMBSTONE);
+                size--;
+                return previous;
+            }
+            if (k == EMPTY) {
+                return null;
+            }
+            i = (i + 1) & t.mask;
+        }
+    }
+
+    public synchronized int removeIf(Filter<? super V> filter) {
+        Table<V> t = table;
+        int removed = 0;
+        for (int i = 0; i <= t.mask; i++) {
+            long k = t.keys.get(i);
+            if (k == EMPTY || k == TOMBSTONE) {
+                continue;
+            }
+            V value = t.values.get(i);
+            if (filter.test(keyX(k), keyZ(k), value)) {
+                t.values.set(i, null);
+                t.keys.set(i, TOMBSTONE);
+                size--;
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public void forEach(Visitor<? super V> visitor) {
+        Table<V> t = table;
+        for (int i = 0; i <= t.mask; i++) {
+            long k = t.keys.get(i);
+            if (k == EMPTY || k == TOMBSTONE) {
+                continue;
+            }
+            V value = t.values.get(i);
+            if (value != null) {
+                visitor.visit(keyX(k), keyZ(k), value);
+            }
+        }
+    }
+
+    // Rebuilds the table without tombstones. The new table is at most a quarter
+    // full, so at least that many inserts happen before the next rehash.
+    private void rehash() {
+        Table<V> old = table;
+        Table<V> fresh = new Table<>(capacityFor(size * 2));
+        for (int i = 0; i <= old.mask; i++) {
+            long k = old.keys.get(i);
+            if (k == EMPTY || k == TOMBSTONE) {
+                continue;
+            }
+            int j = hash(k) & fresh.mask;
+            while (fresh.keys.get(j) != EMPTY) {
+                j = (j + 1) & fresh.mask;
+            }
+            fresh.values.set(j, old.values.get(i));
+            fresh.keys.set(j, k);
+        }
+        occupied = size;
+        table = fresh;
+    }
+
+    public synchronized void clear() {
+        table = new Table<>(MIN_CAPACITY);
+        size = 0;
+        occupied = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return table.mask + 1;
+    }
+}
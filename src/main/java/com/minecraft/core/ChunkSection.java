@@ -0,0 +1,204 @@
+package com.minecraft.core;
+
+import java.util.Arrays;
+
+// A 16x16x16 slice of a chunk. Block ids are stored as indices into a small
+// palette, bit-packed into longs. A section holding a single block type keeps
+// no index data at all.
+public class ChunkSection {
+    public static final int SIZE = 16;
+    public static final int VOLUME = SIZE * SIZE * SIZE;
+
+    private int[] palette;
+    private int paletteSize;
+    private int bitsPerEntry;
+    private int entriesPerLong;
+    private long mask;
+    private long[] data;
+    private int nonAirCount;
+
+    public ChunkSection(int fillId) {
+        palette = new int[]{Block.checkId(fillId)};
+        paletteSize = 1;
+        bitsPerEntry = 0;
+        data = null;
+        nonAirCount = fillId == Block.AIR ? 0 : VOLUME;
+    }
+
+    private static int index(int x, int y, int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    public int get(int x, int y, int z) {
+        if (data == null) {
+            return palette[0];
+        }
+        int i = index(x, y, z);
+        long word = data[i / entriesPerLong];
+        int shift = (i % entriesPerLong) * bitsPerEntry;
+        return palette[(int) ((word >>> shift) & mask)];
+    }
+
+    // Bit y set for every non-air block of the column at (x, z)
+    public int columnMask(int x, int z) {
+        if (data == null) {
+            return palette[0] == Block.AIR ? 0 : 0xFFFF;
+        }
+        int column = 0;
+        for (int y = 0; y < SIZE; y++) {
+            int i = index(x, y, z);
+            long word = data[i / entriesPerLong];
+            int shift = (i % entriesPerLong) * bitsPerEntry;
+            if (palette[(int) ((word >>> shift) & mask)] != Block.AIR) {
+                column |= 1 << y;
+            }
+        }
+        return column;
+    }
+
+    public void set(int x, int y, int z, int id) {
+        Block.checkId(id);
+        int i = index(x, y, z);
+        int previous = get(x, y, z);
+        if (previous == id) {
+            return;
+        }
+
+        int paletteIndex = paletteIndexOf(id);
+        if (paletteIndex < 0) {
+            paletteIndex = addToPalette(id);
+        }
+
+        long word = data[i / entriesPerLong];
+        int shift = (i % entriesPerLong) * bitsPerEntry;
+        word &= ~(mask << shift);
+        word |= ((long) paletteIndex) << shift;
+        data[i / entriesPerLong] = word;
+
+        if (previous == Block.AIR) {
+            nonAirCount++;
+        } else if (id == Block.AIR) {
+            nonAirCount--;
+        }
+    }
+
+    private int paletteIndexOf(int id) {
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int addToPalette(int id) {
+        if (paletteSize == palette.length) {
+            palette = Arrays.copyOf(palette, palette.length * 2);
+        }
+        palette[paletteSize] = id;
+        paletteSize++;
+
+        int requiredBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+        if (data == null || requiredBits > bitsPerEntry) {
+            resize(requiredBits);
+        }
+        return paletteSize - 1;
+    }
+
+    // Repacks every entry with a wider index. Entries never straddle two longs.
+    private void resize(int newBits) {
+        int newEntriesPerLong = 64 / newBits;
+        long newMask = (1L << newBits) - 1;
+        long[] newData = new long[(VOLUME + newEntriesPerLong - 1) / newEntriesPerLong];
+
+        if (data != null) {
+            for (int i = 0; i < VOLUME; i++) {
+                long value = (data[i / entriesPerLong] >>> ((i % entriesPerLong) * bitsPerEntry)) & mask;
+                newData[i / newEntriesPerLong] |= value << ((i % newEntriesPerLong) * newBits);
+            }
+        }
+        // A single-value section has every entry at palette index 0, which is all zero bits.
+
+        data = newData;
+        bitsPerEntry = newBits;
+        entriesPerLong = newEntriesPerLong;
+        mask = newMask;
+    }
+
+    // Drops palette entries that are no longer referenced and, if only one block
+    // type remains, releases the index data entirely.
+    public void compact() {
+        if (data == null) {
+            return;
+        }
+        int[] counts = new int[paletteSize];
+        for (int i = 0; i < VOLUME; i++) {
+            counts[(int) ((data[i / entriesPerLong] >>> ((i % entriesPerLong) * bitsPerEntry)) & mask)]++;
+        }
+
+        int[] remap = new int[paletteSize];
+        int[] newPalette = new int[paletteSize];
+        int used = 0;
+        for (int i = 0; i < paletteSize; i++) {
+            if (counts[i] > 0) {
+                remap[i] = used;
+                newPalette[used++] = palette[i];
+            }
+        }
+
+        if (used == 1) {
+            palette = new int[]{newPalette[0]};
+            paletteSize = 1;
+            bitsPerEntry = 0;
+            data = null;
+            return;
+        }
+        if (used == paletteSize) {
+            return;
+        }
+
+        int newBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(used - 1));
+        int newEntriesPerLong = 64 / newBits;
+        long[] newData = new long[(VOLUME + newEntriesPerLong - 1) / newEntriesPerLong];
+        for (int i = 0; i < VOLUME; i++) {
+            int value = remap[(int) ((data[i / entriesPerLong] >>> ((i % entriesPerLong) * bitsPerEntry)) & mask)];
+            newData[i / newEntriesPerLong] |= ((long) value) << ((i % newEntriesPerLong) * newBits);
+        }
+        palette = Arrays.copyOf(newPalette, used);
+        paletteSize = used;
+        data = newData;
+        bitsPerEntry = newBits;
+        entriesPerLong = newEntriesPerLong;
+        mask = (1L << newBits) - 1;
+    }
+
+    public boolean isEmpty() {
+        return nonAirCount == 0;
+    }
+
+    public boolean isFull() {
+        return nonAirCount == VOLUME;
+    }
+
+    public int getNonAirCount() {
+        return nonAirCount;
+    }
+
+    public int getPaletteSize() {
+        return paletteSize;
+    }
+
+    public int getBitsPerEntry() {
+        return bitsPerEntry;
+    }
+
+    public long estimateMemoryBytes() {
+        // object header + fields, palette array, packed index array
+        long bytes = 48;
+        bytes += 16 + 4L * palette.length;
+        if (data != null) {
+            bytes += 16 + 8L * data.length;
+        }
+        return bytes;
+    }
+}
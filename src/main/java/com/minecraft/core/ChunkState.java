@@ -0,0 +1,16 @@
+package com.minecraft.core;
+
+// Lifecycle of a loaded chunk. A chunk has at most one job in flight, and
+// only in the GENERATING and MESHING states.
+public enum ChunkState {
+    // removed from the world, or not yet added
+    UNLOADED,
+    // placeholder while the blocks are read from disk or generated
+    GENERATING,
+    // blocks present, no mesh built yet
+    GENERATED,
+    // a meshing job is queued or running
+    MESHING,
+    // mesh built; it may still be waiting for its GPU upload
+    READY
+}
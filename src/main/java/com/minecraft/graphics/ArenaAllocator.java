@@ -0,0 +1,241 @@
+package com.minecraft.graphics;
+
+import java.util.Arrays;
+
+// Free-list allocator over a range of units (MeshArena uses quads). Blocks are
+// handed out best-fit and coalesced with their neighbours when freed. No GL
+// here, so the bookkeeping can be exercised without a context.
+//
+// defragment() compacts from the bottom: the allocation right after the lowest
+// hole slides down to the hole's start, a few per call, so the arena can be
+// compacted over several frames.
+public class ArenaAllocator {
+    // to is always below from, but the two ranges may overlap
+    public interface Mover {
+        void move(int from, int to, int size);
+    }
+
+    private static final int INITIAL_BLOCKS = 64;
+
+    private int capacity;
+    // free and allocated blocks as parallel offset/size arrays sorted by offset,
+    // so nothing is boxed and a lookup is a binary search
+    private int[] freeOffsets = new int[INITIAL_BLOCKS];
+    private int[] freeSizes = new int[INITIAL_BLOCKS];
+    private int freeCount;
+    private int[] usedOffsets = new int[INITIAL_BLOCKS];
+    private int[] usedSizes = new int[INITIAL_BLOCKS];
+    private int usedCount;
+    private int usedUnits;
+    // cached so the per-frame fragmentation check does not walk the free list; -1 = stale
+    private int largestFree = -1;
+
+    public ArenaAllocator(int capacity) {
+        this.capacity = capacity;
+        if (capacity > 0) {
+            insertFree(0, 0, capacity);
+        }
+    }
+
+    // Returns the offset of a block of size units, or -1 if no free block is large enough
+    public int allocate(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Allocation size must be positive: " + size);
+        }
+        int best = -1;
+        int bestSize = Integer.MAX_VALUE;
+        for (int i = 0; i < freeCount; i++) {
+            int blockSize = freeSizes[i];
+            if (blockSize >= size && blockSize < bestSize) {
+                best = i;
+                bestSize = blockSize;
+                if (blockSize == size) {
+                    break;
+                }
+            }
+        }
+        if (best < 0) {
+            return -1;
+        }
+        int offset = freeOffsets[best];
+        largestFree = -1;
+        if (bestSize > size) {
+            freeOffsets[best] += size;
+            freeSizes[best] -= size;
+        } else {
+            removeFree(best);
+        }
+        insertUsed(-(search(usedOffsets, usedCount, offset) + 1), offset, size);
+        usedUnits += size;
+        return offset;
+    }
+
+    public void free(int offset) {
+        int index = search(usedOffsets, usedCount, offset);
+        if (index < 0) {
+            throw new IllegalArgumentException("No allocation at " + offset);
+        }
+        int size = usedSizes[index];
+        removeUsed(index);
+        usedUnits -= size;
+        largestFree = -1;
+        // free blocks are coalesced, so only the neighbours at the insertion point can touch this one
+        int next = -(search(freeOffsets, freeCount, offset) + 1);
+        boolean joinsBefore = next > 0 && freeOffsets[next - 1] + freeSizes[next - 1] == offset;
+        boolean joinsAfter = next < freeCount && freeOffsets[next] == offset + size;
+        if (joinsBefore && joinsAfter) {
+            freeSizes[next - 1] += size + freeSizes[next];
+            removeFree(next);
+        } else if (joinsBefore) {
+            freeSizes[next - 1] += size;
+        } else if (joinsAfter) {
+            freeOffsets[next] = offset;
+            freeSizes[next] += size;
+        } else {
+            insertFree(next, offset, size);
+        }
+    }
+
+    // Extends the range; existing offsets stay valid
+    public void grow(int newCapacity) {
+        if (newCapacity <= capacity) {
+            return;
+        }
+        int last = freeCount - 1;
+        if (last >= 0 && freeOffsets[last] + freeSizes[last] == capacity) {
+            freeSizes[last] += newCapacity - capacity;
+        } else {
+            insertFree(freeCount, capacity, newCapacity - capacity);
+        }
+        capacity = newCapacity;
+        largestFree = -1;
+    }
+
+    // Slides up to maxMoves allocations down into the lowest hole. Returns the
+    // number of moves; 0 means the allocations are already packed from 0.
+    public int defragment(int maxMoves, Mover mover) {
+        int moves = 0;
+        while (moves < maxMoves && freeCount > 0) {
+            // free blocks are coalesced, so the lowest hole ends where an allocation starts
+            int to = freeOffsets[0];
+            int hole = freeSizes[0];
+            int from = to + hole;
+            int index = search(usedOffsets, usedCount, from);
+            if (index < 0) {
+                break;  // the lowest free block is the tail
+            }
+            int size = usedSizes[index];
+            // blocks keep their order, so the allocation's entry changes in place
+            usedOffsets[index] = to;
+            if (freeCount > 1 && freeOffsets[1] == from + size) {
+                freeOffsets[1] = to + size;
+                freeSizes[1] += hole;
+                removeFree(0);
+            } else {
+                freeOffsets[0] = to + size;
+            }
+            largestFree = -1;
+            mover.move(from, to, size);
+            moves++;
+        }
+        return moves;
+    }
+
+    // Index of key in the first count entries of sorted, or -(insertion point) - 1
+    private static int search(int[] sorted, int count, int key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = sorted[mid];
+            if (value < key) {
+                low = mid + 1;
+            } else if (value > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void insertFree(int index, int offset, int size) {
+        if (freeCount == freeOffsets.length) {
+            freeOffsets = Arrays.copyOf(freeOffsets, freeCount * 2);
+            freeSizes = Arrays.copyOf(freeSizes, freeCount * 2);
+        }
+        System.arraycopy(freeOffsets, index, freeOffsets, index + 1, freeCount - index);
+        System.arraycopy(freeSizes, index, freeSizes, index + 1, freeCount - index);
+        freeOffsets[index] = offset;
+        freeSizes[index] = size;
+        freeCount++;
+    }
+
+    private void removeFree(int index) {
+        freeCount--;
+        System.arraycopy(freeOffsets, index + 1, freeOffsets, index, freeCount - index);
+        System.arraycopy(freeSizes, index + 1, freeSizes, index, freeCount - index);
+    }
+
+    private void insertUsed(int index, int offset, int size) {
+        if (usedCount == usedOffsets.length) {
+            usedOffsets = Arrays.copyOf(usedOffsets, usedCount * 2);
+            usedSizes = Arrays.copyOf(usedSizes, usedCount * 2);
+        }
+        System.arraycopy(usedOffsets, index, usedOffsets, index + 1, usedCount - index);
+        System.arraycopy(usedSizes, index, usedSizes, index + 1, usedCount - index);
+        usedOffsets[index] = offset;
+        usedSizes[index] = size;
+        usedCount++;
+    }
+
+    private void removeUsed(int index) {
+        usedCount--;
+        System.arraycopy(usedOffsets, index + 1, usedOffsets, index, usedCount - index);
+        System.arraycopy(usedSizes, index + 1, usedSizes, index, usedCount - index);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getUsed() {
+        return usedUnits;
+    }
+
+    public int getFree() {
+        return capacity - usedUnits;
+    }
+
+    public int getAllocationCount() {
+        return usedCount;
+    }
+
+    public int getFreeBlockCount() {
+        return freeCount;
+    }
+
+    public int getLargestFree() {
+        if (largestFree < 0) {
+            int largest = 0;
+            for (int i = 0; i < freeCount; i++) {
+                largest = Math.max(largest, freeSizes[i]);
+            }
+            largestFree = largest;
+        }
+        return largestFree;
+    }
+
+    // 0 when the free space is one block, approaching 1 as it splinters into holes
+    public float fragmentation() {
+        int freeUnits = getFree();
+        if (freeUnits == 0) {
+            return 0;
+        }
+        return 1.0f - (float) getLargestFree() / freeUnits;
+    }
+
+    public float occupancy() {
+        return capacity == 0 ? 0 : (float) usedUnits / capacity;
+    }
+}
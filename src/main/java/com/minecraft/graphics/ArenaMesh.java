@@ -0,0 +1,38 @@
+package com.minecraft.graphics;
+
+// A chunk mesh living in the MeshArena: a range of quads in the shared vertex
+// buffer. The offset changes when the arena defragments. Chunk meshes keep
+// each section's quads together, so single sections can be drawn.
+public class ArenaMesh {
+    private int quadOffset;
+    private final int quadCount;
+    // see MeshData.getSectionStarts
+    private final int[] sectionStarts;
+
+    public ArenaMesh(int quadOffset, int quadCount, int[] sectionStarts) {
+        this.quadOffset = quadOffset;
+        this.quadCount = quadCount;
+        this.sectionStarts = sectionStarts;
+    }
+
+    public int getQuadOffset() {
+        return quadOffset;
+    }
+
+    void setQuadOffset(int quadOffset) {
+        this.quadOffset = quadOffset;
+    }
+
+    public int getQuadCount() {
+        return quadCount;
+    }
+
+    public boolean hasSections() {
+        return sectionStarts != null;
+    }
+
+    // First quad of the section, relative to the mesh; the section ends where the next one starts
+    public int getSectionStart(int sectionY) {
+        return sectionStarts[sectionY];
+    }
+}
@@ -0,0 +1,71 @@
+package com.minecraft.graphics;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Process-wide pool of direct byte buffers in power-of-two size classes.
+// Mesh builders take buffers from here on worker threads and Mesh hands them
+// back after the GPU upload, so steady-state meshing allocates no new buffers.
+public class BufferPool {
+    private static final int MIN_SHIFT = 12;  // 4 KB
+    private static final int MAX_SHIFT = 30;  // 1 GB
+    private static final int MAX_POOLED_PER_CLASS = 64;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final ConcurrentLinkedQueue<ByteBuffer>[] FREE = new ConcurrentLinkedQueue[MAX_SHIFT + 1];
+    private static final AtomicInteger[] FREE_COUNT = new AtomicInteger[MAX_SHIFT + 1];
+
+    static {
+        for (int i = MIN_SHIFT; i <= MAX_SHIFT; i++) {
+            FREE[i] = new ConcurrentLinkedQueue<>();
+            FREE_COUNT[i] = new AtomicInteger();
+        }
+    }
+
+    private static int sizeClass(int bytes) {
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(bytes, 1) - 1);
+        return Math.max(MIN_SHIFT, shift);
+    }
+
+    // Returns a cleared buffer with at least the requested capacity
+    public static ByteBuffer acquire(int bytes) {
+        int shift = sizeClass(bytes);
+        if (shift > MAX_SHIFT) {
+            throw new IllegalArgumentException("Buffer too large: " + bytes + " bytes");
+        }
+        ByteBuffer buffer = FREE[shift].poll();
+        if (buffer != null) {
+            FREE_COUNT[shift].decrementAndGet();
+            buffer.clear();
+            return buffer;
+        }
+        return ByteBuffer.allocateDirect(1 << shift).order(ByteOrder.nativeOrder());
+    }
+
+    public static void release(ByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        int shift = sizeClass(buffer.capacity());
+        if (shift > MAX_SHIFT || buffer.capacity() != 1 << shift) {
+            return;  // not one of ours, let the GC have it
+        }
+        if (FREE_COUNT[shift].incrementAndGet() > MAX_POOLED_PER_CLASS) {
+            FREE_COUNT[shift].decrementAndGet();
+            return;
+        }
+        FREE[shift].offer(buffer);
+    }
+
+    // Copies the buffer's contents into a pooled buffer of at least newCapacity bytes
+    public static ByteBuffer grow(ByteBuffer buffer, int used, int newCapacity) {
+        ByteBuffer bigger = acquire(newCapacity);
+        ByteBuffer src = buffer.duplicate();
+        src.position(0).limit(used);
+        bigger.put(src).clear();
+        release(buffer);
+        return bigger;
+    }
+}
@@ -5,7 +5,6 @@ import org.lwjgl.glfw.GLFW;
 import org.lwjgl.opengl.GL11;
 
 import java.nio.DoubleBuffer;
-import org.joml.Vector3f;
 
 public class Camera {
     private float x, y, z;
@@ -14,11 +13,13 @@ public class Camera {
 
     private long window;
     private double lastMouseX, lastMouseY;
+    // reused every frame so input handling does not allocate
+    private final DoubleBuffer xpos = BufferUtils.createDoubleBuffer(1);
+    private final DoubleBuffer ypos = BufferUtils.createDoubleBuffer(1);
+    private final float[] moved = new float[3];
 
     public Camera(long window) {
         this.window = window;
-        DoubleBuffer xpos = BufferUtils.createDoubleBuffer(1);
-        DoubleBuffer ypos = BufferUtils.createDoubleBuffer(1);
         GLFW.glfwGetCursorPos(window, xpos, ypos);
         lastMouseX = xpos.get(0);
         lastMouseY = ypos.get(0);
@@ -37,8 +38,6 @@ public class Camera {
         if (!cursorLocked) {
             return;
         }
-        DoubleBuffer xpos = BufferUtils.createDoubleBuffer(1);
-        DoubleBuffer ypos = BufferUtils.createDoubleBuffer(1);
         GLFW.glfwGetCursorPos(window, xpos, ypos);
 
         float dx = (float) (xpos.get(0) - lastMouseX) * MOUSE_SENSITIVITY;
@@ -59,19 +58,32 @@ public class Camera {
 
     private void handleKeyboardInput(boolean cursorLocked) {
         if (cursorLocked) {
-            float[] newPos = Keybinds.handleKeyboardInput(window, x, y, z, yaw);
+            float[] newPos = Keybinds.handleKeyboardInput(window, x, y, z, yaw, moved);
             x = newPos[0];
             y = newPos[1];
             z = newPos[2];
         }
     }
 
-    public Vector3f getPosition() {
-        return new Vector3f(x, y, z);
+    public float getX() {
+        return x;
     }
 
-    public Vector3f getRotation() {
-        return new Vector3f(pitch, yaw, 0);
+    public float getY() {
+        return y;
+    }
+
+    public float getZ() {
+        return z;
+    }
+
+    // degrees
+    public float getPitch() {
+        return pitch;
+    }
+
+    public float getYaw() {
+        return yaw;
     }
 
     public void setPosition(float x, float y, float z) {
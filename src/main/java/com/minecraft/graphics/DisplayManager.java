@@ -53,6 +53,10 @@ public class DisplayManager {
         GLFW.glfwSwapBuffers(window);
     }
 
+    public static void setTitleSuffix(String suffix) {
+        GLFW.glfwSetWindowTitle(window, "Minecraft | " + suffix);
+    }
+
     public static void closeDisplay() {
         GLFW.glfwDestroyWindow(window);
         GLFW.glfwTerminate();
@@ -0,0 +1,86 @@
+package com.minecraft.graphics;
+
+import java.nio.ByteBuffer;
+
+// The frame's draw list for MeshArena: one DrawElementsIndirectCommand per
+// batch of up to QuadIndexBuffer.MAX_QUADS quads (count, instanceCount,
+// firstIndex, baseVertex, baseInstance) and the chunk origin each one is drawn
+// at. baseInstance is the command's own index, which picks its origin out of
+// the per-instance origin attribute. Plain buffers, no GL.
+public class DrawCommandBuffer {
+    public static final int COMMAND_BYTES = 5 * Integer.BYTES;
+    public static final int ORIGIN_BYTES = 2 * Float.BYTES;
+
+    private ByteBuffer commands = BufferPool.acquire(256 * COMMAND_BYTES);
+    private ByteBuffer origins = BufferPool.acquire(256 * ORIGIN_BYTES);
+    private int commandCount;
+    private long quadCount;
+
+    public void reset() {
+        commands.clear();
+        origins.clear();
+        commandCount = 0;
+        quadCount = 0;
+    }
+
+    public void add(ArenaMesh mesh, float originX, float originZ) {
+        add(mesh, 0, mesh.getQuadCount(), originX, originZ);
+    }
+
+    // Draws quads firstQuad .. firstQuad + quads - 1 of the mesh
+    public void add(ArenaMesh mesh, int firstQuad, int quads, float originX, float originZ) {
+        for (int first = 0; first < quads; first += QuadIndexBuffer.MAX_QUADS) {
+            int batch = Math.min(QuadIndexBuffer.MAX_QUADS, quads - first);
+            ensureCapacity();
+            int c = commandCount * COMMAND_BYTES;
+            commands.putInt(c, batch * QuadIndexBuffer.INDICES_PER_QUAD);
+            commands.putInt(c + 4, 1);
+            commands.putInt(c + 8, 0);
+            commands.putInt(c + 12, (mesh.getQuadOffset() + firstQuad + first) * 4);
+            commands.putInt(c + 16, commandCount);
+            int o = commandCount * ORIGIN_BYTES;
+            origins.putFloat(o, originX);
+            origins.putFloat(o + 4, originZ);
+            commandCount++;
+        }
+        quadCount += quads;
+    }
+
+    private void ensureCapacity() {
+        if ((commandCount + 1) * COMMAND_BYTES > commands.capacity()) {
+            commands = BufferPool.grow(commands, commandCount * COMMAND_BYTES, commands.capacity() * 2);
+            origins = BufferPool.grow(origins, commandCount * ORIGIN_BYTES, origins.capacity() * 2);
+        }
+    }
+
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    public long getQuadCount() {
+        return quadCount;
+    }
+
+    // The filled part of the command buffer, ready for GL_DRAW_INDIRECT_BUFFER
+    public ByteBuffer getCommands() {
+        return commands.position(0).limit(commandCount * COMMAND_BYTES);
+    }
+
+    // x and z of each command's chunk, one pair per command
+    public ByteBuffer getOrigins() {
+        return origins.position(0).limit(commandCount * ORIGIN_BYTES);
+    }
+
+    // Reads back a command's field (0 count, 1 instanceCount, 2 firstIndex, 3 baseVertex, 4 baseInstance)
+    public int getCommandField(int command, int field) {
+        return commands.getInt(command * COMMAND_BYTES + field * Integer.BYTES);
+    }
+
+    public float getOriginX(int command) {
+        return origins.getFloat(command * ORIGIN_BYTES);
+    }
+
+    public float getOriginZ(int command) {
+        return origins.getFloat(command * ORIGIN_BYTES + 4);
+    }
+}
@@ -0,0 +1,46 @@
+package com.minecraft.graphics;
+
+import org.joml.Matrix4f;
+
+// The six clip planes of a projection * view matrix (Gribb/Hartmann extraction),
+// used to skip chunks that are entirely outside the view. Plain CPU code.
+public class Frustum {
+    // a, b, c, d per plane: left, right, bottom, top, near, far
+    private final float[] planes = new float[24];
+
+    public Frustum update(Matrix4f projView) {
+        // JOML names elements mCR (column, row); row r is (m0r, m1r, m2r, m3r)
+        setPlane(0, projView.m03() + projView.m00(), projView.m13() + projView.m10(), projView.m23() + projView.m20(), projView.m33() + projView.m30());
+        setPlane(1, projView.m03() - projView.m00(), projView.m13() - projView.m10(), projView.m23() - projView.m20(), projView.m33() - projView.m30());
+        setPlane(2, projView.m03() + projView.m01(), projView.m13() + projView.m11(), projView.m23() + projView.m21(), projView.m33() + projView.m31());
+        setPlane(3, projView.m03() - projView.m01(), projView.m13() - projView.m11(), projView.m23() - projView.m21(), projView.m33() - projView.m31());
+        setPlane(4, projView.m03() + projView.m02(), projView.m13() + projView.m12(), projView.m23() + projView.m22(), projView.m33() + projView.m32());
+        setPlane(5, projView.m03() - projView.m02(), projView.m13() - projView.m12(), projView.m23() - projView.m22(), projView.m33() - projView.m32());
+        return this;
+    }
+
+    private void setPlane(int plane, float a, float b, float c, float d) {
+        int i = plane * 4;
+        planes[i] = a;
+        planes[i + 1] = b;
+        planes[i + 2] = c;
+        planes[i + 3] = d;
+    }
+
+    // False only if the box is completely behind one of the planes
+    public boolean intersectsAabb(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int i = 0; i < 24; i += 4) {
+            float a = planes[i];
+            float b = planes[i + 1];
+            float c = planes[i + 2];
+            // the box corner furthest along the plane normal
+            float px = a >= 0 ? maxX : minX;
+            float py = b >= 0 ? maxY : minY;
+            float pz = c >= 0 ? maxZ : minZ;
+            if (a * px + b * py + c * pz + planes[i + 3] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package com.minecraft.graphics;
+
+import org.joml.Matrix4f;
+
+import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11.GL_DEPTH_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11.glClear;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL13.glActiveTexture;
+
+// Draws the frame with the terrain shader and the MeshArena into the window
+public class GlRenderBackend implements RenderBackend {
+    private final ShaderProgram shaderProgram;
+    // null if the block textures failed to load
+    private final TextureArray blockTextures;
+    private final MeshArena meshArena;
+    private final Matrix4f modelMatrix = new Matrix4f();
+
+    public GlRenderBackend(ShaderProgram shaderProgram, TextureArray blockTextures, MeshArena meshArena) {
+        this.shaderProgram = shaderProgram;
+        this.blockTextures = blockTextures;
+        this.meshArena = meshArena;
+    }
+
+    @Override
+    public void compact() {
+        meshArena.compact();
+    }
+
+    @Override
+    public void beginFrame(Matrix4f projection, Matrix4f view) {
+        glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+        shaderProgram.start();
+        shaderProgram.setUniform("projectionMatrix", projection);
+        shaderProgram.setUniform("viewMatrix", view);
+        shaderProgram.setUniform("modelMatrix", modelMatrix);
+        shaderProgram.setUniform("texture_sampler", 0);
+        if (blockTextures != null) {
+            glActiveTexture(GL_TEXTURE0);
+            blockTextures.bind();
+        }
+    }
+
+    @Override
+    public void draw(DrawCommandBuffer commands) {
+        meshArena.draw(commands);
+    }
+
+    @Override
+    public void endFrame() {
+        shaderProgram.stop();
+        DisplayManager.updateDisplay();
+    }
+}
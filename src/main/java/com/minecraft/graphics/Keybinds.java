@@ -9,7 +9,8 @@ public class Keybinds {
         return GLFW.glfwGetKey(window, key) == GLFW.GLFW_PRESS;
     }
 
-    public static float[] handleKeyboardInput(long window, float x, float y, float z, float yaw) {
+    // Writes the moved position into dest and returns it
+    public static float[] handleKeyboardInput(long window, float x, float y, float z, float yaw, float[] dest) {
         float dx = 0, dz = 0, dy = 0;
 
         if (isKeyDown(window, GLFW.GLFW_KEY_W)) {
@@ -36,6 +37,9 @@ public class Keybinds {
         z += dx * Math.sin(yawRad) + dz * Math.cos(yawRad);
         y += dy;
 
-        return new float[]{x, y, z};
+        dest[0] = x;
+        dest[1] = y;
+        dest[2] = z;
+        return dest;
     }
 }
@@ -1,126 +0,0 @@
-package com.minecraft.graphics;
-
-import org.lwjgl.system.MemoryUtil;
-
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
-import java.util.ArrayList;
-import java.util.List;
-
-import static org.lwjgl.opengl.GL11.GL_FLOAT;
-import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
-import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
-import static org.lwjgl.opengl.GL11.glDrawElements;
-import static org.lwjgl.opengl.GL15.*;
-import static org.lwjgl.opengl.GL20.glDisableVertexAttribArray;
-import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
-import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
-import static org.lwjgl.opengl.GL30.glBindVertexArray;
-import static org.lwjgl.opengl.GL30.glDeleteVertexArrays;
-import static org.lwjgl.opengl.GL30.glGenVertexArrays;
-
-public class Mesh {
-
-    private final int vaoId;
-    private final List<Integer> vboIdList;
-    private final int vertexCount;
-    private TextureHandler texture;
-
-    public Mesh(float[] positions, float[] textCoords, int[] indices) {
-        this(positions, textCoords, indices, null);
-    }
-
-    public Mesh(float[] positions, float[] textCoords, int[] indices, TextureHandler texture) {
-        this.texture = texture;
-        vertexCount = indices.length;
-        vboIdList = new ArrayList<>();
-
-        vaoId = glGenVertexArrays();
-        glBindVertexArray(vaoId);
-
-        // Position VBO
-        int vboId = glGenBuffers();
-        vboIdList.add(vboId);
-        FloatBuffer posBuffer = MemoryUtil.memAllocFloat(positions.length);
-        posBuffer.put(positions).flip();
-        glBindBuffer(GL_ARRAY_BUFFER, vboId);
-        glBufferData(GL_ARRAY_BUFFER, posBuffer, GL_STATIC_DRAW);
-        glVertexAttribPointer(0, 3, GL_FLOAT, false, 0, 0);
-        MemoryUtil.memFree(posBuffer);
-
-
-        // Texture coordinates VBO
-        vboId = glGenBuffers();
-        vboIdList.add(vboId);
-        FloatBuffer textCoordsBuffer = MemoryUtil.memAllocFloat(textCoords.length);
-        textCoordsBuffer.put(textCoords).flip();
-        glBindBuffer(GL_ARRAY_BUFFER, vboId);
-        glBufferData(GL_ARRAY_BUFFER, textCoordsBuffer, GL_STATIC_DRAW);
-        glVertexAttribPointer(1, 2, GL_FLOAT, false, 0, 0);
-        MemoryUtil.memFree(textCoordsBuffer);
-
-        // Index VBO
-        vboId = glGenBuffers();
-        vboIdList.add(vboId);
-        IntBuffer indicesBuffer = MemoryUtil.memAllocInt(indices.length);
-        indicesBuffer.put(indices).flip();
-        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, vboId);
-        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indicesBuffer, GL_STATIC_DRAW);
-        MemoryUtil.memFree(indicesBuffer);
-
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
-        glBindVertexArray(0);
-    }
-
-    public void render() {
-        if (texture != null) {
-            // Activate first texture bank
-            glActiveTexture(GL_TEXTURE0);
-            // Bind the texture
-            texture.bind();
-        }
-
-        // Draw the mesh
-        glBindVertexArray(getVaoId());
-        glEnableVertexAttribArray(0);
-        glEnableVertexAttribArray(1);
-
-        glDrawElements(GL_TRIANGLES, getVertexCount(), GL_UNSIGNED_INT, 0);
-
-        // Restore state
-        glDisableVertexAttribArray(0);
-        glDisableVertexAttribArray(1);
-        glBindVertexArray(0);
-        //glBindTexture(GL_TEXTURE_2D, 0);
-    }
-
-    public void cleanup() {
-        glDisableVertexAttribArray(0);
-
-        // Delete the VBOs
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
-        for (int vboId : vboIdList) {
-            glDeleteBuffers(vboId);
-        }
-
-        // Delete the VAO
-        glBindVertexArray(0);
-        glDeleteVertexArrays(vaoId);
-    }
-
-    public int getVaoId() {
-        return vaoId;
-    }
-
-    public int getVertexCount() {
-        return vertexCount;
-    }
-
-    public void setTexture(TextureHandler texture) {
-        this.texture = texture;
-    }
-
-    public TextureHandler getTexture() {
-        return texture;
-    }
-}
\ No newline at end of file
@@ -0,0 +1,358 @@
+package com.minecraft.graphics;
+
+import com.minecraft.profiling.MetricsRegistry;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_SHORT;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_DYNAMIC_DRAW;
+import static org.lwjgl.opengl.GL15.GL_STREAM_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glBufferSubData;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL20.glDisableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttrib2f;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.glBindVertexArray;
+import static org.lwjgl.opengl.GL30.glDeleteVertexArrays;
+import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+import static org.lwjgl.opengl.GL30.glVertexAttribIPointer;
+import static org.lwjgl.opengl.GL31.GL_COPY_READ_BUFFER;
+import static org.lwjgl.opengl.GL31.GL_COPY_WRITE_BUFFER;
+import static org.lwjgl.opengl.GL31.glCopyBufferSubData;
+import static org.lwjgl.opengl.GL32.glDrawElementsBaseVertex;
+import static org.lwjgl.opengl.GL33.glVertexAttribDivisor;
+import static org.lwjgl.opengl.GL40.GL_DRAW_INDIRECT_BUFFER;
+import static org.lwjgl.opengl.GL43.glMultiDrawElementsIndirect;
+
+// One vertex buffer that every chunk mesh is sub-allocated from, with a single
+// VAO over it. The visible meshes are drawn together with
+// glMultiDrawElementsIndirect from a DrawCommandBuffer; each command's chunk
+// origin comes from a per-instance attribute selected by its baseInstance.
+// Without GL 4.3 the same commands are issued one glDrawElementsBaseVertex at
+// a time. Indices come from the shared QuadIndexBuffer. GL thread only.
+//
+// When an upload does not fit, the arena first compacts itself completely and
+// then doubles. Between those, compact() moves a few meshes per frame while
+// the free space is splintered.
+public class MeshArena {
+    private static final int QUAD_BYTES = 4 * PackedVertex.BYTES;
+    private static final int INITIAL_QUADS = (16 << 20) / QUAD_BYTES;
+    private static final int MAX_QUADS = Integer.MAX_VALUE / QUAD_BYTES;
+    private static final int ORIGIN_ATTRIBUTE = 1;
+
+    // Open-addressing map from quad offset to mesh, like ChunkMap but for the
+    // GL thread alone. Removal shifts the following entries back instead of
+    // leaving tombstones, so moving meshes every frame never forces a rehash.
+    private static final class MeshTable {
+        private static final int EMPTY = -1;
+
+        private int[] keys = new int[256];
+        private ArenaMesh[] values = new ArenaMesh[256];
+        private int size;
+
+        MeshTable() {
+            Arrays.fill(keys, EMPTY);
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        ArenaMesh get(int key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        void put(int key, ArenaMesh value) {
+            if (2 * (size + 1) > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        ArenaMesh remove(int key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) {
+                    return null;
+                }
+                i = (i + 1) & mask;
+            }
+            ArenaMesh removed = values[i];
+            size--;
+            // move back any later entry of the run whose home slot is not between the hole and itself
+            int hole = i;
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int home = hash(keys[j]) & mask;
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    hole = j;
+                }
+            }
+            keys[hole] = EMPTY;
+            values[hole] = null;
+            return removed;
+        }
+
+        private void resize(int capacity) {
+            int[] oldKeys = keys;
+            ArenaMesh[] oldValues = values;
+            keys = new int[capacity];
+            values = new ArenaMesh[capacity];
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        void clear() {
+            Arrays.fill(keys, EMPTY);
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    private final ArenaAllocator allocator = new ArenaAllocator(INITIAL_QUADS);
+    private final ArenaAllocator.Mover mover = this::copyQuads;
+    private final boolean multiDrawIndirect;
+    private final int vaoId;
+    private int vertexBufferId;
+    private final int originBufferId;
+    private final int commandBufferId;
+    // staging for moves whose source and destination overlap
+    private int copyBufferId;
+    private int copyBufferQuads;
+    // allocation offset -> mesh, so defragmentation can update the moved mesh
+    private final MeshTable meshes = new MeshTable();
+    private long moves;
+    private int grows;
+    private int lastFrameCommands;
+    private long lastFrameTriangles;
+
+    public MeshArena() {
+        GLCapabilities caps = GL.getCapabilities();
+        multiDrawIndirect = caps.OpenGL43 || caps.GL_ARB_multi_draw_indirect;
+
+        vaoId = glGenVertexArrays();
+        glBindVertexArray(vaoId);
+
+        vertexBufferId = createVertexBuffer(INITIAL_QUADS);
+        glEnableVertexAttribArray(0);
+
+        originBufferId = glGenBuffers();
+        glBindBuffer(GL_ARRAY_BUFFER, originBufferId);
+        glVertexAttribPointer(ORIGIN_ATTRIBUTE, 2, GL_FLOAT, false, DrawCommandBuffer.ORIGIN_BYTES, 0);
+        glVertexAttribDivisor(ORIGIN_ATTRIBUTE, 1);
+
+        QuadIndexBuffer.bind();
+        commandBufferId = multiDrawIndirect ? glGenBuffers() : 0;
+
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindVertexArray(0);
+    }
+
+    // Creates the vertex buffer and points attribute 0 of the bound VAO at it
+    private static int createVertexBuffer(int quads) {
+        int bufferId = glGenBuffers();
+        glBindBuffer(GL_ARRAY_BUFFER, bufferId);
+        glBufferData(GL_ARRAY_BUFFER, (long) quads * QUAD_BYTES, GL_DYNAMIC_DRAW);
+        glVertexAttribIPointer(0, 2, GL_UNSIGNED_INT, PackedVertex.BYTES, 0);
+        return bufferId;
+    }
+
+    // Copies the mesh into the arena and releases the data. Returns null if the
+    // arena cannot hold it.
+    public ArenaMesh upload(MeshData data) {
+        int quads = data.getQuadCount();
+        int offset = allocator.allocate(quads);
+        if (offset < 0) {
+            defragment(Integer.MAX_VALUE);
+            offset = allocator.allocate(quads);
+        }
+        while (offset < 0 && allocator.getCapacity() < MAX_QUADS) {
+            grow((int) Math.min(MAX_QUADS, Math.max(2L * allocator.getCapacity(), (long) allocator.getUsed() + quads)));
+            offset = allocator.allocate(quads);
+        }
+        if (offset < 0) {
+            data.release();
+            return null;
+        }
+        glBindBuffer(GL_ARRAY_BUFFER, vertexBufferId);
+        glBufferSubData(GL_ARRAY_BUFFER, (long) offset * QUAD_BYTES, data.getVertices());
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        data.release();
+        ArenaMesh mesh = new ArenaMesh(offset, quads, data.getSectionStarts());
+        meshes.put(offset, mesh);
+        return mesh;
+    }
+
+    public void free(ArenaMesh mesh) {
+        if (mesh != null && meshes.get(mesh.getQuadOffset()) == mesh) {
+            meshes.remove(mesh.getQuadOffset());
+            allocator.free(mesh.getQuadOffset());
+        }
+    }
+
+    // Per-frame upkeep: compacts a few meshes while holes make up most of the free space
+    public void compact() {
+        if (allocator.fragmentation() > 0.5f) {
+            defragment(4);
+        }
+    }
+
+    // Slides up to maxMoves meshes down into the lowest hole
+    public void defragment(int maxMoves) {
+        allocator.defragment(maxMoves, mover);
+        glBindBuffer(GL_COPY_READ_BUFFER, 0);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+    }
+
+    // A copy within one buffer must not overlap itself, so a mesh sliding down
+    // by less than its own size goes through the staging buffer
+    private void copyQuads(int from, int to, int size) {
+        long bytes = (long) size * QUAD_BYTES;
+        if (from - to >= size) {
+            copy(vertexBufferId, (long) from * QUAD_BYTES, vertexBufferId, (long) to * QUAD_BYTES, bytes);
+        } else {
+            if (copyBufferQuads < size) {
+                if (copyBufferId == 0) {
+                    copyBufferId = glGenBuffers();
+                }
+                copyBufferQuads = Math.max(size, 2 * copyBufferQuads);
+                glBindBuffer(GL_COPY_WRITE_BUFFER, copyBufferId);
+                glBufferData(GL_COPY_WRITE_BUFFER, (long) copyBufferQuads * QUAD_BYTES, GL_DYNAMIC_DRAW);
+            }
+            copy(vertexBufferId, (long) from * QUAD_BYTES, copyBufferId, 0, bytes);
+            copy(copyBufferId, 0, vertexBufferId, (long) to * QUAD_BYTES, bytes);
+        }
+        ArenaMesh mesh = meshes.remove(from);
+        mesh.setQuadOffset(to);
+        meshes.put(to, mesh);
+        moves++;
+    }
+
+    private static void copy(int source, long sourceOffset, int target, long targetOffset, long bytes) {
+        glBindBuffer(GL_COPY_READ_BUFFER, source);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, target);
+        glCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER, sourceOffset, targetOffset, bytes);
+    }
+
+    private void grow(int quads) {
+        glBindVertexArray(vaoId);
+        int oldBufferId = vertexBufferId;
+        vertexBufferId = createVertexBuffer(quads);
+        glBindBuffer(GL_COPY_READ_BUFFER, oldBufferId);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, vertexBufferId);
+        glCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER, 0, 0, (long) allocator.getCapacity() * QUAD_BYTES);
+        glBindBuffer(GL_COPY_READ_BUFFER, 0);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindVertexArray(0);
+        glDeleteBuffers(oldBufferId);
+        allocator.grow(quads);
+        grows++;
+    }
+
+    public void draw(DrawCommandBuffer commands) {
+        int count = commands.getCommandCount();
+        lastFrameCommands = count;
+        lastFrameTriangles = 2 * commands.getQuadCount();
+        if (count == 0) {
+            return;
+        }
+        glBindVertexArray(vaoId);
+        if (multiDrawIndirect) {
+            glBindBuffer(GL_ARRAY_BUFFER, originBufferId);
+            glBufferData(GL_ARRAY_BUFFER, commands.getOrigins(), GL_STREAM_DRAW);
+            glBindBuffer(GL_ARRAY_BUFFER, 0);
+            glEnableVertexAttribArray(ORIGIN_ATTRIBUTE);
+            glBindBuffer(GL_DRAW_INDIRECT_BUFFER, commandBufferId);
+            glBufferData(GL_DRAW_INDIRECT_BUFFER, commands.getCommands(), GL_STREAM_DRAW);
+            glMultiDrawElementsIndirect(GL_TRIANGLES, GL_UNSIGNED_SHORT, 0, count, 0);
+            glBindBuffer(GL_DRAW_INDIRECT_BUFFER, 0);
+            glDisableVertexAttribArray(ORIGIN_ATTRIBUTE);
+        } else {
+            // the origin attribute array stays disabled, so its constant value applies
+            for (int i = 0; i < count; i++) {
+                glVertexAttrib2f(ORIGIN_ATTRIBUTE, commands.getOriginX(i), commands.getOriginZ(i));
+                glDrawElementsBaseVertex(GL_TRIANGLES, commands.getCommandField(i, 0), GL_UNSIGNED_SHORT, 0,
+                        commands.getCommandField(i, 3));
+            }
+        }
+        glBindVertexArray(0);
+    }
+
+    public ArenaAllocator getAllocator() {
+        return allocator;
+    }
+
+    // Bytes of the buffers the arena owns, not counting the shared index buffer
+    public long getGpuBytes() {
+        return (long) allocator.getCapacity() * QUAD_BYTES + (long) copyBufferQuads * QUAD_BYTES;
+    }
+
+    // Mesh, triangle and buffer counters under "arena."; read them on the GL thread
+    public void registerMetrics(MetricsRegistry registry) {
+        registry.gauge("arena.meshes", allocator::getAllocationCount);
+        registry.gauge("arena.triangles", () -> 2L * allocator.getUsed());
+        registry.gauge("arena.gpuBytes", this::getGpuBytes);
+        registry.gauge("arena.usedBytes", () -> (long) allocator.getUsed() * QUAD_BYTES);
+        registry.gauge("arena.freeBlocks", allocator::getFreeBlockCount);
+        registry.gauge("arena.moves", () -> moves);
+        registry.gauge("arena.drawCommands", () -> lastFrameCommands);
+        registry.gauge("arena.trianglesDrawn", () -> lastFrameTriangles);
+    }
+
+    public String summary() {
+        return String.format("arena %.1f/%.1f MB (%.0f%% used), %d meshes, %d holes, %.0f%% fragmented, %d moves, %d grows, %d draws%s",
+                (double) allocator.getUsed() * QUAD_BYTES / (1 << 20),
+                (double) allocator.getCapacity() * QUAD_BYTES / (1 << 20),
+                allocator.occupancy() * 100, allocator.getAllocationCount(),
+                allocator.getFreeBlockCount(), allocator.fragmentation() * 100,
+                moves, grows, lastFrameCommands, multiDrawIndirect ? " (indirect)" : "");
+    }
+
+    public void cleanup() {
+        glBindVertexArray(0);
+        glDeleteBuffers(vertexBufferId);
+        glDeleteBuffers(originBufferId);
+        if (copyBufferId != 0) {
+            glDeleteBuffers(copyBufferId);
+        }
+        if (commandBufferId != 0) {
+            glDeleteBuffers(commandBufferId);
+        }
+        glDeleteVertexArrays(vaoId);
+        meshes.clear();
+    }
+}
@@ -0,0 +1,79 @@
+package com.minecraft.graphics;
+
+import java.nio.ByteBuffer;
+
+// Accumulates quads straight into a pooled direct buffer in the PackedVertex
+// layout. One builder is reused per worker thread; finish() hands the filled
+// buffer to a MeshData and the next mesh starts on a fresh buffer from the pool.
+public class MeshBuilder {
+    private static final int INITIAL_QUADS = 256;
+
+    private ByteBuffer vertices;
+    private int vertexCount;
+
+    public void reset() {
+        vertexCount = 0;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getIndexCount() {
+        return vertexCount / 4 * QuadIndexBuffer.INDICES_PER_QUAD;
+    }
+
+    // Makes room for one more quad (4 vertices)
+    private void ensureQuadCapacity() {
+        if (vertices == null) {
+            vertices = BufferPool.acquire(INITIAL_QUADS * 4 * PackedVertex.BYTES);
+        }
+        if ((vertexCount + 4) * PackedVertex.BYTES > vertices.capacity()) {
+            vertices = BufferPool.grow(vertices, vertexCount * PackedVertex.BYTES, vertices.capacity() * 2);
+        }
+    }
+
+    // Corners in chunk-relative block coordinates and texture coordinates in
+    // blocks, in the order the shared index pattern expects (0,1,2 and 0,2,3).
+    // face is the PackedVertex face code.
+    public void quad(int x0, int y0, int z0, int u0, int v0,
+                     int x1, int y1, int z1, int u1, int v1,
+                     int x2, int y2, int z2, int u2, int v2,
+                     int x3, int y3, int z3, int u3, int v3,
+                     int layer, int face) {
+        quad(x0, y0, z0, u0, v0, x1, y1, z1, u1, v1, x2, y2, z2, u2, v2, x3, y3, z3, u3, v3, layer, face, 0);
+    }
+
+    // As above, with x, z, u and v in LOD cells of 2^scaleShift blocks
+    public void quad(int x0, int y0, int z0, int u0, int v0,
+                     int x1, int y1, int z1, int u1, int v1,
+                     int x2, int y2, int z2, int u2, int v2,
+                     int x3, int y3, int z3, int u3, int v3,
+                     int layer, int face, int scaleShift) {
+        ensureQuadCapacity();
+        int second = PackedVertex.second(layer, face, scaleShift);
+        vertex(PackedVertex.first(x0, y0, z0, u0, v0), second);
+        vertex(PackedVertex.first(x1, y1, z1, u1, v1), second);
+        vertex(PackedVertex.first(x2, y2, z2, u2, v2), second);
+        vertex(PackedVertex.first(x3, y3, z3, u3, v3), second);
+    }
+
+    private void vertex(int first, int second) {
+        int p = vertexCount * PackedVertex.BYTES;
+        vertices.putInt(p, first);
+        vertices.putInt(p + 4, second);
+        vertexCount++;
+    }
+
+    // Returns the built geometry, or null if nothing was emitted since reset()
+    public MeshData finish() {
+        if (vertexCount == 0) {
+            return null;
+        }
+        vertices.position(0).limit(vertexCount * PackedVertex.BYTES);
+        MeshData data = new MeshData(vertices, vertexCount);
+        vertices = null;
+        reset();
+        return data;
+    }
+}
@@ -0,0 +1,54 @@
+package com.minecraft.graphics;
+
+import java.nio.ByteBuffer;
+
+// Finished, not yet uploaded mesh geometry in the PackedVertex layout, four
+// vertices per quad. Indices come from the shared QuadIndexBuffer. The buffer
+// belongs to BufferPool and is returned by release() once the data is on the
+// GPU (or thrown away).
+public class MeshData {
+    private ByteBuffer vertices;
+    private final int vertexCount;
+    // quad index where each chunk section's quads start, plus the total at the end; null if not split by section
+    private int[] sectionStarts;
+
+    MeshData(ByteBuffer vertices, int vertexCount) {
+        this.vertices = vertices;
+        this.vertexCount = vertexCount;
+    }
+
+    public ByteBuffer getVertices() {
+        return vertices;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int[] getSectionStarts() {
+        return sectionStarts;
+    }
+
+    public void setSectionStarts(int[] sectionStarts) {
+        this.sectionStarts = sectionStarts;
+    }
+
+    public int getQuadCount() {
+        return vertexCount / 4;
+    }
+
+    // Indices drawn from the shared quad index buffer
+    public int getIndexCount() {
+        return getQuadCount() * QuadIndexBuffer.INDICES_PER_QUAD;
+    }
+
+    // Bytes that will be sent to the GPU for this mesh
+    public int getByteSize() {
+        return vertices.limit();
+    }
+
+    public synchronized void release() {
+        BufferPool.release(vertices);
+        vertices = null;
+    }
+}
@@ -0,0 +1,73 @@
+package com.minecraft.graphics;
+
+// Terrain vertex layout: two unsigned ints, 8 bytes per vertex, read by
+// terrain.vert as a uvec2 and placed in the world by the per-instance
+// chunkOrigin attribute (MeshArena.ORIGIN_ATTRIBUTE).
+//
+//   first   bits  0-4   x within the chunk, 0-16
+//           bits  5-13  y, 0-256
+//           bits 14-18  z within the chunk, 0-16
+//           bits 19-23  u in blocks, 0-16 (the texture repeats once per block)
+//           bits 24-28  v in blocks, 0-16
+//   second  bits  0-7   texture array layer
+//           bits  8-10  face: up, down, +z, -z, +x, -x
+//           bits 11-12  scale shift: 0 for blocks, k for LOD cells of 2^k blocks
+//
+// Positions are corners of the block grid, so 16 (and 256) are valid values.
+// With a scale shift, x, z and the horizontal texture coordinates count cells
+// and the shader multiplies them by 2^k; y stays in blocks, and side faces take
+// v from y instead, so LOD walls of any height need no v.
+public final class PackedVertex {
+    public static final int BYTES = 2 * Integer.BYTES;
+
+    private PackedVertex() {
+    }
+
+    public static int first(int x, int y, int z, int u, int v) {
+        return (x & 0x1F)
+                | (y & 0x1FF) << 5
+                | (z & 0x1F) << 14
+                | (u & 0x1F) << 19
+                | (v & 0x1F) << 24;
+    }
+
+    public static int second(int layer, int face) {
+        return second(layer, face, 0);
+    }
+
+    public static int second(int layer, int face, int scaleShift) {
+        return (layer & 0xFF) | (face & 0x7) << 8 | (scaleShift & 0x3) << 11;
+    }
+
+    public static int x(int first) {
+        return first & 0x1F;
+    }
+
+    public static int y(int first) {
+        return (first >>> 5) & 0x1FF;
+    }
+
+    public static int z(int first) {
+        return (first >>> 14) & 0x1F;
+    }
+
+    public static int u(int first) {
+        return (first >>> 19) & 0x1F;
+    }
+
+    public static int v(int first) {
+        return (first >>> 24) & 0x1F;
+    }
+
+    public static int layer(int second) {
+        return second & 0xFF;
+    }
+
+    public static int face(int second) {
+        return (second >>> 8) & 0x7;
+    }
+
+    public static int scaleShift(int second) {
+        return (second >>> 11) & 0x3;
+    }
+}
@@ -0,0 +1,55 @@
+package com.minecraft.graphics;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL15.GL_ELEMENT_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+
+// One element buffer with the 0,1,2,0,2,3 pattern for MAX_QUADS quads, shared
+// by every chunk mesh instead of each mesh uploading its own indices. Indices
+// are 16-bit, so a draw covers at most MAX_QUADS quads; larger meshes are drawn
+// in batches with a base vertex. GL thread only.
+public final class QuadIndexBuffer {
+    public static final int MAX_QUADS = 65536 / 4;
+    public static final int INDICES_PER_QUAD = 6;
+
+    private static int bufferId;
+
+    private QuadIndexBuffer() {
+    }
+
+    // Binds the shared buffer to GL_ELEMENT_ARRAY_BUFFER, creating it on first
+    // use. Call with a VAO bound to make it that VAO's index buffer.
+    public static void bind() {
+        if (bufferId == 0) {
+            ByteBuffer indices = BufferPool.acquire(MAX_QUADS * INDICES_PER_QUAD * Short.BYTES);
+            for (int quad = 0; quad < MAX_QUADS; quad++) {
+                int base = quad * 4;
+                indices.putShort((short) base);
+                indices.putShort((short) (base + 1));
+                indices.putShort((short) (base + 2));
+                indices.putShort((short) base);
+                indices.putShort((short) (base + 2));
+                indices.putShort((short) (base + 3));
+            }
+            indices.flip();
+            bufferId = glGenBuffers();
+            glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, bufferId);
+            glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices, GL_STATIC_DRAW);
+            BufferPool.release(indices);
+            return;
+        }
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, bufferId);
+    }
+
+    public static void cleanup() {
+        if (bufferId != 0) {
+            glDeleteBuffers(bufferId);
+            bufferId = 0;
+        }
+    }
+}
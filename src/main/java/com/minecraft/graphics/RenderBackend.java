@@ -0,0 +1,19 @@
+package com.minecraft.graphics;
+
+import org.joml.Matrix4f;
+
+// The GL side of a frame, called by FrameRenderer in this order every frame.
+// Keeping it behind an interface lets the frame run without a window, e.g. to
+// check that a warm frame allocates nothing.
+public interface RenderBackend {
+    // Per-frame upkeep of the buffers the meshes live in, after this frame's uploads
+    void compact();
+
+    // Clears the screen and sets the shader's matrices and textures
+    void beginFrame(Matrix4f projection, Matrix4f view);
+
+    void draw(DrawCommandBuffer commands);
+
+    // Presents the frame and polls input
+    void endFrame();
+}
@@ -50,10 +50,13 @@ public class ShaderProgram {
         GL20.glUniform1i(uniforms.get(uniformName), value);
     }
 
+    public void setUniform(String uniformName, float x, float y, float z) {
+        GL20.glUniform3f(uniforms.get(uniformName), x, y, z);
+    }
+
+    // Uniforms are looked up once with createUniform, not on every start
     public void start() {
         GL20.glUseProgram(programID);
-        createUniform("projectionMatrix");
-        createUniform("viewMatrix");
     }
 
     public void stop() {
@@ -0,0 +1,100 @@
+package com.minecraft.graphics;
+
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.glTexImage3D;
+import static org.lwjgl.opengl.GL30.GL_TEXTURE_2D_ARRAY;
+import static org.lwjgl.opengl.GL30.glGenerateMipmap;
+import static org.lwjgl.stb.STBImage.stbi_failure_reason;
+import static org.lwjgl.stb.STBImage.stbi_image_free;
+import static org.lwjgl.stb.STBImage.stbi_load;
+
+// All block textures in a single GL_TEXTURE_2D_ARRAY, loaded once at startup.
+// Layer i holds names[i]; the layer index is part of every terrain vertex, so a
+// chunk draws with one bound texture and one draw call.
+public class TextureArray {
+
+    private final int textureId;
+    private final String[] names;
+
+    private TextureArray(int textureId, String[] names) {
+        this.textureId = textureId;
+        this.names = names;
+    }
+
+    public static TextureArray load(String directory, String[] names) throws Exception {
+        TextureLayerPacker packer = new TextureLayerPacker();
+        List<ByteBuffer> decoded = new ArrayList<>();
+        try {
+            for (String name : names) {
+                String fileName = directory + name + ".png";
+                try (MemoryStack stack = MemoryStack.stackPush()) {
+                    IntBuffer w = stack.mallocInt(1);
+                    IntBuffer h = stack.mallocInt(1);
+                    IntBuffer channels = stack.mallocInt(1);
+
+                    ByteBuffer buf = stbi_load(fileName, w, h, channels, 4);
+                    if (buf == null) {
+                        String fallbackPath = fileName.replace("texture/blocks", "texture/fallback_blocks");
+                        buf = stbi_load(fallbackPath, w, h, channels, 4);
+                        if (buf == null) {
+                            throw new Exception("Image file not loaded at " + fileName + " or " + fallbackPath + ": " + stbi_failure_reason());
+                        }
+                    }
+                    decoded.add(buf);
+                    packer.addLayer(name, w.get(0), h.get(0), buf);
+                }
+            }
+
+            ByteBuffer layers = packer.pack();
+
+            int textureId = glGenTextures();
+            glBindTexture(GL_TEXTURE_2D_ARRAY, textureId);
+            glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+
+            // Pixelated look with mipmaps; repeat so merged quads tile per block
+            glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MIN_FILTER, GL_NEAREST_MIPMAP_NEAREST);
+            glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+            glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_S, GL_REPEAT);
+            glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_T, GL_REPEAT);
+
+            glTexImage3D(GL_TEXTURE_2D_ARRAY, 0, GL_RGBA8, packer.getLayerWidth(), packer.getLayerHeight(),
+                    packer.getLayerCount(), 0, GL_RGBA, GL_UNSIGNED_BYTE, layers);
+            glGenerateMipmap(GL_TEXTURE_2D_ARRAY);
+            glBindTexture(GL_TEXTURE_2D_ARRAY, 0);
+
+            return new TextureArray(textureId, names.clone());
+        } finally {
+            for (ByteBuffer buf : decoded) {
+                stbi_image_free(buf);
+            }
+        }
+    }
+
+    public void bind() {
+        glBindTexture(GL_TEXTURE_2D_ARRAY, textureId);
+    }
+
+    public int getLayer(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getTextureId() {
+        return textureId;
+    }
+
+    public void cleanup() {
+        glDeleteTextures(textureId);
+    }
+}
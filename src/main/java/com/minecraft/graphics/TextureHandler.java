@@ -1,83 +0,0 @@
-package com.minecraft.graphics;
-
-import org.lwjgl.system.MemoryStack;
-
-import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
-
-import static org.lwjgl.opengl.GL11.*;
-import static org.lwjgl.opengl.GL30.glGenerateMipmap;
-import static org.lwjgl.stb.STBImage.stbi_image_free;
-import static org.lwjgl.stb.STBImage.stbi_failure_reason;
-import static org.lwjgl.stb.STBImage.stbi_load;
-
-public class TextureHandler {
-
-    private final int textureId;
-
-    public TextureHandler(String fileName) throws Exception {
-        this(loadTexture(fileName));
-    }
-
-    public TextureHandler(int textureId) {
-        this.textureId = textureId;
-    }
-
-    public void bind() {
-        glBindTexture(GL_TEXTURE_2D, textureId);
-    }
-
-    public int getTextureId() {
-        return textureId;
-    }
-
-    private static int loadTexture(String fileName) throws Exception {
-        int width;
-        int height;
-        ByteBuffer buf;
-        // Load Texture file
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            IntBuffer w = stack.mallocInt(1);
-            IntBuffer h = stack.mallocInt(1);
-            IntBuffer channels = stack.mallocInt(1);
-
-            buf = stbi_load(fileName, w, h, channels, 4);
-            if (buf == null) {
-                String fallbackPath = fileName.replace("texture/blocks", "texture/fallback_blocks");
-                buf = stbi_load(fallbackPath, w, h, channels, 4);
-                if (buf == null) {
-                    throw new Exception("Image file not loaded at " + fileName + " or " + fallbackPath + ": " + stbi_failure_reason());
-                }
-            }
-
-            width = w.get();
-            height = h.get();
-        }
-
-        // Create a new OpenGL texture
-        int textureId = glGenTextures();
-        // Bind the texture
-        glBindTexture(GL_TEXTURE_2D, textureId);
-
-        // Tell OpenGL how to unpack the RGBA bytes. Each component is 1 byte size
-        glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
-
-        // Set texture parameters for pixelated look with mipmaps
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST_MIPMAP_NEAREST);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
-
-        // Upload the texture data
-        glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, width, height, 0,
-                GL_RGBA, GL_UNSIGNED_BYTE, buf);
-        // Generate Mip Map
-        glGenerateMipmap(GL_TEXTURE_2D);
-
-        stbi_image_free(buf);
-
-        return textureId;
-    }
-
-    public void cleanup() {
-        glDeleteTextures(textureId);
-    }
-}
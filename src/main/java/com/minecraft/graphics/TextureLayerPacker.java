@@ -0,0 +1,88 @@
+package com.minecraft.graphics;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// CPU side of the block texture array: collects decoded RGBA images, assigns
+// each a layer in the order they are added and lays them out as one contiguous
+// buffer of equally sized layers. Images that differ from the layer size are
+// scaled with nearest-neighbour sampling to keep the pixelated look. Texture
+// coordinates need no remapping: every layer spans the full 0..1 range and
+// still repeats, so only the layer index goes into the vertex data.
+public class TextureLayerPacker {
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<ByteBuffer> pixels = new ArrayList<>();
+    private final List<int[]> sizes = new ArrayList<>();
+    private final Map<String, Integer> layers = new HashMap<>();
+    private int layerWidth;
+    private int layerHeight;
+
+    public int addLayer(String name, int width, int height, ByteBuffer rgba) {
+        if (layers.containsKey(name)) {
+            throw new IllegalArgumentException("Texture already added: " + name);
+        }
+        if (width <= 0 || height <= 0 || rgba.remaining() < width * height * BYTES_PER_PIXEL) {
+            throw new IllegalArgumentException("Bad image data for texture: " + name);
+        }
+        int layer = names.size();
+        names.add(name);
+        pixels.add(rgba);
+        sizes.add(new int[]{width, height});
+        layers.put(name, layer);
+        layerWidth = Math.max(layerWidth, width);
+        layerHeight = Math.max(layerHeight, height);
+        return layer;
+    }
+
+    public int getLayer(String name) {
+        Integer layer = layers.get(name);
+        return layer == null ? -1 : layer;
+    }
+
+    public int getLayerCount() {
+        return names.size();
+    }
+
+    public int getLayerWidth() {
+        return layerWidth;
+    }
+
+    public int getLayerHeight() {
+        return layerHeight;
+    }
+
+    public int getLayerOffset(int layer) {
+        return layer * layerWidth * layerHeight * BYTES_PER_PIXEL;
+    }
+
+    // Returns all layers back to back, ready for glTexImage3D
+    public ByteBuffer pack() {
+        ByteBuffer out = ByteBuffer.allocateDirect(getLayerOffset(names.size())).order(ByteOrder.nativeOrder());
+        for (int layer = 0; layer < names.size(); layer++) {
+            int[] size = sizes.get(layer);
+            scaleNearest(pixels.get(layer), size[0], size[1], out, getLayerOffset(layer), layerWidth, layerHeight);
+        }
+        return out;
+    }
+
+    static void scaleNearest(ByteBuffer src, int srcWidth, int srcHeight, ByteBuffer dst, int dstOffset, int dstWidth, int dstHeight) {
+        int srcBase = src.position();
+        for (int y = 0; y < dstHeight; y++) {
+            int sy = y * srcHeight / dstHeight;
+            for (int x = 0; x < dstWidth; x++) {
+                int sx = x * srcWidth / dstWidth;
+                int s = srcBase + (sy * srcWidth + sx) * BYTES_PER_PIXEL;
+                int d = dstOffset + (y * dstWidth + x) * BYTES_PER_PIXEL;
+                for (int c = 0; c < BYTES_PER_PIXEL; c++) {
+                    dst.put(d + c, src.get(s + c));
+                }
+            }
+        }
+    }
+}
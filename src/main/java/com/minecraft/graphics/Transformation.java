@@ -1,7 +1,6 @@
 package com.minecraft.graphics;
 
 import org.joml.Matrix4f;
-import org.joml.Vector3f;
 
 public class Transformation {
 
@@ -21,15 +20,12 @@ public class Transformation {
     }
 
     public Matrix4f getViewMatrix(Camera camera) {
-        Vector3f cameraPos = camera.getPosition();
-        Vector3f rotation = camera.getRotation();
-
         viewMatrix.identity();
         // First do the rotation so camera rotates over its position
-        viewMatrix.rotate((float)Math.toRadians(rotation.x), new Vector3f(1, 0, 0))
-                .rotate((float)Math.toRadians(rotation.y), new Vector3f(0, 1, 0));
+        viewMatrix.rotateX((float)Math.toRadians(camera.getPitch()))
+                .rotateY((float)Math.toRadians(camera.getYaw()));
         // Then do the translation
-        viewMatrix.translate(-cameraPos.x, -cameraPos.y, -cameraPos.z);
+        viewMatrix.translate(-camera.getX(), -camera.getY(), -camera.getZ());
         return viewMatrix;
     }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.minecraft.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// One rendered frame with the time spent in each phase, committed by
+// FrameProfiler while a flight recording is running
+@Name("com.minecraft.Frame")
+@Label("Frame")
+@Category({"Minecraft", "Rendering"})
+@Description("Time spent in each phase of one frame of the render loop")
+@StackTrace(false)
+class FrameEvent extends Event {
+    @Label("Terrain Update")
+    @Timespan
+    long terrainUpdate;
+
+    @Label("Mesh Upload")
+    @Timespan
+    long meshUpload;
+
+    @Label("Uniforms")
+    @Timespan
+    long uniforms;
+
+    @Label("Draw")
+    @Timespan
+    long draw;
+
+    @Label("Swap and Poll")
+    @Timespan
+    long swap;
+}
@@ -0,0 +1,112 @@
+package com.minecraft.profiling;
+
+import jdk.jfr.EventType;
+
+// Splits each frame of the render loop into phases. Call beginFrame(), then
+// end(phase) as each phase finishes, then endFrame(). A phase's time runs from
+// the previous end() (or beginFrame()), so the phases add up to the frame.
+// Each phase keeps a rolling histogram of the last WINDOW frames, and a
+// FrameEvent is committed per frame while JFR is recording. Allocation-free
+// unless JFR is recording. Render thread only.
+public class FrameProfiler {
+    public enum Phase {
+        TERRAIN_UPDATE("terrainUpdate"),
+        MESH_UPLOAD("meshUpload"),
+        UNIFORMS("uniforms"),
+        DRAW("draw"),
+        SWAP("swap");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    // about ten seconds at 60 fps
+    public static final int WINDOW = 600;
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final EventType FRAME_EVENT = EventType.getEventType(FrameEvent.class);
+
+    private final RollingHistogram[] phaseNanos = new RollingHistogram[PHASES.length];
+    private final RollingHistogram frameNanos = new RollingHistogram(WINDOW);
+    private final long[] current = new long[PHASES.length];
+    private long frameStart;
+    private long last;
+    private long frames;
+
+    public FrameProfiler() {
+        for (int i = 0; i < PHASES.length; i++) {
+            phaseNanos[i] = new RollingHistogram(WINDOW);
+        }
+    }
+
+    public void beginFrame() {
+        frameStart = System.nanoTime();
+        last = frameStart;
+        for (int i = 0; i < current.length; i++) {
+            current[i] = 0;
+        }
+    }
+
+    public void end(Phase phase) {
+        long now = System.nanoTime();
+        current[phase.ordinal()] += now - last;
+        last = now;
+    }
+
+    public void endFrame() {
+        long now = System.nanoTime();
+        for (int i = 0; i < current.length; i++) {
+            phaseNanos[i].record(current[i]);
+        }
+        frameNanos.record(now - frameStart);
+        frames++;
+        if (FRAME_EVENT.isEnabled()) {
+            FrameEvent event = new FrameEvent();
+            event.terrainUpdate = current[Phase.TERRAIN_UPDATE.ordinal()];
+            event.meshUpload = current[Phase.MESH_UPLOAD.ordinal()];
+            event.uniforms = current[Phase.UNIFORMS.ordinal()];
+            event.draw = current[Phase.DRAW.ordinal()];
+            event.swap = current[Phase.SWAP.ordinal()];
+            event.commit();
+        }
+    }
+
+    public RollingHistogram getPhase(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public RollingHistogram getFrame() {
+        return frameNanos;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    // Adds the frame and phase histograms to the registry as "frame" and "frame.<phase>"
+    public void register(MetricsRegistry registry) {
+        registry.histogram("frame", frameNanos);
+        for (Phase phase : PHASES) {
+            registry.histogram("frame." + phase.getMetricName(), phaseNanos[phase.ordinal()]);
+        }
+    }
+
+    public String summary() {
+        StringBuilder summary = new StringBuilder(String.format("Frames: %d, last %d p50 %.2f ms / p99 %.2f ms",
+                frames, frameNanos.getCount(), frameNanos.percentile(50) / 1_000_000.0,
+                frameNanos.percentile(99) / 1_000_000.0));
+        for (Phase phase : PHASES) {
+            RollingHistogram histogram = phaseNanos[phase.ordinal()];
+            summary.append(String.format("; %s p50 %.2f / p99 %.2f", phase.getMetricName(),
+                    histogram.percentile(50) / 1_000_000.0, histogram.percentile(99) / 1_000_000.0));
+        }
+        return summary.toString();
+    }
+}
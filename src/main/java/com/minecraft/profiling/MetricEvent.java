@@ -0,0 +1,23 @@
+package com.minecraft.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One gauge of a MetricsRegistry sample, committed while a flight recording is
+// running. Filter by name to chart a single metric next to the frame events.
+@Name("com.minecraft.Metric")
+@Label("Metric")
+@Category({"Minecraft", "Metrics"})
+@Description("Value of a registered gauge when the metrics were sampled")
+@StackTrace(false)
+class MetricEvent extends Event {
+    @Label("Name")
+    String name;
+
+    @Label("Value")
+    long value;
+}
@@ -0,0 +1,65 @@
+package com.minecraft.profiling;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Appends a MetricsRegistry's samples to a file: CSV with a header when the
+// file name ends in .csv, otherwise one JSON object per line. The file is
+// replaced when the log is opened. Stops logging after the first write error
+// instead of failing the frame.
+public class MetricsLog implements AutoCloseable {
+    private final Path file;
+    private final MetricsRegistry registry;
+    private final boolean csv;
+    private BufferedWriter writer;
+    private boolean headerWritten;
+
+    public MetricsLog(Path file, MetricsRegistry registry) throws IOException {
+        this.file = file;
+        this.registry = registry;
+        this.csv = file.getFileName().toString().toLowerCase().endsWith(".csv");
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    // Writes the registry's last sample
+    public void write() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            if (csv && !headerWritten) {
+                writer.write(registry.csvHeader());
+                writer.newLine();
+                headerWritten = true;
+            }
+            writer.write(csv ? registry.toCsv() : registry.toJson());
+            writer.newLine();
+            // flushed every write so a crash or a stutter is still in the file
+            writer.flush();
+        } catch (IOException e) {
+            System.err.println("Metrics log " + file + " disabled: " + e.getMessage());
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close metrics log " + file + ": " + e.getMessage());
+        }
+        writer = null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.minecraft.profiling;
+
+import jdk.jfr.EventType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+// Named gauges and histograms from the different subsystems, read together by
+// sample() so one row of a MetricsLog (or one batch of JFR MetricEvents) shows
+// the whole engine at the same moment. Gauges are read on the thread calling
+// sample(); suppliers that read another thread's state must use atomics or
+// volatiles. Histograms hold nanoseconds and are reported in milliseconds.
+public class MetricsRegistry {
+    private static final EventType METRIC_EVENT = EventType.getEventType(MetricEvent.class);
+
+    private final List<String> gaugeNames = new ArrayList<>();
+    private final List<LongSupplier> gauges = new ArrayList<>();
+    private final List<String> histogramNames = new ArrayList<>();
+    private final List<RollingHistogram> histograms = new ArrayList<>();
+    private long[] values = new long[0];
+    private long sampleMillis;
+
+    public void gauge(String name, LongSupplier value) {
+        gaugeNames.add(name);
+        gauges.add(value);
+    }
+
+    public void histogram(String name, RollingHistogram histogram) {
+        histogramNames.add(name);
+        histograms.add(histogram);
+    }
+
+    // Reads every gauge, and commits one MetricEvent per gauge while JFR is recording
+    public void sample() {
+        if (values.length != gauges.size()) {
+            values = new long[gauges.size()];
+        }
+        sampleMillis = System.currentTimeMillis();
+        boolean jfr = METRIC_EVENT.isEnabled();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = gauges.get(i).getAsLong();
+            if (jfr) {
+                MetricEvent event = new MetricEvent();
+                event.name = gaugeNames.get(i);
+                event.value = values[i];
+                event.commit();
+            }
+        }
+    }
+
+    public long getSampleMillis() {
+        return sampleMillis;
+    }
+
+    // Gauge value as of the last sample(), or -1 if there is no such gauge
+    public long get(String name) {
+        int index = gaugeNames.indexOf(name);
+        return index < 0 || index >= values.length ? -1 : values[index];
+    }
+
+    public String csvHeader() {
+        StringBuilder header = new StringBuilder("timeMillis");
+        for (String name : gaugeNames) {
+            header.append(',').append(name);
+        }
+        for (String name : histogramNames) {
+            header.append(',').append(name).append(".p50Ms")
+                    .append(',').append(name).append(".p99Ms")
+                    .append(',').append(name).append(".maxMs");
+        }
+        return header.toString();
+    }
+
+    // The last sample as a CSV row matching csvHeader()
+    public String toCsv() {
+        StringBuilder row = new StringBuilder(Long.toString(sampleMillis));
+        for (long value : values) {
+            row.append(',').append(value);
+        }
+        for (RollingHistogram histogram : histograms) {
+            row.append(',').append(millis(histogram.percentile(50)))
+                    .append(',').append(millis(histogram.percentile(99)))
+                    .append(',').append(millis(histogram.max()));
+        }
+        return row.toString();
+    }
+
+    // The last sample as a single-line JSON object with the same keys as the CSV columns
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"timeMillis\":").append(sampleMillis);
+        for (int i = 0; i < values.length; i++) {
+            json.append(",\"").append(gaugeNames.get(i)).append("\":").append(values[i]);
+        }
+        for (int i = 0; i < histograms.size(); i++) {
+            RollingHistogram histogram = histograms.get(i);
+            String name = histogramNames.get(i);
+            json.append(",\"").append(name).append(".p50Ms\":").append(millis(histogram.percentile(50)))
+                    .append(",\"").append(name).append(".p99Ms\":").append(millis(histogram.percentile(99)))
+                    .append(",\"").append(name).append(".maxMs\":").append(millis(histogram.max()));
+        }
+        return json.append('}').toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
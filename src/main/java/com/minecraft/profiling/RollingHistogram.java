@@ -0,0 +1,65 @@
+package com.minecraft.profiling;
+
+import java.util.Arrays;
+
+// The last N samples in a ring, for percentiles over a recent window rather
+// than the whole run. record() is allocation-free; the percentiles sort a
+// scratch copy, so read them a few times a second rather than every frame.
+// Single-threaded.
+public class RollingHistogram {
+    private final long[] samples;
+    private final long[] sorted;
+    private int next;
+    private int count;
+    private boolean sortedValid;
+
+    public RollingHistogram(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
+        }
+        samples = new long[window];
+        sorted = new long[window];
+    }
+
+    public void record(long value) {
+        samples[next] = value;
+        next = next + 1 == samples.length ? 0 : next + 1;
+        if (count < samples.length) {
+            count++;
+        }
+        sortedValid = false;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    // Nearest-rank percentile of the window, 0 if it is empty
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        if (!sortedValid) {
+            System.arraycopy(samples, 0, sorted, 0, count);
+            Arrays.sort(sorted, 0, count);
+            sortedValid = true;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return sorted[Math.max(0, Math.min(count - 1, rank - 1))];
+    }
+
+    public long max() {
+        return percentile(100);
+    }
+
+    public double mean() {
+        if (count == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += samples[i];
+        }
+        return (double) sum / count;
+    }
+}
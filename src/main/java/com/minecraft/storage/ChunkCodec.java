@@ -0,0 +1,122 @@
+package com.minecraft.storage;
+
+import com.minecraft.core.Block;
+import com.minecraft.core.Chunk;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Serialized chunk layout:
+//   byte   format version
+//   short  top, one past the highest non-air y (0 for an empty chunk)
+//   short  palette size, then that many block ids (unsigned bytes)
+//   per column (x fastest, then z): runs of [palette index][varint length]
+//   covering y = 0 .. top - 1
+// Terrain columns are a handful of long runs (stone, dirt, grass, air), so a
+// generated chunk is usually two to three kilobytes.
+public class ChunkCodec {
+    public static final int VERSION = 1;
+
+    private ChunkCodec() {
+    }
+
+    // Upper bound on the encoded size of any chunk
+    public static int maxEncodedSize() {
+        int columns = Chunk.CHUNK_WIDTH * Chunk.CHUNK_DEPTH;
+        return 1 + 2 + 2 + (Block.MAX_ID + 1) + columns * Chunk.CHUNK_HEIGHT * 3;
+    }
+
+    public static void encode(Chunk chunk, ByteBuffer out) {
+        int top = chunk.getMaxY() + 1;
+        int[] paletteIndex = new int[Block.MAX_ID + 1];
+        Arrays.fill(paletteIndex, -1);
+        int[] palette = new int[Block.MAX_ID + 1];
+        int paletteSize = 0;
+        for (int z = 0; z < Chunk.CHUNK_DEPTH; z++) {
+            for (int x = 0; x < Chunk.CHUNK_WIDTH; x++) {
+                for (int y = 0; y < top; y++) {
+                    int id = chunk.getBlockId(x, y, z);
+                    if (paletteIndex[id] < 0) {
+                        paletteIndex[id] = paletteSize;
+                        palette[paletteSize++] = id;
+                    }
+                }
+            }
+        }
+
+        out.put((byte) VERSION);
+        out.putShort((short) top);
+        out.putShort((short) paletteSize);
+        for (int i = 0; i < paletteSize; i++) {
+            out.put((byte) palette[i]);
+        }
+        for (int z = 0; z < Chunk.CHUNK_DEPTH; z++) {
+            for (int x = 0; x < Chunk.CHUNK_WIDTH; x++) {
+                int y = 0;
+                while (y < top) {
+                    int id = chunk.getBlockId(x, y, z);
+                    int start = y;
+                    while (y < top && chunk.getBlockId(x, y, z) == id) {
+                        y++;
+                    }
+                    out.put((byte) paletteIndex[id]);
+                    putVarInt(out, y - start);
+                }
+            }
+        }
+    }
+
+    // Returns null if the data is not in a format this version understands
+    public static Chunk decode(ByteBuffer in) {
+        if (in.get() != VERSION) {
+            return null;
+        }
+        int top = in.getShort();
+        int paletteSize = in.getShort();
+        int[] palette = new int[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            palette[i] = in.get() & 0xFF;
+        }
+
+        Chunk chunk = new Chunk();
+        for (int z = 0; z < Chunk.CHUNK_DEPTH; z++) {
+            for (int x = 0; x < Chunk.CHUNK_WIDTH; x++) {
+                int y = 0;
+                while (y < top) {
+                    int id = palette[in.get() & 0xFF];
+                    int end = y + getVarInt(in);
+                    if (id == Block.AIR) {
+                        y = end;
+                        continue;
+                    }
+                    for (; y < end; y++) {
+                        chunk.setBlockId(x, y, z, id);
+                    }
+                }
+            }
+        }
+        chunk.compact();
+        chunk.markSaved();
+        return chunk;
+    }
+
+    private static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarInt(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,162 @@
+package com.minecraft.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+
+// One file holding up to REGION_SIZE x REGION_SIZE chunks, read and written
+// through a memory mapping of the whole file.
+//
+// The first HEADER_SECTORS hold the header: per chunk slot, the first sector
+// of its data and the data length in bytes (0 = not stored). Chunk data is
+// stored as [crc32 of payload][payload] in whole sectors, placed in the first
+// free run large enough or at the end of the data. A rewritten chunk's old
+// sectors are only freed once the new copy and header are in place.
+//
+// The mapping runs ahead of the data: it doubles, by at most 1 MB at a time,
+// so appending chunks does not remap on every write. close() trims the file
+// back to the end of the data.
+public class RegionFile {
+    public static final int REGION_SIZE = 32;
+    public static final int REGION_SHIFT = 5;
+    private static final int SLOTS = REGION_SIZE * REGION_SIZE;
+    private static final int SECTOR_BYTES = 4096;
+    private static final int HEADER_SECTORS = (SLOTS * 8 + SECTOR_BYTES - 1) / SECTOR_BYTES;
+    private static final int MAX_GROW_SECTORS = (1 << 20) / SECTOR_BYTES;
+
+    private final FileChannel channel;
+    private MappedByteBuffer map;
+    private final BitSet usedSectors = new BitSet();
+    // end of the stored data, where new data is appended
+    private int sectorCount;
+    // sectors covered by the mapping, and so by the file
+    private int mappedSectors;
+
+    public RegionFile(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        mappedSectors = (int) Math.max(HEADER_SECTORS, (size + SECTOR_BYTES - 1) / SECTOR_BYTES);
+        remap();
+        usedSectors.set(0, HEADER_SECTORS);
+        for (int slot = 0; slot < SLOTS; slot++) {
+            int first = map.getInt(slot * 8);
+            int length = map.getInt(slot * 8 + 4);
+            if (length > 0) {
+                if (first < HEADER_SECTORS || (long) first + sectorsFor(length) > mappedSectors) {
+                    // points outside the file, e.g. after a crash mid-write; treat as missing
+                    map.putLong(slot * 8, 0);
+                    continue;
+                }
+                usedSectors.set(first, first + sectorsFor(length));
+            }
+        }
+        sectorCount = usedSectors.length();
+    }
+
+    private static int slot(int localX, int localZ) {
+        return localX + localZ * REGION_SIZE;
+    }
+
+    private static int sectorsFor(int length) {
+        return (length + 4 + SECTOR_BYTES - 1) / SECTOR_BYTES;
+    }
+
+    private void remap() throws IOException {
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) mappedSectors * SECTOR_BYTES);
+    }
+
+    public synchronized boolean contains(int localX, int localZ) {
+        return map.getInt(slot(localX, localZ) * 8 + 4) > 0;
+    }
+
+    // Returns a copy of the stored payload, or null if the chunk is missing or
+    // fails its checksum
+    public synchronized byte[] read(int localX, int localZ) {
+        int slot = slot(localX, localZ);
+        int first = map.getInt(slot * 8);
+        int length = map.getInt(slot * 8 + 4);
+        if (length <= 0) {
+            return null;
+        }
+        int offset = first * SECTOR_BYTES;
+        int checksum = map.getInt(offset);
+        byte[] payload = new byte[length];
+        map.get(offset + 4, payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        return payload;
+    }
+
+    // Writes payload.remaining() bytes from its position
+    public synchronized void write(int localX, int localZ, ByteBuffer payload) throws IOException {
+        int slot = slot(localX, localZ);
+        int length = payload.remaining();
+        int needed = sectorsFor(length);
+        int oldFirst = map.getInt(slot * 8);
+        int oldLength = map.getInt(slot * 8 + 4);
+
+        int first = findFreeRun(needed);
+        int end = first + needed;
+        if (end > mappedSectors) {
+            mappedSectors = Math.max(end, mappedSectors + Math.min(mappedSectors, MAX_GROW_SECTORS));
+            remap();
+        }
+        sectorCount = Math.max(sectorCount, end);
+        usedSectors.set(first, first + needed);
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        int offset = first * SECTOR_BYTES;
+        map.putInt(offset, (int) crc.getValue());
+        map.put(offset + 4, payload, payload.position(), length);
+        // header last, so a torn write leaves the previous copy or nothing
+        map.putInt(slot * 8, first);
+        map.putInt(slot * 8 + 4, length);
+        if (oldLength > 0) {
+            usedSectors.clear(oldFirst, oldFirst + sectorsFor(oldLength));
+        }
+    }
+
+    private int findFreeRun(int needed) {
+        int start = usedSectors.nextClearBit(HEADER_SECTORS);
+        while (start < sectorCount) {
+            int end = usedSectors.nextSetBit(start);
+            if (end < 0 || end - start >= needed) {
+                return start;
+            }
+            start = usedSectors.nextClearBit(end);
+        }
+        return start;
+    }
+
+    public synchronized void close() throws IOException {
+        map.force();
+        // drop the mapping's unused tail; some platforms refuse to shrink a mapped
+        // file, and then the tail stays as free sectors for the next open
+        try {
+            channel.truncate((long) usedSectors.length() * SECTOR_BYTES);
+        } catch (IOException e) {
+            // keep the longer file
+        }
+        channel.close();
+    }
+
+    // Sectors up to the end of the stored data, header included
+    public synchronized int getSectorCount() {
+        return sectorCount;
+    }
+
+    // Sectors the file is mapped for; at least getSectorCount()
+    public synchronized int getMappedSectors() {
+        return mappedSectors;
+    }
+}
@@ -0,0 +1,189 @@
+package com.minecraft.storage;
+
+import com.minecraft.core.Chunk;
+import com.minecraft.core.ChunkMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Chunk persistence in region files under one directory. Loads run on the
+// caller's thread; saves are queued to the writer threads, one unless
+// configured. A chunk that is queued but not yet written is served from the
+// queue, so unloading and quickly reloading a chunk never reads a stale copy.
+public class RegionStore {
+    private final Path directory;
+    private final ChunkMap<RegionFile> regions = new ChunkMap<>();
+    private final ChunkMap<Chunk> pendingWrites = new ChunkMap<>();
+    private final ExecutorService writer;
+    private final int writerThreads;
+    // with several writers, saves of one chunk are ordered by its stripe's lock
+    private final ReentrantLock[] saveLocks = new ReentrantLock[64];
+    private final ThreadLocal<ByteBuffer> encodeBuffer =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(ChunkCodec.maxEncodedSize()));
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+
+    public RegionStore(Path directory) throws IOException {
+        this(directory, 1, r -> {
+            Thread thread = new Thread(r, "region-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Encodes and writes saved chunks on writerThreads threads from threadFactory
+    public RegionStore(Path directory, int writerThreads, ThreadFactory threadFactory) throws IOException {
+        this.directory = directory;
+        this.writerThreads = writerThreads;
+        this.writer = Executors.newFixedThreadPool(writerThreads, threadFactory);
+        for (int i = 0; i < saveLocks.length; i++) {
+            saveLocks[i] = new ReentrantLock();
+        }
+        Files.createDirectories(directory);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private RegionFile region(int chunkX, int chunkZ) throws IOException {
+        int regionX = chunkX >> RegionFile.REGION_SHIFT;
+        int regionZ = chunkZ >> RegionFile.REGION_SHIFT;
+        RegionFile region = regions.get(regionX, regionZ);
+        if (region != null) {
+            return region;
+        }
+        synchronized (regions) {
+            region = regions.get(regionX, regionZ);
+            if (region == null) {
+                region = new RegionFile(directory.resolve("r." + regionX + "." + regionZ + ".region"));
+                regions.put(regionX, regionZ, region);
+            }
+            return region;
+        }
+    }
+
+    // Returns the stored chunk, or null if it has never been saved or its data is unreadable
+    public Chunk load(int chunkX, int chunkZ) throws IOException {
+        Chunk pending = pendingWrites.get(chunkX, chunkZ);
+        if (pending != null) {
+            // a fresh copy, the queued instance still carries the old render state
+            ByteBuffer buffer = ByteBuffer.allocate(ChunkCodec.maxEncodedSize());
+            ChunkCodec.encode(pending, buffer);
+            buffer.flip();
+            return ChunkCodec.decode(buffer);
+        }
+        byte[] payload = region(chunkX, chunkZ).read(chunkX & (RegionFile.REGION_SIZE - 1), chunkZ & (RegionFile.REGION_SIZE - 1));
+        if (payload == null) {
+            return null;
+        }
+        return ChunkCodec.decode(ByteBuffer.wrap(payload));
+    }
+
+    // Queues the chunk for writing. The chunk must not be modified afterwards.
+    public void saveAsync(int chunkX, int chunkZ, Chunk chunk) {
+        pendingWrites.put(chunkX, chunkZ, chunk);
+        writer.submit(() -> {
+            ReentrantLock lock = saveLocks[(int) (ChunkMap.key(chunkX, chunkZ) * 0x9E3779B97F4A7C15L >>> 58)];
+            lock.lock();
+            try {
+                // a newer copy queued meanwhile, possibly already written by another writer
+                if (pendingWrites.get(chunkX, chunkZ) != chunk) {
+                    return;
+                }
+                long start = System.nanoTime();
+                save(chunkX, chunkZ, chunk);
+                writeNanos.addAndGet(System.nanoTime() - start);
+                writes.incrementAndGet();
+            } catch (IOException e) {
+                System.err.println("Failed to save chunk " + chunkX + ", " + chunkZ + ": " + e.getMessage());
+            } finally {
+                synchronized (pendingWrites) {
+                    if (pendingWrites.get(chunkX, chunkZ) == chunk) {
+                        pendingWrites.remove(chunkX, chunkZ);
+                    }
+                }
+                lock.unlock();
+            }
+        });
+    }
+
+    private void save(int chunkX, int chunkZ, Chunk chunk) throws IOException {
+        ByteBuffer buffer = encodeBuffer.get();
+        buffer.clear();
+        ChunkCodec.encode(chunk, buffer);
+        buffer.flip();
+        write(chunkX, chunkZ, buffer);
+        chunk.markSaved();
+    }
+
+    // Saves queued and not yet written
+    public int getPendingWrites() {
+        return pendingWrites.size();
+    }
+
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
+    public long getWrites() {
+        return writes.get();
+    }
+
+    // Time spent encoding and writing, summed over writers
+    public long getWriteNanos() {
+        return writeNanos.get();
+    }
+
+    // Writes a chunk already encoded with ChunkCodec on the caller's thread,
+    // bypassing the writer queue. Writes to one region are serialized.
+    public void write(int chunkX, int chunkZ, ByteBuffer encoded) throws IOException {
+        region(chunkX, chunkZ).write(chunkX & (RegionFile.REGION_SIZE - 1), chunkZ & (RegionFile.REGION_SIZE - 1), encoded);
+    }
+
+    // Whether the chunk has been saved, without reading or checking its data
+    public boolean contains(int chunkX, int chunkZ) throws IOException {
+        if (pendingWrites.get(chunkX, chunkZ) != null) {
+            return true;
+        }
+        return region(chunkX, chunkZ).contains(chunkX & (RegionFile.REGION_SIZE - 1), chunkZ & (RegionFile.REGION_SIZE - 1));
+    }
+
+    // Closes one region file, which is reopened if used again. Nothing may be
+    // reading or writing the region at the same time.
+    public void closeRegion(int regionX, int regionZ) throws IOException {
+        RegionFile region;
+        synchronized (regions) {
+            region = regions.remove(regionX, regionZ);
+        }
+        if (region != null) {
+            region.close();
+        }
+    }
+
+    // Finishes queued writes and closes every region file
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        regions.forEach((regionX, regionZ, region) -> {
+            try {
+                region.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close region " + regionX + ", " + regionZ + ": " + e.getMessage());
+            }
+        });
+        regions.clear();
+    }
+}
@@ -0,0 +1,44 @@
+package com.minecraft.storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// The seed of the saved world. Seed 0 in the settings asks for a random world;
+// the seed picked for it is written to <worldDirectory>/level and used again on
+// later launches, so the chunks saved under <worldDirectory>/<seed> are found.
+// Delete the level file for a new random world.
+public final class WorldSeed {
+    public static final String LEVEL_FILE = "level";
+
+    private WorldSeed() {
+    }
+
+    // A configured seed other than 0 is used as is and not remembered
+    public static long resolve(Path worldDirectory, long configuredSeed) throws IOException {
+        if (configuredSeed != 0) {
+            return configuredSeed;
+        }
+        Path level = worldDirectory.resolve(LEVEL_FILE);
+        if (Files.exists(level)) {
+            String text = Files.readString(level, StandardCharsets.UTF_8).trim();
+            try {
+                long seed = Long.parseLong(text);
+                if (seed != 0) {
+                    return seed;
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException("Unreadable seed in " + level + ": " + text);
+            }
+        }
+        long seed = System.currentTimeMillis();
+        Files.createDirectories(worldDirectory);
+        // written aside and moved into place, so a crash never leaves a truncated file
+        Path temp = worldDirectory.resolve(LEVEL_FILE + ".tmp");
+        Files.writeString(temp, seed + "\n", StandardCharsets.UTF_8);
+        Files.move(temp, level, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return seed;
+    }
+}
@@ -1,11 +1,11 @@
 #version 330 core
 
-in vec2 fragTexCoord;
+in vec3 fragTexCoord;
 
 out vec4 color;
 
-uniform sampler2D texture_sampler;
+uniform sampler2DArray texture_sampler;
 
 void main() {
     color = texture(texture_sampler, fragTexCoord);
-}
\ No newline at end of file
+}
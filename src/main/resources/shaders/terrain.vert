@@ -1,15 +1,31 @@
 #version 330 core
 
-layout (location = 0) in vec3 position;
-layout (location = 1) in vec2 texCoord;
+// PackedVertex: x, y, z, u, v in the first word; texture layer, face and scale shift in the second
+layout (location = 0) in uvec2 packedVertex;
+// world x and z of the chunk's corner, one per draw command (MeshArena)
+layout (location = 1) in vec2 chunkOrigin;
 
-out vec2 fragTexCoord;
+out vec3 fragTexCoord;
 
 uniform mat4 modelMatrix;
 uniform mat4 viewMatrix;
 uniform mat4 projectionMatrix;
 
 void main() {
-    fragTexCoord = texCoord;
-    gl_Position = projectionMatrix * viewMatrix * modelMatrix * vec4(position, 1.0);
-}
\ No newline at end of file
+    uint first = packedVertex.x;
+    vec3 position = vec3(float(first & 31u), float((first >> 5) & 511u), float((first >> 14) & 31u));
+    vec2 uv = vec2(float((first >> 19) & 31u), float((first >> 24) & 31u));
+    float layer = float(packedVertex.y & 255u);
+    uint face = (packedVertex.y >> 8) & 7u;
+    uint scaleShift = (packedVertex.y >> 11) & 3u;
+    if (scaleShift != 0u) {
+        // LOD cell: x, z and horizontal texture coordinates count cells of 2^k blocks
+        float scale = float(1u << scaleShift);
+        position.xz *= scale;
+        uv.x *= scale;
+        // side faces take v from the height, so walls of any height need no v
+        uv.y = face < 2u ? uv.y * scale : -position.y;
+    }
+    fragTexCoord = vec3(uv, layer);
+    gl_Position = projectionMatrix * viewMatrix * modelMatrix * vec4(position + vec3(chunkOrigin.x, 0.0, chunkOrigin.y), 1.0);
+}
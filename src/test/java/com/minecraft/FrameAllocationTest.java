@@ -0,0 +1,132 @@
+package com.minecraft;
+
+import com.minecraft.Generation.SectionOcclusionCuller;
+import com.minecraft.Generation.Terrain;
+import com.minecraft.core.Chunk;
+import com.minecraft.core.ChunkMap;
+import com.minecraft.graphics.ArenaAllocator;
+import com.minecraft.graphics.ArenaMesh;
+import com.minecraft.graphics.DrawCommandBuffer;
+import com.minecraft.graphics.RenderBackend;
+import com.minecraft.profiling.FrameProfiler;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the game loop's frame against a backend without GL and checks that a
+// frame over loaded terrain allocates nothing on the render thread.
+class FrameAllocationTest {
+    private static final int RENDER_DISTANCE = 4;
+    private static final int WARMUP_FRAMES = 2_000;
+    private static final int FRAMES = 500;
+    // JIT recompilation can briefly materialize objects that escape analysis had
+    // removed, so the best of a few runs of FRAMES is checked; a frame that
+    // really allocates shows up in every run
+    private static final int RUNS = 5;
+    private static final long LOAD_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static class NoOpBackend implements RenderBackend {
+        int commands;
+
+        @Override
+        public void compact() {
+        }
+
+        @Override
+        public void beginFrame(Matrix4f projection, Matrix4f view) {
+        }
+
+        @Override
+        public void draw(DrawCommandBuffer commands) {
+            this.commands = commands.getCommandCount();
+        }
+
+        @Override
+        public void endFrame() {
+        }
+    }
+
+    @Test
+    void warmFrameWithOcclusionCullingAllocatesNothing() throws InterruptedException {
+        assertWarmFramesAllocateNothing(new SectionOcclusionCuller(RENDER_DISTANCE));
+    }
+
+    @Test
+    void warmFrameWithFrustumCullingAllocatesNothing() throws InterruptedException {
+        assertWarmFramesAllocateNothing(null);
+    }
+
+    private void assertWarmFramesAllocateNothing(SectionOcclusionCuller occlusionCuller) throws InterruptedException {
+        Terrain terrain = new Terrain(42, RENDER_DISTANCE);
+        try {
+            load(terrain);
+            attachMeshes(terrain.generateMeshes());
+
+            NoOpBackend backend = new NoOpBackend();
+            FrameRenderer frameRenderer = new FrameRenderer(terrain, backend, new FrameProfiler(), occlusionCuller);
+            float x = 8.5f;
+            float y = terrain.getHeight(8, 8) + 2;
+            float z = 8.5f;
+            Matrix4f projection = new Matrix4f().perspective((float) Math.toRadians(70.0f), 16 / 9.0f, 0.1f, 1000.0f);
+            Matrix4f view = new Matrix4f().rotateX((float) Math.toRadians(20.0f)).translate(-x, -y, -z);
+
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                frameRenderer.render(x, y, z, projection, view);
+            }
+            assertTrue(backend.commands > 0, "warm frames should draw the loaded terrain");
+
+            long allocated = Long.MAX_VALUE;
+            for (int run = 0; run < RUNS && allocated > 0; run++) {
+                long before = threads.getCurrentThreadAllocatedBytes();
+                for (int i = 0; i < FRAMES; i++) {
+                    frameRenderer.render(x, y, z, projection, view);
+                }
+                allocated = Math.min(allocated, threads.getCurrentThreadAllocatedBytes() - before);
+            }
+            assertEquals(0, allocated, "bytes allocated by " + FRAMES + " warm frames");
+        } finally {
+            terrain.cleanup();
+        }
+    }
+
+    // Streams in the terrain around the origin, releasing the mesh data the way a headless run does
+    private static void load(Terrain terrain) throws InterruptedException {
+        long start = System.nanoTime();
+        int idleChecks = 0;
+        while (idleChecks < 3) {
+            assertTrue(System.nanoTime() - start < LOAD_TIMEOUT_NANOS, "terrain did not finish loading");
+            terrain.update(0, 0);
+            terrain.discardMeshes();
+            idleChecks = terrain.isIdle() ? idleChecks + 1 : 0;
+            Thread.sleep(5);
+        }
+    }
+
+    // Gives every meshed chunk an arena mesh with its real section layout, so
+    // the frame builds the same draw commands as with a GL arena
+    private static void attachMeshes(ChunkMap<Chunk> chunks) {
+        ArenaAllocator allocator = new ArenaAllocator(1 << 24);
+        chunks.forEach((chunkX, chunkZ, chunk) -> {
+            if (!chunk.hasSectionQuads()) {
+                return;
+            }
+            int[] sectionStarts = new int[Chunk.SECTION_COUNT + 1];
+            for (int sectionY = 0; sectionY < Chunk.SECTION_COUNT; sectionY++) {
+                long[] quads = chunk.getSectionQuads(sectionY);
+                sectionStarts[sectionY + 1] = sectionStarts[sectionY] + (quads == null ? 0 : quads.length);
+            }
+            int quadCount = sectionStarts[Chunk.SECTION_COUNT];
+            if (quadCount > 0) {
+                chunk.setMesh(new ArenaMesh(allocator.allocate(quadCount), quadCount, sectionStarts));
+            }
+        });
+    }
+}
@@ -0,0 +1,97 @@
+package com.minecraft.Generation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackpressureTest {
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private static Thread startWaiter(Backpressure limit) {
+        Thread thread = new Thread(limit::awaitRoom, "waiter");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitWaiting(Backpressure limit, int waiting) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        while (limit.getWaiting() != waiting) {
+            assertTrue(System.nanoTime() < deadline, "expected " + waiting + " waiting, have " + limit.getWaiting());
+            Thread.sleep(1);
+        }
+    }
+
+    private static void assertReleased(Thread thread) throws InterruptedException {
+        thread.join(TIMEOUT_MILLIS);
+        assertFalse(thread.isAlive(), "waiter was not released");
+    }
+
+    @Test
+    void belowTheLimitDoesNotWait() {
+        Backpressure limit = new Backpressure(() -> 1, 2);
+        limit.awaitRoom();
+        assertEquals(0, limit.getStalls());
+        assertEquals(0, limit.getWaiting());
+    }
+
+    @Test
+    void atTheLimitWaitsUntilSignalled() throws InterruptedException {
+        AtomicInteger backlog = new AtomicInteger(2);
+        Backpressure limit = new Backpressure(backlog::get, 2);
+        Thread waiter = startWaiter(limit);
+        awaitWaiting(limit, 1);
+        // several recheck periods pass without the backlog shrinking
+        Thread.sleep(50);
+        assertTrue(waiter.isAlive());
+
+        backlog.set(1);
+        limit.signal();
+        assertReleased(waiter);
+        assertEquals(1, limit.getStalls());
+        assertEquals(0, limit.getWaiting());
+        assertTrue(limit.getStalledNanos() > 0);
+    }
+
+    @Test
+    void recheckNoticesABacklogShrinkingWithoutSignal() throws InterruptedException {
+        AtomicInteger backlog = new AtomicInteger(5);
+        Backpressure limit = new Backpressure(backlog::get, 3);
+        Thread waiter = startWaiter(limit);
+        awaitWaiting(limit, 1);
+        backlog.set(2);
+        assertReleased(waiter);
+    }
+
+    @Test
+    void raisingTheLimitReleasesWaiters() throws InterruptedException {
+        Backpressure limit = new Backpressure(() -> 4, 4);
+        Thread waiter = startWaiter(limit);
+        awaitWaiting(limit, 1);
+        limit.setLimit(5);
+        assertReleased(waiter);
+    }
+
+    @Test
+    void closeLetsEveryWaiterThrough() throws InterruptedException {
+        Backpressure limit = new Backpressure(() -> 10, 1);
+        Thread[] waiters = new Thread[4];
+        for (int i = 0; i < waiters.length; i++) {
+            waiters[i] = startWaiter(limit);
+        }
+        awaitWaiting(limit, waiters.length);
+        limit.close();
+        for (Thread waiter : waiters) {
+            assertReleased(waiter);
+        }
+        // and later callers do not wait at all
+        long stalls = limit.getStalls();
+        limit.awaitRoom();
+        assertEquals(stalls, limit.getStalls());
+    }
+}
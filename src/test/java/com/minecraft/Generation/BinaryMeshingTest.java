@@ -0,0 +1,131 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.Block;
+import com.minecraft.core.Chunk;
+import com.minecraft.graphics.MeshBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The binary mesher must produce exactly the quads of the culled per-face
+// mesher. Quads are compared as sorted sets of their four packed vertices, so
+// only the emission order may differ.
+class BinaryMeshingTest {
+    private static final long[] SEEDS = {42, 1337};
+    private static final int STONE = 4;
+
+    @Test
+    void generatedChunksMatch() {
+        for (long seed : SEEDS) {
+            Terrain terrain = generate(seed, 1);
+            try {
+                // the centre has all its neighbours, the corner is missing five of them
+                assertSameQuads(terrain, 0, 0, "seed " + seed + " centre");
+                assertSameQuads(terrain, -1, -1, "seed " + seed + " corner");
+                assertSameQuads(terrain, 1, 0, "seed " + seed + " edge");
+            } finally {
+                terrain.cleanup();
+            }
+        }
+    }
+
+    @Test
+    void chunkWithoutNeighboursMatches() {
+        for (long seed : SEEDS) {
+            Terrain terrain = generate(seed, 0);
+            try {
+                assertSameQuads(terrain, 0, 0, "seed " + seed + " alone");
+                editWorldLimits(terrain.getChunk(0, 0));
+                assertSameQuads(terrain, 0, 0, "seed " + seed + " alone, edited");
+            } finally {
+                terrain.cleanup();
+            }
+        }
+    }
+
+    @Test
+    void bottomAndTopOfTheWorldMatch() {
+        for (long seed : SEEDS) {
+            Terrain terrain = generate(seed, 1);
+            try {
+                editWorldLimits(terrain.getChunk(0, 0));
+                assertSameQuads(terrain, 0, 0, "seed " + seed);
+            } finally {
+                terrain.cleanup();
+            }
+        }
+    }
+
+    @Test
+    void chunkBorderEditsMatch() {
+        for (long seed : SEEDS) {
+            Terrain terrain = generate(seed, 1);
+            try {
+                Chunk centre = terrain.getChunk(0, 0);
+                Chunk east = terrain.getChunk(1, 0);
+                Chunk north = terrain.getChunk(0, -1);
+                int y = terrain.getHeight(0, 5);
+                // a tunnel through the east border, open on both sides
+                for (int x = 13; x < Chunk.CHUNK_WIDTH; x++) {
+                    centre.setBlockId(x, y - 1, 5, Block.AIR);
+                }
+                for (int x = 0; x < 3; x++) {
+                    east.setBlockId(x, y - 1, 5, Block.AIR);
+                }
+                // a pillar on the west border and a single hole on the north one
+                for (int dy = 1; dy <= 4; dy++) {
+                    centre.setBlockId(0, terrain.getHeight(0, 9) + dy, 9, STONE);
+                }
+                centre.setBlockId(7, terrain.getHeight(7, 0) - 2, 0, Block.AIR);
+                north.setBlockId(7, terrain.getHeight(7, -1) - 2, 15, Block.AIR);
+                // the outer corner column
+                centre.setBlockId(15, terrain.getHeight(15, 15) + 1, 15, STONE);
+                assertSameQuads(terrain, 0, 0, "seed " + seed + " centre");
+                assertSameQuads(terrain, 1, 0, "seed " + seed + " east");
+                assertSameQuads(terrain, 0, -1, "seed " + seed + " north");
+            } finally {
+                terrain.cleanup();
+            }
+        }
+    }
+
+    // Blocks in the lowest and highest layers, at the world's edges in y
+    private static void editWorldLimits(Chunk chunk) {
+        chunk.setBlockId(7, 0, 7, Block.AIR);
+        chunk.setBlockId(0, 0, 0, Block.AIR);
+        chunk.setBlockId(15, 0, 15, Block.AIR);
+        chunk.setBlockId(8, 255, 8, STONE);
+        chunk.setBlockId(0, 255, 15, STONE);
+        chunk.setBlockId(0, 254, 15, STONE);
+        chunk.setBlockId(15, 255, 0, STONE);
+    }
+
+    // Generates the chunks within radius of 0, 0 without the worker pool
+    private static Terrain generate(long seed, int radius) {
+        Terrain terrain = new Terrain(seed, 1);
+        terrain.setEnableCulling(1);
+        for (int x = -radius; x <= radius; x++) {
+            for (int z = -radius; z <= radius; z++) {
+                Chunk chunk = new Chunk();
+                terrain.generateChunk(chunk, x, z);
+                terrain.putChunk(x, z, chunk);
+            }
+        }
+        return terrain;
+    }
+
+    private static void assertSameQuads(Terrain terrain, int chunkX, int chunkZ, String what) {
+        terrain.setBinaryMeshing(0);
+        long[][] perFace = sortedQuads(terrain, chunkX, chunkZ);
+        terrain.setBinaryMeshing(1);
+        long[][] binary = sortedQuads(terrain, chunkX, chunkZ);
+        assertTrue(perFace.length > 0, what + ": no quads");
+        MeshQuads.assertSameQuads(perFace, "per-face", binary, "binary", what);
+    }
+
+    private static long[][] sortedQuads(Terrain terrain, int chunkX, int chunkZ) {
+        MeshBuilder builder = new MeshBuilder();
+        terrain.meshChunk(chunkX, chunkZ, builder);
+        return MeshQuads.sorted(builder);
+    }
+}
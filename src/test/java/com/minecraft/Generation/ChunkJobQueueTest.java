@@ -0,0 +1,132 @@
+package com.minecraft.Generation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the queue's tasks on the test thread, so the order a worker would take
+// jobs in is deterministic.
+class ChunkJobQueueTest {
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private final List<String> ran = new ArrayList<>();
+    private final ChunkJobQueue queue = new ChunkJobQueue(tasks::add,
+            (chunkX, chunkZ, kind) -> ran.add(chunkX + "," + chunkZ + " " + kind));
+
+    private void runAll() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    @Test
+    void nearestJobsRunFirst() {
+        queue.submit(5, 0, ChunkJobQueue.Kind.GENERATE);
+        queue.submit(1, 1, ChunkJobQueue.Kind.GENERATE);
+        queue.submit(0, 0, ChunkJobQueue.Kind.GENERATE);
+        queue.submit(-3, 0, ChunkJobQueue.Kind.GENERATE);
+        queue.submit(0, -2, ChunkJobQueue.Kind.MESH);
+        // at equal distance, terrain before meshes
+        queue.submit(2, 0, ChunkJobQueue.Kind.GENERATE);
+        runAll();
+        assertEquals(List.of("0,0 GENERATE", "1,1 GENERATE", "2,0 GENERATE", "0,-2 MESH", "-3,0 GENERATE",
+                "5,0 GENERATE"), ran);
+        assertEquals(6, queue.getCompleted());
+        assertEquals(1, queue.getCompleted(ChunkJobQueue.Kind.MESH));
+    }
+
+    @Test
+    void movingTheCentreReordersQueuedJobs() {
+        queue.submit(0, 0, ChunkJobQueue.Kind.GENERATE);
+        queue.submit(10, 10, ChunkJobQueue.Kind.GENERATE);
+        queue.submit(8, 8, ChunkJobQueue.Kind.GENERATE);
+        queue.setCenter(10, 9);
+        runAll();
+        assertEquals(List.of("10,10 GENERATE", "8,8 GENERATE", "0,0 GENERATE"), ran);
+    }
+
+    @Test
+    void aChunkIsQueuedOnce() {
+        assertTrue(queue.submit(3, 4, ChunkJobQueue.Kind.GENERATE));
+        assertFalse(queue.submit(3, 4, ChunkJobQueue.Kind.GENERATE));
+        assertFalse(queue.submit(3, 4, ChunkJobQueue.Kind.MESH));
+        assertEquals(1, queue.getQueueDepth());
+        assertEquals(2, queue.getDuplicates());
+        runAll();
+        assertEquals(List.of("3,4 GENERATE"), ran);
+        // once taken, the chunk can be queued again
+        assertTrue(queue.submit(3, 4, ChunkJobQueue.Kind.MESH));
+        runAll();
+        assertEquals(List.of("3,4 GENERATE", "3,4 MESH"), ran);
+    }
+
+    @Test
+    void cancelledJobsAreSkipped() {
+        queue.submit(0, 0, ChunkJobQueue.Kind.GENERATE);
+        queue.submit(1, 0, ChunkJobQueue.Kind.GENERATE);
+        queue.cancel(0, 0);
+        queue.cancel(7, 7);
+        assertEquals(1, queue.getQueueDepth());
+        assertEquals(1, queue.getCancelled());
+        runAll();
+        assertEquals(List.of("1,0 GENERATE"), ran);
+        assertEquals(1, queue.getCompleted());
+    }
+
+    @Test
+    void rejectedSubmitLeavesNothingQueued() {
+        ChunkJobQueue closed = new ChunkJobQueue(task -> {
+            throw new RejectedExecutionException();
+        }, (chunkX, chunkZ, kind) -> { });
+        assertFalse(closed.submit(0, 0, ChunkJobQueue.Kind.GENERATE));
+        assertEquals(0, closed.getQueueDepth());
+    }
+
+    @Test
+    void depthIsTheBacklogOfItsBackpressure() {
+        Backpressure limit = queue.getBackpressure();
+        limit.setLimit(2);
+        queue.submit(0, 0, ChunkJobQueue.Kind.GENERATE);
+        queue.submit(1, 0, ChunkJobQueue.Kind.GENERATE);
+        assertEquals(2, limit.getBacklog());
+        assertEquals(2, queue.getPeakQueueDepth());
+        tasks.poll().run();
+        assertEquals(1, limit.getBacklog());
+        queue.cancel(1, 0);
+        assertEquals(0, limit.getBacklog());
+    }
+
+    @Test
+    void workersWaitForRoomDownstream() throws InterruptedException {
+        AtomicInteger downstreamBacklog = new AtomicInteger(1);
+        Backpressure downstream = new Backpressure(downstreamBacklog::get, 1);
+        queue.setDownstream(downstream);
+        queue.submit(0, 0, ChunkJobQueue.Kind.GENERATE);
+        Thread worker = new Thread(tasks.poll(), "worker");
+        worker.setDaemon(true);
+        worker.start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (downstream.getWaiting() == 0) {
+            assertTrue(System.nanoTime() < deadline, "worker did not wait");
+            Thread.sleep(1);
+        }
+        // still queued: the worker waits before taking a job
+        assertEquals(1, queue.getQueueDepth());
+
+        downstreamBacklog.set(0);
+        downstream.signal();
+        worker.join(5_000);
+        assertFalse(worker.isAlive());
+        assertEquals(1, queue.getCompleted());
+        assertEquals(1, queue.getStalls());
+    }
+}
@@ -0,0 +1,118 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.Chunk;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HeightmapCacheTest {
+    private static final long SEED = 42;
+
+    private final HeightmapGenerator generator = new HeightmapGenerator(SEED);
+
+    private static HeightmapCache cacheOf(HeightmapGenerator generator, int entries) {
+        return new HeightmapCache(generator, entries * HeightmapCache.ENTRY_BYTES);
+    }
+
+    // Touches a chunk through the cache
+    private static void touch(HeightmapCache cache, int chunkX, int chunkZ) {
+        cache.height(chunkX * Chunk.CHUNK_WIDTH, chunkZ * Chunk.CHUNK_DEPTH);
+    }
+
+    private static void assertCounts(HeightmapCache cache, long hits, long misses, String what) {
+        assertEquals(hits, cache.getHits(), what + ": hits");
+        assertEquals(misses, cache.getMisses(), what + ": misses");
+    }
+
+    @Test
+    void heightsMatchTheGeneratorOnBothSidesOfZero() {
+        HeightmapCache cache = cacheOf(generator, 64);
+        for (int worldZ = -40; worldZ <= 40; worldZ += 3) {
+            for (int worldX = -40; worldX <= 40; worldX++) {
+                assertEquals(generator.height(worldX, worldZ), cache.height(worldX, worldZ),
+                        "column " + worldX + ", " + worldZ);
+            }
+        }
+        int[] heights = new int[Chunk.CHUNK_WIDTH * Chunk.CHUNK_DEPTH];
+        cache.chunkHeights(-1, -2, heights);
+        for (int z = 0; z < Chunk.CHUNK_DEPTH; z++) {
+            for (int x = 0; x < Chunk.CHUNK_WIDTH; x++) {
+                assertEquals(generator.height(-16 + x, -32 + z), heights[x + z * Chunk.CHUNK_WIDTH]);
+            }
+        }
+        // -1 is the last column of chunk -1, not the first of chunk 0
+        assertEquals(heights[15 + 15 * Chunk.CHUNK_WIDTH], cache.height(-1, -17));
+    }
+
+    @Test
+    void hitsAndMissesAreCountedPerChunk() {
+        HeightmapCache cache = cacheOf(generator, 8);
+        cache.height(0, 0);
+        cache.height(15, 15);
+        cache.height(-1, 0);
+        assertCounts(cache, 1, 2, "two chunks");
+        assertEquals(2, cache.size());
+        assertEquals(2 * HeightmapCache.ENTRY_BYTES, cache.getBytes());
+        assertEquals(1.0 / 3, cache.hitRate(), 1e-9);
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvictedFirst() {
+        HeightmapCache cache = cacheOf(generator, 3);
+        touch(cache, 0, 0);
+        touch(cache, 1, 0);
+        touch(cache, 2, 0);
+        // a hit makes 0, 0 the most recently used, so 1, 0 goes first
+        touch(cache, 0, 0);
+        touch(cache, 3, 0);
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertCounts(cache, 1, 4, "after the first eviction");
+
+        touch(cache, 0, 0);
+        touch(cache, 2, 0);
+        touch(cache, 3, 0);
+        assertCounts(cache, 4, 4, "kept chunks");
+        touch(cache, 1, 0);
+        assertCounts(cache, 4, 5, "evicted chunk");
+        // that evicted 0, 0, used longest ago
+        touch(cache, 3, 0);
+        touch(cache, 0, 0);
+        assertCounts(cache, 5, 6, "second eviction");
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void shrinkingTheCapEvictsRightAway() {
+        HeightmapCache cache = cacheOf(generator, 10);
+        for (int chunkX = 0; chunkX < 5; chunkX++) {
+            touch(cache, chunkX, -3);
+        }
+        assertEquals(5, cache.size());
+        cache.setMaxBytes(2 * HeightmapCache.ENTRY_BYTES);
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getEvictions());
+        // the two most recent stay
+        touch(cache, 3, -3);
+        touch(cache, 4, -3);
+        assertCounts(cache, 2, 5, "after shrinking");
+
+        // a cap under one entry caches nothing
+        cache.setMaxBytes(0);
+        assertEquals(0, cache.size());
+        touch(cache, 4, -3);
+        touch(cache, 4, -3);
+        assertCounts(cache, 2, 7, "no cache");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void clearDropsEverything() {
+        HeightmapCache cache = cacheOf(generator, 4);
+        touch(cache, 0, 0);
+        cache.clear();
+        assertEquals(0, cache.size());
+        touch(cache, 0, 0);
+        assertCounts(cache, 0, 2, "after clear");
+    }
+}
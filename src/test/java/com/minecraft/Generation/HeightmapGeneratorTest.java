@@ -0,0 +1,85 @@
+package com.minecraft.Generation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// The vector path must give bit-identical noise to the scalar one, so a world
+// looks the same whichever the JVM picked. The vector cases need --add-modules
+// jdk.incubator.vector, which vectorHeightmapTest passes; without it they are
+// skipped and create() must fall back to the scalar path.
+class HeightmapGeneratorTest {
+    private static final boolean VECTOR_MODULE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    private static final long[] SEEDS = {0, 42, 1337, -7, Long.MAX_VALUE};
+    // origins on both sides of 0 and far out, where the lattice index wraps
+    private static final int[][] ORIGINS = {
+            {0, 0}, {-16, -16}, {-1, 5}, {-31, -1_000}, {12_345, -67_890}, {-1_000_000, 1_000_000}, {40_000, 40_000}
+    };
+    // chunk width, lane remainders and a row shorter than a vector
+    private static final int[] WIDTHS = {16, 17, 1, 3, 64};
+
+    @Test
+    void createPicksTheVectorPathOnlyWithTheModule() {
+        String name = HeightmapGenerator.create(42).getImplementationName();
+        if (VECTOR_MODULE) {
+            assertTrue(name.startsWith("vector"), name);
+        } else {
+            assertEquals("scalar", name);
+        }
+        assertEquals("scalar", new HeightmapGenerator(42).getImplementationName());
+    }
+
+    @Test
+    void vectorRowsMatchScalarBitForBit() {
+        assumeTrue(VECTOR_MODULE, "needs --add-modules jdk.incubator.vector");
+        for (long seed : SEEDS) {
+            HeightmapGenerator scalar = new HeightmapGenerator(seed);
+            HeightmapGenerator vector = HeightmapGenerator.create(seed);
+            for (int[] origin : ORIGINS) {
+                for (int width : WIDTHS) {
+                    for (int z = 0; z < 4; z++) {
+                        double[] expected = new double[width];
+                        double[] actual = new double[width];
+                        scalar.octaveNoiseRow(origin[0], origin[1] + z, width, HeightmapGenerator.DETAIL_FREQUENCY,
+                                HeightmapGenerator.DETAIL_OCTAVES, HeightmapGenerator.DETAIL_PERSISTENCE, expected);
+                        vector.octaveNoiseRow(origin[0], origin[1] + z, width, HeightmapGenerator.DETAIL_FREQUENCY,
+                                HeightmapGenerator.DETAIL_OCTAVES, HeightmapGenerator.DETAIL_PERSISTENCE, actual);
+                        for (int x = 0; x < width; x++) {
+                            assertEquals(Double.doubleToRawLongBits(expected[x]), Double.doubleToRawLongBits(actual[x]),
+                                    "seed " + seed + " column " + (origin[0] + x) + ", " + (origin[1] + z));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void heightmapsMatchPerColumnHeights() {
+        for (long seed : SEEDS) {
+            HeightmapGenerator scalar = new HeightmapGenerator(seed);
+            HeightmapGenerator vector = HeightmapGenerator.create(seed);
+            for (int[] origin : ORIGINS) {
+                for (int width : WIDTHS) {
+                    int depth = 5;
+                    int[] columns = new int[width * depth];
+                    for (int z = 0; z < depth; z++) {
+                        for (int x = 0; x < width; x++) {
+                            columns[x + z * width] = scalar.height(origin[0] + x, origin[1] + z);
+                        }
+                    }
+                    int[] scalarMap = new int[width * depth];
+                    int[] vectorMap = new int[width * depth];
+                    scalar.heightmap(origin[0], origin[1], width, depth, scalarMap);
+                    vector.heightmap(origin[0], origin[1], width, depth, vectorMap);
+                    String what = "seed " + seed + " origin " + origin[0] + ", " + origin[1] + " width " + width;
+                    assertArrayEquals(columns, scalarMap, what);
+                    assertArrayEquals(columns, vectorMap, what);
+                }
+            }
+        }
+    }
+}
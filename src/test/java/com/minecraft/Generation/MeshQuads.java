@@ -0,0 +1,49 @@
+package com.minecraft.Generation;
+
+import com.minecraft.graphics.MeshBuilder;
+import com.minecraft.graphics.MeshData;
+import com.minecraft.graphics.PackedVertex;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Meshes compared as sorted sets of quads, each quad its four packed vertices,
+// so two meshing paths may differ only in the order they emit quads.
+final class MeshQuads {
+
+    private MeshQuads() {
+    }
+
+    // Each quad as its four vertices, first and second word of each in one long
+    static long[][] sorted(MeshBuilder builder) {
+        MeshData data = builder.finish();
+        if (data == null) {
+            return new long[0][];
+        }
+        ByteBuffer vertices = data.getVertices();
+        long[][] quads = new long[data.getQuadCount()][4];
+        for (int q = 0; q < quads.length; q++) {
+            for (int v = 0; v < 4; v++) {
+                int offset = (q * 4 + v) * PackedVertex.BYTES;
+                quads[q][v] = (long) vertices.getInt(offset) << 32 | (vertices.getInt(offset + 4) & 0xFFFFFFFFL);
+            }
+        }
+        data.release();
+        Arrays.sort(quads, Arrays::compare);
+        return quads;
+    }
+
+    // Names the first differing quad, then checks the counts
+    static void assertSameQuads(long[][] expected, String expectedName, long[][] actual, String actualName, String what) {
+        for (int i = 0; i < Math.min(expected.length, actual.length); i++) {
+            if (!Arrays.equals(expected[i], actual[i])) {
+                fail(what + ": quad " + i + " differs, " + expectedName + " " + Arrays.toString(expected[i])
+                        + ", " + actualName + " " + Arrays.toString(actual[i]));
+            }
+        }
+        assertEquals(expected.length, actual.length, what + ": quad count");
+    }
+}
@@ -0,0 +1,104 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.Chunk;
+import com.minecraft.graphics.MeshBuilder;
+import com.minecraft.graphics.MeshData;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Meshes one generated chunk over and over on this thread, the way a mesh
+// worker does, and checks that the pooled buffers keep the work from
+// allocating: a little heap per chunk for the MeshData and buffer growth, and
+// no new direct buffers at all.
+class MeshingAllocationTest {
+    private static final int WARMUP_CHUNKS = 3_000;
+    private static final int CHUNKS = 1_000;
+    // MeshData, plus a pool node and a buffer view for each doubling of the vertex
+    // buffer; a mesher that allocates per section or per quad is far above this
+    private static final long MAX_BYTES_PER_CHUNK = 2048;
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void perFaceMeshingStaysPooled() {
+        assertMeshingStaysPooled(0, 0, 0);
+    }
+
+    @Test
+    void culledMeshingStaysPooled() {
+        assertMeshingStaysPooled(1, 0, 0);
+    }
+
+    @Test
+    void greedyMeshingStaysPooled() {
+        assertMeshingStaysPooled(1, 1, 0);
+    }
+
+    @Test
+    void binaryMeshingStaysPooled() {
+        assertMeshingStaysPooled(1, 0, 1);
+    }
+
+    private void assertMeshingStaysPooled(int enableCulling, int greedyMeshing, int binaryMeshing) {
+        Terrain terrain = new Terrain(42, 1);
+        try {
+            terrain.setEnableCulling(enableCulling);
+            terrain.setGreedyMeshing(greedyMeshing);
+            terrain.setBinaryMeshing(binaryMeshing);
+            for (int x = -1; x <= 1; x++) {
+                for (int z = -1; z <= 1; z++) {
+                    Chunk chunk = new Chunk();
+                    terrain.generateChunk(chunk, x, z);
+                    terrain.putChunk(x, z, chunk);
+                }
+            }
+            MeshBuilder builder = new MeshBuilder();
+            int vertices = 0;
+            for (int i = 0; i < WARMUP_CHUNKS; i++) {
+                vertices = mesh(terrain, builder);
+            }
+            assertTrue(vertices > 0, "the chunk should have a mesh");
+
+            BufferPoolMXBean direct = directBuffers();
+            long directBuffers = direct.getCount();
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < CHUNKS; i++) {
+                mesh(terrain, builder);
+            }
+            long perChunk = (threads.getCurrentThreadAllocatedBytes() - before) / CHUNKS;
+            assertTrue(perChunk <= MAX_BYTES_PER_CHUNK, "allocated " + perChunk + " bytes per chunk");
+            // the count can only drop, when the GC frees buffers from before the loop
+            assertTrue(direct.getCount() <= directBuffers,
+                    (direct.getCount() - directBuffers) + " direct buffers allocated while meshing");
+        } finally {
+            terrain.cleanup();
+        }
+    }
+
+    // Meshes chunk 0, 0 and returns its buffer to the pool, as the upload does
+    private static int mesh(Terrain terrain, MeshBuilder builder) {
+        builder.reset();
+        terrain.meshChunk(0, 0, builder);
+        MeshData data = builder.finish();
+        if (data == null) {
+            return 0;
+        }
+        int vertices = data.getVertexCount();
+        data.release();
+        return vertices;
+    }
+
+    private static BufferPoolMXBean directBuffers() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool;
+            }
+        }
+        throw new AssertionError("no direct buffer pool");
+    }
+}
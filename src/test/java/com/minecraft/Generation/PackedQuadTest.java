@@ -0,0 +1,48 @@
+package com.minecraft.Generation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Every field of a packed quad must come back unchanged at the ends of its
+// range, whatever the other fields hold.
+class PackedQuadTest {
+    private static final int[] HORIZONTAL = {0, 1, 14, 15};
+    private static final int[] HEIGHTS = {0, 1, 254, 255};
+    private static final int[] SIZES = {1, 2, 15, 16};
+    private static final int[] TEXTURES = {0, 1, 254, 255};
+
+    @Test
+    void packRoundTripsCornerValues() {
+        for (int x : HORIZONTAL) {
+            for (int y : HEIGHTS) {
+                for (int z : HORIZONTAL) {
+                    for (int face = PackedQuad.FACE_UP; face <= PackedQuad.FACE_WEST; face++) {
+                        for (int width : SIZES) {
+                            for (int height : SIZES) {
+                                for (int texture : TEXTURES) {
+                                    long quad = PackedQuad.pack(x, y, z, face, width, height, texture);
+                                    String what = "x " + x + " y " + y + " z " + z + " face " + face
+                                            + " " + width + "x" + height + " texture " + texture;
+                                    assertEquals(x, PackedQuad.x(quad), what);
+                                    assertEquals(y, PackedQuad.y(quad), what);
+                                    assertEquals(z, PackedQuad.z(quad), what);
+                                    assertEquals(face, PackedQuad.face(quad), what);
+                                    assertEquals(width, PackedQuad.width(quad), what);
+                                    assertEquals(height, PackedQuad.height(quad), what);
+                                    assertEquals(texture, PackedQuad.texture(quad), what);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void packUsesTheLow35Bits() {
+        long quad = PackedQuad.pack(15, 255, 15, PackedQuad.FACE_WEST, 16, 16, 255);
+        assertEquals(0, quad >>> 35);
+    }
+}
@@ -0,0 +1,189 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.Block;
+import com.minecraft.core.ChunkSection;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SectionVisibilityTest {
+    private static final int SIZE = ChunkSection.SIZE;
+    private static final int STONE = 4;
+    private static final int UP = PackedQuad.FACE_UP;
+    private static final int DOWN = PackedQuad.FACE_DOWN;
+    private static final int SOUTH = PackedQuad.FACE_SOUTH;
+    private static final int NORTH = PackedQuad.FACE_NORTH;
+    private static final int EAST = PackedQuad.FACE_EAST;
+    private static final int WEST = PackedQuad.FACE_WEST;
+    private static final int[][] STEPS = {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}};
+
+    private final SectionVisibility visibility = new SectionVisibility();
+
+    private static long pair(int a, int b) {
+        return 1L << a * SectionVisibility.FACES + b | 1L << b * SectionVisibility.FACES + a;
+    }
+
+    private static String describe(long result) {
+        return "0x" + Long.toHexString(result);
+    }
+
+    @Test
+    void emptySectionConnectsEverything() {
+        assertEquals(SectionVisibility.ALL, visibility.compute(null));
+        assertEquals(SectionVisibility.ALL, visibility.compute(new ChunkSection(Block.AIR)));
+    }
+
+    @Test
+    void fullSectionConnectsNothing() {
+        assertEquals(SectionVisibility.NONE, visibility.compute(new ChunkSection(STONE)));
+    }
+
+    @Test
+    void floorSeparatesUpFromDown() {
+        ChunkSection section = new ChunkSection(Block.AIR);
+        for (int z = 0; z < SIZE; z++) {
+            for (int x = 0; x < SIZE; x++) {
+                section.set(x, 8, z, STONE);
+            }
+        }
+        long result = visibility.compute(section);
+        assertEquals(SectionVisibility.ALL & ~pair(UP, DOWN), result, describe(result));
+        // both halves reach every side
+        assertTrue(SectionVisibility.connects(result, UP, NORTH));
+        assertTrue(SectionVisibility.connects(result, DOWN, EAST));
+        assertFalse(SectionVisibility.connects(result, DOWN, UP));
+    }
+
+    @Test
+    void tunnelConnectsOnlyItsEnds() {
+        ChunkSection section = new ChunkSection(STONE);
+        for (int x = 0; x < SIZE; x++) {
+            section.set(x, 5, 9, Block.AIR);
+        }
+        long result = visibility.compute(section);
+        assertEquals(pair(EAST, WEST) | pair(EAST, EAST) | pair(WEST, WEST), result, describe(result));
+    }
+
+    @Test
+    void bentTunnelConnectsAcrossAxes() {
+        ChunkSection section = new ChunkSection(STONE);
+        // in from the north face, then up a shaft to the top
+        for (int z = 0; z <= 7; z++) {
+            section.set(3, 2, z, Block.AIR);
+        }
+        for (int y = 2; y < SIZE; y++) {
+            section.set(3, y, 7, Block.AIR);
+        }
+        long result = visibility.compute(section);
+        assertEquals(pair(NORTH, UP) | pair(NORTH, NORTH) | pair(UP, UP), result, describe(result));
+    }
+
+    @Test
+    void diagonalGapDoesNotConnect() {
+        ChunkSection section = new ChunkSection(STONE);
+        // two tunnels meeting only edge to edge
+        for (int x = 0; x < 8; x++) {
+            section.set(x, 8, 4, Block.AIR);
+        }
+        for (int x = 8; x < SIZE; x++) {
+            section.set(x, 9, 4, Block.AIR);
+        }
+        long result = visibility.compute(section);
+        assertEquals(pair(EAST, EAST) | pair(WEST, WEST), result, describe(result));
+    }
+
+    @Test
+    void sealedPocketConnectsNothing() {
+        ChunkSection section = new ChunkSection(STONE);
+        for (int y = 4; y < 12; y++) {
+            for (int z = 4; z < 12; z++) {
+                for (int x = 4; x < 12; x++) {
+                    section.set(x, y, z, Block.AIR);
+                }
+            }
+        }
+        assertEquals(SectionVisibility.NONE, visibility.compute(section));
+        // one opening to the west lets it see only that face
+        for (int x = 0; x < 4; x++) {
+            section.set(x, 6, 6, Block.AIR);
+        }
+        assertEquals(pair(WEST, WEST), visibility.compute(section));
+    }
+
+    // Random caves of several densities against a cell-by-cell flood fill,
+    // reusing one instance as the culler does
+    @Test
+    void matchesFloodFill() {
+        Random random = new Random(1234);
+        float[] airChances = {0.1f, 0.25f, 0.3f, 0.35f, 0.5f, 0.9f};
+        for (float airChance : airChances) {
+            for (int i = 0; i < 40; i++) {
+                ChunkSection section = new ChunkSection(STONE);
+                for (int y = 0; y < SIZE; y++) {
+                    for (int z = 0; z < SIZE; z++) {
+                        for (int x = 0; x < SIZE; x++) {
+                            if (random.nextFloat() < airChance) {
+                                section.set(x, y, z, Block.AIR);
+                            }
+                        }
+                    }
+                }
+                long expected = floodFill(section);
+                long result = visibility.compute(section);
+                assertEquals(expected, result, "air chance " + airChance + " section " + i
+                        + ": expected " + describe(expected) + " but was " + describe(result));
+            }
+        }
+    }
+
+    private static long floodFill(ChunkSection section) {
+        boolean[] seen = new boolean[ChunkSection.VOLUME];
+        int[] queue = new int[ChunkSection.VOLUME];
+        long result = SectionVisibility.NONE;
+        for (int start = 0; start < ChunkSection.VOLUME; start++) {
+            if (seen[start] || section.get(start & 15, start >> 8, start >> 4 & 15) != Block.AIR) {
+                continue;
+            }
+            seen[start] = true;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            int touched = 0;
+            while (head < tail) {
+                int cell = queue[head++];
+                int x = cell & 15;
+                int z = cell >> 4 & 15;
+                int y = cell >> 8;
+                if (y == SIZE - 1) touched |= 1 << UP;
+                if (y == 0) touched |= 1 << DOWN;
+                if (z == SIZE - 1) touched |= 1 << SOUTH;
+                if (z == 0) touched |= 1 << NORTH;
+                if (x == SIZE - 1) touched |= 1 << EAST;
+                if (x == 0) touched |= 1 << WEST;
+                for (int[] step : STEPS) {
+                    int nx = x + step[0];
+                    int ny = y + step[1];
+                    int nz = z + step[2];
+                    if (nx < 0 || nx >= SIZE || ny < 0 || ny >= SIZE || nz < 0 || nz >= SIZE) {
+                        continue;
+                    }
+                    int next = nx | nz << 4 | ny << 8;
+                    if (!seen[next] && section.get(nx, ny, nz) == Block.AIR) {
+                        seen[next] = true;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            for (int a = 0; a < SectionVisibility.FACES; a++) {
+                if ((touched & 1 << a) != 0) {
+                    result |= (long) touched << a * SectionVisibility.FACES;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,139 @@
+package com.minecraft.Generation;
+
+import com.minecraft.core.Block;
+import com.minecraft.core.Chunk;
+import com.minecraft.graphics.MeshBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// With culling on, full sections are meshed from their shell (or skipped when
+// buried) in every mesher mode. That must give the same quads as scanning
+// every cell of the section.
+class ShellMeshingTest {
+    private static final long[] SEEDS = {42, 1337};
+    private static final int STONE = 3;
+    // sections 0 to 2 full
+    private static final int SOLID_TOP = 47;
+
+    @Test
+    void generatedChunksMatch() {
+        for (long seed : SEEDS) {
+            Terrain terrain = new Terrain(seed, 1);
+            try {
+                for (int x = -1; x <= 1; x++) {
+                    for (int z = -1; z <= 1; z++) {
+                        Chunk chunk = new Chunk();
+                        terrain.generateChunk(chunk, x, z);
+                        terrain.putChunk(x, z, chunk);
+                    }
+                }
+                assertShellsMatch(terrain, 0, 0, "seed " + seed + " centre");
+                assertShellsMatch(terrain, 1, 0, "seed " + seed + " edge");
+                assertShellsMatch(terrain, -1, -1, "seed " + seed + " corner");
+            } finally {
+                terrain.cleanup();
+            }
+        }
+    }
+
+    @Test
+    void solidNeighboursMatch() {
+        Terrain terrain = solid(1);
+        try {
+            // the centre's lower sections are buried, the top full one has an open top
+            assertShellsMatch(terrain, 0, 0, "centre");
+            // edge and corner chunks are open towards the unloaded chunks
+            assertShellsMatch(terrain, 1, 0, "edge");
+            assertShellsMatch(terrain, 1, 1, "corner");
+        } finally {
+            terrain.cleanup();
+        }
+    }
+
+    @Test
+    void chunkWithoutNeighboursMatches() {
+        Terrain terrain = solid(0);
+        try {
+            assertShellsMatch(terrain, 0, 0, "alone");
+        } finally {
+            terrain.cleanup();
+        }
+    }
+
+    @Test
+    void sectionBoundaryEditsMatch() {
+        Terrain terrain = solid(1);
+        try {
+            Chunk centre = terrain.getChunk(0, 0);
+            // holes in the neighbours' full sections right at the shared border
+            // open the centre's sections on that side
+            terrain.getChunk(1, 0).setBlockId(0, 20, 7, Block.AIR);
+            terrain.getChunk(0, -1).setBlockId(3, 15, 15, Block.AIR);
+            terrain.getChunk(-1, 0).setBlockId(15, 32, 0, Block.AIR);
+            // a hole in the lowest layer of section 2 opens section 1 upwards
+            centre.setBlockId(8, 32, 8, Block.AIR);
+            // a block in the empty section above the solid ground covers one top face
+            centre.setBlockId(4, SOLID_TOP + 1, 4, STONE);
+            assertShellsMatch(terrain, 0, 0, "centre");
+            assertShellsMatch(terrain, 1, 0, "east");
+            assertShellsMatch(terrain, 0, -1, "north");
+            assertShellsMatch(terrain, -1, 0, "west");
+
+            // filling the holes makes the sections full again, on both sides of the border
+            terrain.getChunk(1, 0).setBlockId(0, 20, 7, STONE);
+            centre.setBlockId(8, 32, 8, STONE);
+            assertShellsMatch(terrain, 0, 0, "centre, refilled");
+            assertShellsMatch(terrain, 1, 0, "east, refilled");
+        } finally {
+            terrain.cleanup();
+        }
+    }
+
+    // Chunks within radius of 0, 0 filled with stone up to SOLID_TOP
+    private static Terrain solid(int radius) {
+        Terrain terrain = new Terrain(0, 1);
+        for (int chunkX = -radius; chunkX <= radius; chunkX++) {
+            for (int chunkZ = -radius; chunkZ <= radius; chunkZ++) {
+                Chunk chunk = new Chunk();
+                for (int y = 0; y <= SOLID_TOP; y++) {
+                    for (int z = 0; z < Chunk.CHUNK_DEPTH; z++) {
+                        for (int x = 0; x < Chunk.CHUNK_WIDTH; x++) {
+                            chunk.setBlockId(x, y, z, STONE);
+                        }
+                    }
+                }
+                chunk.compact();
+                terrain.putChunk(chunkX, chunkZ, chunk);
+            }
+        }
+        return terrain;
+    }
+
+    // Per-face, greedy and binary meshing, each with and without shells
+    private static void assertShellsMatch(Terrain terrain, int chunkX, int chunkZ, String what) {
+        terrain.setEnableCulling(1);
+        int[][] modes = {{0, 0}, {1, 0}, {0, 1}};
+        String[] names = {"per-face", "greedy", "binary"};
+        for (int mode = 0; mode < modes.length; mode++) {
+            terrain.setGreedyMeshing(modes[mode][0]);
+            terrain.setBinaryMeshing(modes[mode][1]);
+            long shellsBefore = terrain.getMeshingStats().getSections(MeshingStats.SECTION_SHELL)
+                    + terrain.getMeshingStats().getSections(MeshingStats.SECTION_BURIED);
+            long[][] shells = sortedQuads(terrain, chunkX, chunkZ, true);
+            long shellSections = terrain.getMeshingStats().getSections(MeshingStats.SECTION_SHELL)
+                    + terrain.getMeshingStats().getSections(MeshingStats.SECTION_BURIED) - shellsBefore;
+            long[][] scanned = sortedQuads(terrain, chunkX, chunkZ, false);
+            String where = what + ", " + names[mode];
+            assertTrue(shellSections > 0, where + ": no full sections were meshed from their shell");
+            assertTrue(scanned.length > 0, where + ": no quads");
+            MeshQuads.assertSameQuads(scanned, "scanned", shells, "shell", where);
+        }
+    }
+
+    private static long[][] sortedQuads(Terrain terrain, int chunkX, int chunkZ, boolean shells) {
+        MeshBuilder builder = new MeshBuilder();
+        terrain.meshChunk(chunkX, chunkZ, builder, shells);
+        return MeshQuads.sorted(builder);
+    }
+}
@@ -0,0 +1,54 @@
+package com.minecraft.Generation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The worker pools are started by the first update(), so configuring them
+// afterwards is an error rather than a silent swap under LodTerrain.
+class TerrainWorkersTest {
+    private static long workerThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("generate-") || thread.getName().startsWith("mesh-"))
+                .filter(Thread::isAlive)
+                .count();
+    }
+
+    // pools other tests shut down may still be winding down
+    private static long settledWorkerThreads() throws InterruptedException {
+        long count = workerThreads();
+        for (int i = 0; i < 100; i++) {
+            Thread.sleep(20);
+            long now = workerThreads();
+            if (now == count) {
+                break;
+            }
+            count = now;
+        }
+        return count;
+    }
+
+    @Test
+    void poolsStartOnTheFirstUpdate() throws InterruptedException {
+        long before = settledWorkerThreads();
+        Terrain terrain = new Terrain(42, 1);
+        try {
+            terrain.setWorkerThreads(1, 1, 0);
+            terrain.setWorkerThreads(2, 1, 0);
+            assertEquals(before, workerThreads());
+            terrain.update(0, 0);
+            assertTrue(workerThreads() > before);
+            assertThrows(IllegalStateException.class, () -> terrain.setWorkerThreads(1, 1, 0));
+        } finally {
+            terrain.cleanup();
+        }
+    }
+
+    @Test
+    void cleanupWithoutUpdate() {
+        Terrain terrain = new Terrain(42, 1);
+        terrain.cleanup();
+    }
+}
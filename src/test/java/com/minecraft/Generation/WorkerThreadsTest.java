@@ -0,0 +1,53 @@
+package com.minecraft.Generation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Virtual threads are only created on Java 21 and later; older JVMs must fall
+// back to platform daemon threads with the same names.
+class WorkerThreadsTest {
+    private static final boolean VIRTUAL_THREADS = Runtime.version().feature() >= 21;
+
+    private static boolean isVirtual(Thread thread) throws ReflectiveOperationException {
+        return VIRTUAL_THREADS && (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+
+    private static void assertWorker(Thread thread, String name, boolean virtual) throws ReflectiveOperationException {
+        assertEquals(name, thread.getName());
+        assertTrue(thread.isDaemon(), name + " keeps the JVM alive");
+        assertEquals(virtual, isVirtual(thread), name + " virtual");
+    }
+
+    @Test
+    void platformThreadsAreNamedDaemons() throws ReflectiveOperationException {
+        ThreadFactory factory = WorkerThreads.factory("generate", false);
+        assertWorker(factory.newThread(() -> { }), "generate-0", false);
+        assertWorker(factory.newThread(() -> { }), "generate-1", false);
+    }
+
+    @Test
+    void virtualThreadsOrTheFallbackAreNamedDaemons() throws ReflectiveOperationException {
+        ThreadFactory factory = WorkerThreads.factory("mesh", true);
+        assertWorker(factory.newThread(() -> { }), "mesh-0", VIRTUAL_THREADS);
+        assertWorker(factory.newThread(() -> { }), "mesh-1", VIRTUAL_THREADS);
+    }
+
+    @Test
+    void poolRunsTasksOnItsThreads() throws Exception {
+        ExecutorService pool = WorkerThreads.pool("save", 2, true);
+        try {
+            Thread thread = pool.submit(Thread::currentThread).get(10, TimeUnit.SECONDS);
+            assertTrue(thread.getName().startsWith("save-"), thread.getName());
+            assertEquals(VIRTUAL_THREADS, isVirtual(thread));
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.minecraft.Generation;
+
+import com.minecraft.storage.RegionStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Region files must come out byte for byte the same whatever the thread count,
+// and a cancelled run resumed later must end up as if it had never stopped.
+class WorldPregeneratorTest {
+    private static final long SEED = 42;
+    // spans the four regions around the origin
+    private static final int RADIUS = 8;
+
+    private Path directory;
+    private Terrain terrain;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("pregenerate");
+        terrain = new Terrain(SEED, 0);
+        terrain.setHeightmapCacheSize(0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        terrain.cleanup();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private WorldPregenerator pregenerator(RegionStore store) {
+        return new WorldPregenerator(terrain, store, 0, 0, RADIUS, true);
+    }
+
+    private Path run(String name, int threads) throws IOException {
+        Path world = directory.resolve(name);
+        RegionStore store = new RegionStore(world);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            WorldPregenerator pregenerator = pregenerator(store);
+            pregenerator.start(pool).join();
+            assertEquals(pregenerator.getTotal(), pregenerator.getGenerated());
+            assertEquals(pregenerator.getRegionCount(), pregenerator.getRegionsDone());
+        } finally {
+            pool.shutdown();
+            store.close();
+        }
+        return world;
+    }
+
+    private static void assertSameRegions(Path expected, Path actual) throws IOException {
+        List<Path> files = regionFiles(expected);
+        assertEquals(4, files.size());
+        assertEquals(files, regionFiles(actual));
+        for (Path file : files) {
+            assertArrayEquals(Files.readAllBytes(expected.resolve(file)), Files.readAllBytes(actual.resolve(file)),
+                    file.toString());
+        }
+    }
+
+    private static List<Path> regionFiles(Path world) throws IOException {
+        try (Stream<Path> paths = Files.list(world)) {
+            return paths.map(Path::getFileName).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void outputDoesNotDependOnThreadCount() throws IOException {
+        assertSameRegions(run("one", 1), run("four", 4));
+    }
+
+    @Test
+    void resumedRunMatchesAnUninterruptedOne() throws IOException {
+        Path world = directory.resolve("resumed");
+        RegionStore store = new RegionStore(world);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        long firstRun;
+        try {
+            WorldPregenerator pregenerator = pregenerator(store);
+            ForkJoinTask<Void> task = pregenerator.start(pool);
+            while (pregenerator.getGenerated() < pregenerator.getTotal() / 3 && !task.isDone()) {
+                Thread.onSpinWait();
+            }
+            pregenerator.cancel();
+            task.join();
+            firstRun = pregenerator.getGenerated();
+            assertTrue(firstRun < pregenerator.getTotal(), "finished before it could be cancelled");
+        } finally {
+            store.close();
+        }
+
+        // a fresh run on the same directory, as after restarting the program
+        store = new RegionStore(world);
+        try {
+            WorldPregenerator pregenerator = pregenerator(store);
+            pregenerator.start(pool).join();
+            assertEquals(firstRun, pregenerator.getSkipped());
+            assertEquals(pregenerator.getTotal(), pregenerator.getSkipped() + pregenerator.getGenerated());
+        } finally {
+            pool.shutdown();
+            store.close();
+        }
+
+        assertSameRegions(run("uninterrupted", 1), world);
+    }
+}
@@ -0,0 +1,257 @@
+package com.minecraft.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkSectionTest {
+    private static final int SIZE = ChunkSection.SIZE;
+    private static final int STONE = 4;
+
+    private static int index(int x, int y, int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    private static void assertSameBlocks(int[] expected, ChunkSection section, String what) {
+        int nonAir = 0;
+        for (int y = 0; y < SIZE; y++) {
+            for (int z = 0; z < SIZE; z++) {
+                for (int x = 0; x < SIZE; x++) {
+                    int id = expected[index(x, y, z)];
+                    assertEquals(id, section.get(x, y, z), what + ": block " + x + ", " + y + ", " + z);
+                    if (id != Block.AIR) {
+                        nonAir++;
+                    }
+                }
+            }
+        }
+        assertEquals(nonAir, section.getNonAirCount(), what + ": non-air count");
+    }
+
+    private static void assertColumnMasks(int[] expected, ChunkSection section, String what) {
+        for (int z = 0; z < SIZE; z++) {
+            for (int x = 0; x < SIZE; x++) {
+                int column = 0;
+                for (int y = 0; y < SIZE; y++) {
+                    if (expected[index(x, y, z)] != Block.AIR) {
+                        column |= 1 << y;
+                    }
+                }
+                assertEquals(column, section.columnMask(x, z), what + ": column " + x + ", " + z);
+            }
+        }
+    }
+
+    @Test
+    void randomIdsRoundTripAtEveryWidth() {
+        // up to 2, 3, 5, 17 and 100 ids: 1, 2, 3, 5 and 7 bit indices, the odd
+        // widths leaving unused bits at the top of each long
+        int[] idCounts = {2, 3, 5, 17, 100};
+        int[] bits = {1, 2, 3, 5, 7};
+        for (int c = 0; c < idCounts.length; c++) {
+            Random random = new Random(c);
+            ChunkSection section = new ChunkSection(Block.AIR);
+            int[] expected = new int[ChunkSection.VOLUME];
+            for (int n = 0; n < 3 * ChunkSection.VOLUME; n++) {
+                int x = random.nextInt(SIZE);
+                int y = random.nextInt(SIZE);
+                int z = random.nextInt(SIZE);
+                int id = random.nextInt(idCounts[c]);
+                section.set(x, y, z, id);
+                expected[index(x, y, z)] = id;
+            }
+            String what = idCounts[c] + " ids";
+            assertSameBlocks(expected, section, what);
+            assertEquals(bits[c], section.getBitsPerEntry(), what + ": bits");
+            section.compact();
+            assertSameBlocks(expected, section, what + ", compacted");
+        }
+    }
+
+    @Test
+    void paletteGrowsOneWidthAtATime() {
+        ChunkSection section = new ChunkSection(Block.AIR);
+        assertEquals(0, section.getBitsPerEntry());
+        assertEquals(1, section.getPaletteSize());
+        int[] expected = new int[ChunkSection.VOLUME];
+        for (int id = 1; id <= 64; id++) {
+            int i = id * 61;
+            section.set(i & 15, i >> 8, (i >> 4) & 15, id);
+            expected[i] = id;
+            // air plus id blocks
+            int paletteSize = id + 1;
+            assertEquals(paletteSize, section.getPaletteSize());
+            assertEquals(32 - Integer.numberOfLeadingZeros(paletteSize - 1), section.getBitsPerEntry(),
+                    "bits for " + paletteSize + " entries");
+            if (Integer.bitCount(id) == 1) {
+                assertSameBlocks(expected, section, paletteSize + " entries");
+            }
+        }
+        assertEquals(7, section.getBitsPerEntry());
+        assertSameBlocks(expected, section, "65 entries");
+    }
+
+    @Test
+    void compactDropsUnusedEntries() {
+        ChunkSection section = new ChunkSection(Block.AIR);
+        int[] expected = new int[ChunkSection.VOLUME];
+        for (int id = 1; id <= 20; id++) {
+            section.set(id & 15, 1 + (id >> 4), 0, id);
+        }
+        for (int id = 1; id <= 20; id++) {
+            section.set(id & 15, 1 + (id >> 4), 0, Block.AIR);
+        }
+        section.set(3, 3, 3, STONE);
+        section.set(4, 4, 4, 7);
+        expected[index(3, 3, 3)] = STONE;
+        expected[index(4, 4, 4)] = 7;
+        assertEquals(21, section.getPaletteSize());
+        assertEquals(5, section.getBitsPerEntry());
+        long before = section.estimateMemoryBytes();
+
+        section.compact();
+        assertEquals(3, section.getPaletteSize());
+        assertEquals(2, section.getBitsPerEntry());
+        assertTrue(section.estimateMemoryBytes() < before);
+        assertSameBlocks(expected, section, "compacted");
+
+        // a new id still fits after compacting
+        section.set(5, 5, 5, 9);
+        expected[index(5, 5, 5)] = 9;
+        assertEquals(4, section.getPaletteSize());
+        assertSameBlocks(expected, section, "after compacting");
+    }
+
+    @Test
+    void singleBlockSectionsKeepNoData() {
+        ChunkSection stone = new ChunkSection(STONE);
+        assertFalse(stone.isEmpty());
+        long uniform = stone.estimateMemoryBytes();
+
+        // writing the same id does not allocate
+        stone.set(1, 2, 3, STONE);
+        assertEquals(0, stone.getBitsPerEntry());
+        assertEquals(uniform, stone.estimateMemoryBytes());
+
+        stone.set(1, 2, 3, Block.AIR);
+        assertEquals(1, stone.getBitsPerEntry());
+        stone.set(1, 2, 3, STONE);
+        stone.compact();
+        assertEquals(1, stone.getPaletteSize());
+        assertEquals(0, stone.getBitsPerEntry());
+        assertEquals(uniform, stone.estimateMemoryBytes());
+        assertEquals(STONE, stone.get(1, 2, 3));
+
+        ChunkSection air = new ChunkSection(Block.AIR);
+        assertTrue(air.isEmpty());
+        air.set(15, 15, 15, STONE);
+        air.set(0, 0, 0, STONE);
+        air.set(15, 15, 15, Block.AIR);
+        air.set(0, 0, 0, Block.AIR);
+        assertTrue(air.isEmpty());
+        air.compact();
+        assertEquals(0, air.getBitsPerEntry());
+        assertEquals(Block.AIR, air.get(0, 0, 0));
+    }
+
+    @Test
+    void sectionIsFullOnlyWithoutAir() {
+        ChunkSection stone = new ChunkSection(STONE);
+        assertTrue(stone.isFull());
+        stone.set(1, 2, 3, Block.AIR);
+        assertFalse(stone.isFull());
+        stone.set(1, 2, 3, 7);
+        assertTrue(stone.isFull());
+        stone.compact();
+        assertTrue(stone.isFull());
+
+        ChunkSection air = new ChunkSection(Block.AIR);
+        assertFalse(air.isFull());
+        air.set(0, 0, 0, STONE);
+        assertFalse(air.isFull());
+    }
+
+    @Test
+    void chunkTracksFullAndEmptySections() {
+        Chunk chunk = new Chunk();
+        assertNull(chunk.getSection(2));
+        // an air write does not create a section
+        chunk.setBlockId(0, 32, 0, Block.AIR);
+        assertNull(chunk.getSection(2));
+
+        for (int y = 32; y < 48; y++) {
+            for (int z = 0; z < SIZE; z++) {
+                for (int x = 0; x < SIZE; x++) {
+                    assertFalse(chunk.isSectionFull(2));
+                    chunk.setBlockId(x, y, z, STONE);
+                }
+            }
+        }
+        assertTrue(chunk.isSectionFull(2));
+        assertEquals(1 << 2, chunk.getFullSections());
+
+        // a neighbouring section's block does not touch the flag
+        chunk.setBlockId(5, 48, 5, STONE);
+        assertEquals(1 << 2, chunk.getFullSections());
+
+        chunk.setBlockId(7, 40, 7, Block.AIR);
+        assertFalse(chunk.isSectionFull(2));
+        chunk.setBlockId(7, 40, 7, 7);
+        assertTrue(chunk.isSectionFull(2));
+        chunk.compact();
+        assertTrue(chunk.isSectionFull(2));
+        assertEquals(7, chunk.getBlockId(7, 40, 7));
+
+        // clearing the last block drops the section
+        chunk.setBlockId(5, 48, 5, Block.AIR);
+        assertNull(chunk.getSection(3));
+        assertEquals(Block.AIR, chunk.getBlockId(5, 48, 5));
+        assertNotNull(chunk.getSection(2));
+        assertEquals(1 << 2, chunk.getFullSections());
+    }
+
+    @Test
+    void columnMasksFollowRandomWrites() {
+        // sparse to dense sections, so masks are checked at several palette widths
+        int[] idCounts = {2, 5, 100};
+        for (int c = 0; c < idCounts.length; c++) {
+            Random random = new Random(c);
+            ChunkSection section = new ChunkSection(Block.AIR);
+            int[] expected = new int[ChunkSection.VOLUME];
+            for (int n = 0; n < ChunkSection.VOLUME; n++) {
+                int x = random.nextInt(SIZE);
+                int y = random.nextInt(SIZE);
+                int z = random.nextInt(SIZE);
+                int id = random.nextInt(idCounts[c]);
+                section.set(x, y, z, id);
+                expected[index(x, y, z)] = id;
+            }
+            String what = idCounts[c] + " ids";
+            assertColumnMasks(expected, section, what);
+            section.compact();
+            assertColumnMasks(expected, section, what + ", compacted");
+        }
+    }
+
+    @Test
+    void columnMasksOfSingleBlockSections() {
+        ChunkSection stone = new ChunkSection(STONE);
+        assertEquals(0xFFFF, stone.columnMask(3, 9));
+        stone.set(1, 2, 3, Block.AIR);
+        assertEquals(0xFFFF & ~(1 << 2), stone.columnMask(1, 3));
+        assertEquals(0xFFFF, stone.columnMask(3, 1));
+
+        ChunkSection air = new ChunkSection(Block.AIR);
+        assertEquals(0, air.columnMask(0, 0));
+        air.set(0, 15, 0, STONE);
+        assertEquals(1 << 15, air.columnMask(0, 0));
+        air.set(0, 15, 0, Block.AIR);
+        assertEquals(0, air.columnMask(0, 0));
+    }
+}
@@ -0,0 +1,214 @@
+package com.minecraft.graphics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ArenaAllocatorTest {
+    @Test
+    void freeCoalescesWithBothNeighbours() {
+        ArenaAllocator allocator = new ArenaAllocator(100);
+        int a = allocator.allocate(10);
+        int b = allocator.allocate(10);
+        int c = allocator.allocate(10);
+        assertEquals(0, a);
+        assertEquals(10, b);
+        assertEquals(20, c);
+        assertEquals(1, allocator.getFreeBlockCount());
+
+        allocator.free(b);
+        assertEquals(2, allocator.getFreeBlockCount());
+        // joins the hole after it
+        allocator.free(a);
+        assertEquals(2, allocator.getFreeBlockCount());
+        assertEquals(0, allocator.allocate(20));
+        allocator.free(0);
+        // joins the hole before it and the tail after it
+        allocator.free(c);
+        assertEquals(1, allocator.getFreeBlockCount());
+        assertEquals(100, allocator.getLargestFree());
+        assertEquals(0, allocator.getUsed());
+        assertEquals(0, allocator.fragmentation(), 0);
+    }
+
+    @Test
+    void allocateIsBestFit() {
+        ArenaAllocator allocator = new ArenaAllocator(100);
+        int[] blocks = new int[6];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = allocator.allocate(10);
+        }
+        // holes of 10 at 0 and 20 at 30..50, then the tail at 60
+        allocator.free(blocks[0]);
+        allocator.free(blocks[3]);
+        allocator.free(blocks[4]);
+        assertEquals(30, allocator.allocate(15));
+        assertEquals(0, allocator.allocate(10));
+        assertEquals(45, allocator.allocate(5));
+        assertEquals(-1, allocator.allocate(41));
+        assertEquals(60, allocator.allocate(40));
+    }
+
+    @Test
+    void growExtendsTheTail() {
+        ArenaAllocator allocator = new ArenaAllocator(10);
+        allocator.allocate(4);
+        assertEquals(-1, allocator.allocate(10));
+        allocator.grow(20);
+        assertEquals(1, allocator.getFreeBlockCount());
+        assertEquals(4, allocator.allocate(10));
+
+        // a full arena gets a new tail block
+        allocator.allocate(6);
+        assertEquals(0, allocator.getFreeBlockCount());
+        allocator.grow(30);
+        assertEquals(20, allocator.allocate(10));
+    }
+
+    @Test
+    void defragmentPacksFromZero() {
+        ArenaAllocator allocator = new ArenaAllocator(100);
+        int[] blocks = new int[10];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = allocator.allocate(10);
+        }
+        for (int i = 0; i < blocks.length; i += 2) {
+            allocator.free(blocks[i]);
+        }
+        int[] moved = new int[1];
+        int moves = allocator.defragment(Integer.MAX_VALUE, (from, to, size) -> {
+            assertTrue(to < from);
+            assertEquals(10, size);
+            moved[0]++;
+        });
+        assertEquals(5, moves);
+        assertEquals(5, moved[0]);
+        assertEquals(1, allocator.getFreeBlockCount());
+        assertEquals(50, allocator.getLargestFree());
+        assertEquals(0, allocator.defragment(Integer.MAX_VALUE, (from, to, size) -> fail("already packed")));
+        // the moved blocks are freed at their new offsets
+        for (int offset = 0; offset < 50; offset += 10) {
+            allocator.free(offset);
+        }
+        assertEquals(0, allocator.getUsed());
+    }
+
+    @Test
+    void invalidCallsThrow() {
+        ArenaAllocator allocator = new ArenaAllocator(100);
+        assertThrows(IllegalArgumentException.class, () -> allocator.allocate(0));
+        int offset = allocator.allocate(10);
+        assertThrows(IllegalArgumentException.class, () -> allocator.free(offset + 1));
+        allocator.free(offset);
+        assertThrows(IllegalArgumentException.class, () -> allocator.free(offset));
+    }
+
+    // Random allocate/free/grow/defragment against a per-unit map of owners:
+    // no two allocations may overlap, allocate only fails when no free run is
+    // large enough, and free blocks are always fully coalesced.
+    @Test
+    void randomOperationsNeverOverlap() {
+        Random random = new Random(7);
+        ArenaAllocator allocator = new ArenaAllocator(1024);
+        // owner[unit] = offset + 1 of the allocation covering it, 0 = free
+        int[] owner = new int[1 << 16];
+        int[] liveOffsets = new int[1 << 16];
+        int[] liveSizes = new int[1 << 16];
+        int live = 0;
+
+        for (int op = 0; op < 200_000; op++) {
+            int kind = random.nextInt(100);
+            if (kind < 55) {
+                int size = 1 + random.nextInt(random.nextBoolean() ? 8 : 64);
+                int offset = allocator.allocate(size);
+                if (offset < 0) {
+                    assertTrue(largestRun(owner, allocator.getCapacity()) < size,
+                            "allocate(" + size + ") failed with a large enough free run");
+                    continue;
+                }
+                assertTrue(offset + size <= allocator.getCapacity());
+                for (int unit = offset; unit < offset + size; unit++) {
+                    if (owner[unit] != 0) {
+                        fail("op " + op + ": allocation at " + offset + " overlaps the one at " + (owner[unit] - 1));
+                    }
+                    owner[unit] = offset + 1;
+                }
+                liveOffsets[live] = offset;
+                liveSizes[live] = size;
+                live++;
+            } else if (kind < 95) {
+                if (live == 0) {
+                    continue;
+                }
+                int index = random.nextInt(live);
+                int offset = liveOffsets[index];
+                allocator.free(offset);
+                Arrays.fill(owner, offset, offset + liveSizes[index], 0);
+                live--;
+                liveOffsets[index] = liveOffsets[live];
+                liveSizes[index] = liveSizes[live];
+            } else if (kind < 96) {
+                if (allocator.getCapacity() < owner.length / 2) {
+                    allocator.grow(allocator.getCapacity() + 1 + random.nextInt(256));
+                }
+            } else {
+                int[] liveCount = {live};
+                allocator.defragment(1 + random.nextInt(4), (from, to, size) -> {
+                    assertTrue(to < from);
+                    for (int unit = from; unit < from + size; unit++) {
+                        assertEquals(from + 1, owner[unit], "moved units must belong to the moved allocation");
+                    }
+                    for (int unit = to; unit < from; unit++) {
+                        assertEquals(0, owner[unit], "allocation moved over another");
+                    }
+                    Arrays.fill(owner, from, from + size, 0);
+                    Arrays.fill(owner, to, to + size, to + 1);
+                    for (int i = 0; i < liveCount[0]; i++) {
+                        if (liveOffsets[i] == from) {
+                            liveOffsets[i] = to;
+                            return;
+                        }
+                    }
+                    fail("moved an allocation that does not exist: " + from);
+                });
+            }
+
+            assertEquals(live, allocator.getAllocationCount());
+            if (op % 64 == 0) {
+                int used = 0;
+                for (int i = 0; i < live; i++) {
+                    used += liveSizes[i];
+                }
+                assertEquals(used, allocator.getUsed());
+                assertEquals(freeRuns(owner, allocator.getCapacity()), allocator.getFreeBlockCount(), "op " + op);
+                assertEquals(largestRun(owner, allocator.getCapacity()), allocator.getLargestFree(), "op " + op);
+            }
+        }
+    }
+
+    private static int largestRun(int[] owner, int capacity) {
+        int largest = 0;
+        int run = 0;
+        for (int unit = 0; unit < capacity; unit++) {
+            run = owner[unit] == 0 ? run + 1 : 0;
+            largest = Math.max(largest, run);
+        }
+        return largest;
+    }
+
+    private static int freeRuns(int[] owner, int capacity) {
+        int runs = 0;
+        for (int unit = 0; unit < capacity; unit++) {
+            if (owner[unit] == 0 && (unit == 0 || owner[unit - 1] != 0)) {
+                runs++;
+            }
+        }
+        return runs;
+    }
+}
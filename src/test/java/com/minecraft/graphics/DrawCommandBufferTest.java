@@ -0,0 +1,91 @@
+package com.minecraft.graphics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DrawCommandBufferTest {
+    private static final int COUNT = 0;
+    private static final int INSTANCE_COUNT = 1;
+    private static final int FIRST_INDEX = 2;
+    private static final int BASE_VERTEX = 3;
+    private static final int BASE_INSTANCE = 4;
+
+    private static void assertCommand(DrawCommandBuffer commands, int command, int quads, int firstQuad) {
+        String what = "command " + command;
+        assertEquals(quads * QuadIndexBuffer.INDICES_PER_QUAD, commands.getCommandField(command, COUNT), what);
+        assertEquals(1, commands.getCommandField(command, INSTANCE_COUNT), what);
+        assertEquals(0, commands.getCommandField(command, FIRST_INDEX), what);
+        assertEquals(firstQuad * 4, commands.getCommandField(command, BASE_VERTEX), what);
+        assertEquals(command, commands.getCommandField(command, BASE_INSTANCE), what);
+    }
+
+    @Test
+    void smallMeshIsOneCommand() {
+        DrawCommandBuffer commands = new DrawCommandBuffer();
+        commands.add(new ArenaMesh(300, 25, null), 16, -32);
+        assertEquals(1, commands.getCommandCount());
+        assertEquals(25, commands.getQuadCount());
+        assertCommand(commands, 0, 25, 300);
+        assertEquals(16, commands.getOriginX(0), 0);
+        assertEquals(-32, commands.getOriginZ(0), 0);
+    }
+
+    @Test
+    void largeMeshIsSplitAtTheIndexBufferSize() {
+        int max = QuadIndexBuffer.MAX_QUADS;
+        DrawCommandBuffer commands = new DrawCommandBuffer();
+        commands.add(new ArenaMesh(1000, 2 * max + 5, null), 48, 64);
+        commands.add(new ArenaMesh(7, max, null), -16, 0);
+
+        assertEquals(4, commands.getCommandCount());
+        assertEquals(3L * max + 5, commands.getQuadCount());
+        assertCommand(commands, 0, max, 1000);
+        assertCommand(commands, 1, max, 1000 + max);
+        assertCommand(commands, 2, 5, 1000 + 2 * max);
+        // exactly MAX_QUADS still fits one command
+        assertCommand(commands, 3, max, 7);
+        for (int command = 0; command < 3; command++) {
+            assertEquals(48, commands.getOriginX(command), 0);
+            assertEquals(64, commands.getOriginZ(command), 0);
+        }
+        assertEquals(-16, commands.getOriginX(3), 0);
+        assertEquals(0, commands.getOriginZ(3), 0);
+        assertEquals(4 * DrawCommandBuffer.COMMAND_BYTES, commands.getCommands().remaining());
+        assertEquals(4 * DrawCommandBuffer.ORIGIN_BYTES, commands.getOrigins().remaining());
+    }
+
+    @Test
+    void quadRangeStartsAtTheMeshOffset() {
+        int max = QuadIndexBuffer.MAX_QUADS;
+        DrawCommandBuffer commands = new DrawCommandBuffer();
+        ArenaMesh mesh = new ArenaMesh(500, 3 * max, null);
+        commands.add(mesh, max - 10, max + 20, 0, 0);
+        assertEquals(2, commands.getCommandCount());
+        assertCommand(commands, 0, max, 500 + max - 10);
+        assertCommand(commands, 1, 20, 500 + 2 * max - 10);
+        // an empty range adds nothing
+        commands.add(mesh, 0, 0, 0, 0);
+        assertEquals(2, commands.getCommandCount());
+    }
+
+    @Test
+    void growingKeepsEarlierCommands() {
+        DrawCommandBuffer commands = new DrawCommandBuffer();
+        for (int i = 0; i < 1000; i++) {
+            commands.add(new ArenaMesh(i * 10, 10, null), i, -i);
+        }
+        assertEquals(1000, commands.getCommandCount());
+        for (int i = 0; i < 1000; i++) {
+            assertCommand(commands, i, 10, i * 10);
+            assertEquals(i, commands.getOriginX(i), 0);
+            assertEquals(-i, commands.getOriginZ(i), 0);
+        }
+
+        commands.reset();
+        assertEquals(0, commands.getCommandCount());
+        assertEquals(0, commands.getQuadCount());
+        commands.add(new ArenaMesh(5, 1, null), 0, 0);
+        assertCommand(commands, 0, 1, 5);
+    }
+}
@@ -0,0 +1,78 @@
+package com.minecraft.graphics;
+
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Boxes against the frustum of a 70 degree camera with planes at 0.1 and 100
+class FrustumTest {
+    private static final float NEAR = 0.1f;
+    private static final float FAR = 100.0f;
+
+    private static Frustum frustum(Matrix4f view) {
+        Matrix4f projection = new Matrix4f().perspective((float) Math.toRadians(70.0f), 1.0f, NEAR, FAR);
+        return new Frustum().update(projection.mul(view, new Matrix4f()));
+    }
+
+    // Camera at the origin looking down -z
+    private static Frustum atOrigin() {
+        return frustum(new Matrix4f());
+    }
+
+    @Test
+    void boxAheadIsVisible() {
+        Frustum frustum = atOrigin();
+        assertTrue(frustum.intersectsAabb(-1, -1, -11, 1, 1, -9));
+        assertTrue(frustum.intersectsAabb(-0.5f, -0.5f, -99, 0.5f, 0.5f, -98));
+    }
+
+    @Test
+    void boxBehindIsCulled() {
+        Frustum frustum = atOrigin();
+        assertFalse(frustum.intersectsAabb(-1, -1, 9, 1, 1, 11));
+        // behind the near plane but in front of the camera
+        assertFalse(frustum.intersectsAabb(-1, -1, -0.05f, 1, 1, 5));
+    }
+
+    @Test
+    void boxOutsideTheSidesIsCulled() {
+        Frustum frustum = atOrigin();
+        // the view is tan(35 degrees) * 10 = 7 wide on each side at distance 10
+        assertFalse(frustum.intersectsAabb(-20, -1, -11, -10, 1, -9));
+        assertFalse(frustum.intersectsAabb(10, -1, -11, 20, 1, -9));
+        assertFalse(frustum.intersectsAabb(-1, 10, -11, 1, 20, -9));
+        assertFalse(frustum.intersectsAabb(-1, -20, -11, 1, -10, -9));
+    }
+
+    @Test
+    void boxStraddlingAPlaneIsVisible() {
+        Frustum frustum = atOrigin();
+        // across the left plane
+        assertTrue(frustum.intersectsAabb(-20, -1, -11, -5, 1, -9));
+        // across the near plane, around the camera
+        assertTrue(frustum.intersectsAabb(-1, -1, -1, 1, 1, 1));
+        // across the far plane
+        assertTrue(frustum.intersectsAabb(-1, -1, -110, 1, 1, -90));
+        // larger than the whole frustum
+        assertTrue(frustum.intersectsAabb(-1000, -1000, -1000, 1000, 1000, 1000));
+    }
+
+    @Test
+    void boxPastTheFarPlaneIsCulled() {
+        Frustum frustum = atOrigin();
+        assertFalse(frustum.intersectsAabb(-1, -1, -120, 1, 1, -101));
+        assertFalse(frustum.intersectsAabb(-1, -1, -1000, 1, 1, -500));
+    }
+
+    @Test
+    void planesFollowTheView() {
+        // as Transformation builds it: turned 90 degrees to look down +x from 100, 64, 100
+        Frustum frustum = frustum(new Matrix4f().rotateY((float) Math.toRadians(90.0f)).translate(-100, -64, -100));
+        assertTrue(frustum.intersectsAabb(110, 60, 96, 126, 76, 112));
+        assertFalse(frustum.intersectsAabb(74, 60, 96, 90, 76, 112));
+        assertFalse(frustum.intersectsAabb(96, 60, 74, 112, 76, 90));
+        assertFalse(frustum.intersectsAabb(220, 60, 96, 236, 76, 112));
+    }
+}
@@ -0,0 +1,65 @@
+package com.minecraft.graphics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Every field must come back unchanged at the ends of its range, whatever the
+// other fields hold, so no field overflows into its neighbour.
+class PackedVertexTest {
+    private static final int[] HORIZONTAL = {0, 1, 15, 16};
+    private static final int[] HEIGHTS = {0, 1, 255, 256};
+    private static final int[] TEXTURE = {0, 16};
+    private static final int[] LAYERS = {0, 1, 254, 255};
+
+    @Test
+    void firstRoundTripsCornerValues() {
+        for (int x : HORIZONTAL) {
+            for (int y : HEIGHTS) {
+                for (int z : HORIZONTAL) {
+                    for (int u : TEXTURE) {
+                        for (int v : TEXTURE) {
+                            int first = PackedVertex.first(x, y, z, u, v);
+                            String what = "x " + x + " y " + y + " z " + z + " u " + u + " v " + v;
+                            assertEquals(x, PackedVertex.x(first), what);
+                            assertEquals(y, PackedVertex.y(first), what);
+                            assertEquals(z, PackedVertex.z(first), what);
+                            assertEquals(u, PackedVertex.u(first), what);
+                            assertEquals(v, PackedVertex.v(first), what);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void firstLeavesTheSignBitClear() {
+        // the shader reads the words as unsigned; 29 bits are used
+        int first = PackedVertex.first(16, 256, 16, 16, 16);
+        assertEquals(0, first >>> 29);
+    }
+
+    @Test
+    void secondRoundTripsEveryFaceAndScale() {
+        for (int layer : LAYERS) {
+            for (int face = 0; face < 6; face++) {
+                for (int scaleShift = 0; scaleShift <= 3; scaleShift++) {
+                    int second = PackedVertex.second(layer, face, scaleShift);
+                    String what = "layer " + layer + " face " + face + " scale shift " + scaleShift;
+                    assertEquals(layer, PackedVertex.layer(second), what);
+                    assertEquals(face, PackedVertex.face(second), what);
+                    assertEquals(scaleShift, PackedVertex.scaleShift(second), what);
+                }
+            }
+        }
+    }
+
+    @Test
+    void secondWithoutScaleIsBlockScale() {
+        for (int face = 0; face < 6; face++) {
+            assertEquals(PackedVertex.second(255, face, 0), PackedVertex.second(255, face));
+            assertEquals(0, PackedVertex.scaleShift(PackedVertex.second(255, face)));
+        }
+    }
+}
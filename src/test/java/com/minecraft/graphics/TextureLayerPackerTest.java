@@ -0,0 +1,99 @@
+package com.minecraft.graphics;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TextureLayerPackerTest {
+    // An image whose pixel (x, y) is RGBA (tag, x, y, 255)
+    private static ByteBuffer image(int width, int height, int tag) {
+        ByteBuffer rgba = ByteBuffer.allocate(width * height * 4);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                rgba.put((byte) tag).put((byte) x).put((byte) y).put((byte) 255);
+            }
+        }
+        return rgba.flip();
+    }
+
+    private static int pixel(ByteBuffer packed, TextureLayerPacker packer, int layer, int x, int y, int channel) {
+        int offset = packer.getLayerOffset(layer) + (y * packer.getLayerWidth() + x) * 4 + channel;
+        return packed.get(offset) & 0xff;
+    }
+
+    @Test
+    void layersAreAssignedInOrder() {
+        TextureLayerPacker packer = new TextureLayerPacker();
+        assertEquals(0, packer.addLayer("stone", 16, 16, image(16, 16, 1)));
+        assertEquals(1, packer.addLayer("dirt", 16, 16, image(16, 16, 2)));
+        assertEquals(2, packer.addLayer("grass_top", 8, 32, image(8, 32, 3)));
+
+        assertEquals(3, packer.getLayerCount());
+        assertEquals(1, packer.getLayer("dirt"));
+        assertEquals(-1, packer.getLayer("missing"));
+        // the layer size is the largest width and height seen
+        assertEquals(16, packer.getLayerWidth());
+        assertEquals(32, packer.getLayerHeight());
+        assertEquals(2 * 16 * 32 * 4, packer.getLayerOffset(2));
+
+        ByteBuffer packed = packer.pack();
+        assertEquals(3 * 16 * 32 * 4, packed.capacity());
+        for (int layer = 0; layer < 3; layer++) {
+            assertEquals(layer + 1, pixel(packed, packer, layer, 5, 20, 0));
+            assertEquals(255, pixel(packed, packer, layer, 15, 31, 3));
+        }
+    }
+
+    @Test
+    void duplicateOrShortImagesAreRejected() {
+        TextureLayerPacker packer = new TextureLayerPacker();
+        packer.addLayer("stone", 4, 4, image(4, 4, 1));
+        assertThrows(IllegalArgumentException.class, () -> packer.addLayer("stone", 4, 4, image(4, 4, 1)));
+        assertThrows(IllegalArgumentException.class, () -> packer.addLayer("dirt", 4, 5, image(4, 4, 2)));
+        assertThrows(IllegalArgumentException.class, () -> packer.addLayer("sand", 0, 4, image(4, 4, 3)));
+        assertEquals(1, packer.getLayerCount());
+    }
+
+    @Test
+    void smallerImagesAreScaledNearestNeighbour() {
+        TextureLayerPacker packer = new TextureLayerPacker();
+        packer.addLayer("large", 16, 16, image(16, 16, 1));
+        packer.addLayer("small", 4, 8, image(4, 8, 2));
+        ByteBuffer packed = packer.pack();
+
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                // the full-size layer is copied as is
+                assertEquals(x, pixel(packed, packer, 0, x, y, 1));
+                assertEquals(y, pixel(packed, packer, 0, x, y, 2));
+                // each source pixel becomes a 4x2 block, no blending
+                assertEquals(2, pixel(packed, packer, 1, x, y, 0));
+                assertEquals(x / 4, pixel(packed, packer, 1, x, y, 1));
+                assertEquals(y / 2, pixel(packed, packer, 1, x, y, 2));
+            }
+        }
+    }
+
+    @Test
+    void scaleNearestReadsFromThePosition() {
+        ByteBuffer src = ByteBuffer.allocate(8 + 2 * 2 * 4);
+        src.position(8);
+        src.slice().put(image(2, 2, 9));
+        ByteBuffer dst = ByteBuffer.allocate(4 + 3 * 3 * 4);
+        TextureLayerPacker.scaleNearest(src, 2, 2, dst, 4, 3, 3);
+        // 2 -> 3 maps destination 0, 1, 2 to source 0, 0, 1
+        int[] expected = {0, 0, 1};
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 3; x++) {
+                int d = 4 + (y * 3 + x) * 4;
+                assertEquals(9, dst.get(d));
+                assertEquals(expected[x], dst.get(d + 1));
+                assertEquals(expected[y], dst.get(d + 2));
+            }
+        }
+        assertEquals(8, src.position());
+    }
+}
@@ -0,0 +1,85 @@
+package com.minecraft.storage;
+
+import com.minecraft.core.Block;
+import com.minecraft.core.Chunk;
+import com.minecraft.core.ChunkSection;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkCodecTest {
+
+    private static Chunk roundTrip(Chunk chunk) {
+        ByteBuffer buffer = ByteBuffer.allocate(ChunkCodec.maxEncodedSize());
+        ChunkCodec.encode(chunk, buffer);
+        buffer.flip();
+        Chunk decoded = ChunkCodec.decode(buffer);
+        assertNotNull(decoded);
+        assertEquals(0, buffer.remaining(), "unread bytes");
+        return decoded;
+    }
+
+    private static void assertSameBlocks(Chunk expected, Chunk actual) {
+        for (int y = 0; y < Chunk.CHUNK_HEIGHT; y++) {
+            for (int z = 0; z < Chunk.CHUNK_DEPTH; z++) {
+                for (int x = 0; x < Chunk.CHUNK_WIDTH; x++) {
+                    assertEquals(expected.getBlockId(x, y, z), actual.getBlockId(x, y, z),
+                            "block " + x + ", " + y + ", " + z);
+                }
+            }
+        }
+    }
+
+    @Test
+    void edgeIdsRoundTrip() {
+        Chunk chunk = new Chunk();
+        chunk.setBlockId(0, 0, 0, 1);
+        chunk.setBlockId(15, 0, 15, Block.MAX_ID);
+        chunk.setBlockId(3, 127, 9, 128);
+        chunk.setBlockId(7, 200, 7, Block.MAX_ID - 1);
+        // the top of the world, so the stored top is CHUNK_HEIGHT
+        chunk.setBlockId(15, Chunk.CHUNK_HEIGHT - 1, 0, Block.MAX_ID);
+        Chunk decoded = roundTrip(chunk);
+        assertEquals(Chunk.CHUNK_HEIGHT - 1, decoded.getMaxY());
+        assertSameBlocks(chunk, decoded);
+    }
+
+    @Test
+    void everyIdInOneChunkRoundTrips() {
+        // a full palette: air plus all 255 block ids, indices 0 to 255
+        Chunk chunk = new Chunk();
+        for (int id = 1; id <= Block.MAX_ID; id++) {
+            chunk.setBlockId(id & 15, id >> 4, (id * 7) & 15, id);
+        }
+        assertSameBlocks(chunk, roundTrip(chunk));
+    }
+
+    @Test
+    void emptyChunkRoundTrips() {
+        Chunk decoded = roundTrip(new Chunk());
+        for (int i = 0; i < Chunk.SECTION_COUNT; i++) {
+            assertNull(decoded.getSection(i));
+        }
+    }
+
+    @Test
+    void idsOutsideTheSavedRangeAreRejected() {
+        Chunk chunk = new Chunk();
+        assertThrows(IllegalArgumentException.class, () -> chunk.setBlockId(0, 0, 0, Block.MAX_ID + 1));
+        assertThrows(IllegalArgumentException.class, () -> chunk.setBlockId(0, 0, 0, -1));
+        assertThrows(IllegalArgumentException.class, () -> chunk.setBlock(0, 0, 0, new Block(300)));
+        assertThrows(IllegalArgumentException.class, () -> Block.of(Block.MAX_ID + 1));
+        assertThrows(IllegalArgumentException.class, () -> new ChunkSection(Block.MAX_ID + 1));
+        ChunkSection section = new ChunkSection(Block.AIR);
+        assertThrows(IllegalArgumentException.class, () -> section.set(0, 0, 0, 300));
+        // nothing was written
+        assertNull(chunk.getSection(0));
+        assertEquals(Block.AIR, section.get(0, 0, 0));
+        assertSameBlocks(new Chunk(), roundTrip(chunk));
+    }
+}
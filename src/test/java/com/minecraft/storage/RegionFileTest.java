@@ -0,0 +1,137 @@
+package com.minecraft.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegionFileTest {
+    private static final int SECTOR_BYTES = 4096;
+
+    private Path directory;
+    private Path path;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("region");
+        path = directory.resolve("r.0.0.bin");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    private static byte[] payload(int chunk, int length) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) (chunk * 31 + length));
+        bytes[0] = (byte) chunk;
+        return bytes;
+    }
+
+    @Test
+    void mappingGrowsAheadOfTheData() throws IOException {
+        RegionFile region = new RegionFile(path);
+        try {
+            int remaps = 0;
+            int mapped = region.getMappedSectors();
+            for (int chunk = 0; chunk < RegionFile.REGION_SIZE * RegionFile.REGION_SIZE; chunk++) {
+                region.write(chunk % RegionFile.REGION_SIZE, chunk / RegionFile.REGION_SIZE,
+                        ByteBuffer.wrap(payload(chunk, 5000)));
+                assertTrue(region.getSectorCount() <= region.getMappedSectors());
+                if (region.getMappedSectors() != mapped) {
+                    mapped = region.getMappedSectors();
+                    remaps++;
+                }
+            }
+            // 1024 chunks of two sectors each, after the two header sectors
+            assertEquals(2 + 1024 * 2, region.getSectorCount());
+            assertTrue(remaps <= 16, "remapped " + remaps + " times");
+        } finally {
+            region.close();
+        }
+    }
+
+    @Test
+    void closeTrimsTheFileToTheData() throws IOException {
+        RegionFile region = new RegionFile(path);
+        try {
+            for (int chunk = 0; chunk < 10; chunk++) {
+                region.write(chunk, 0, ByteBuffer.wrap(payload(chunk, 100)));
+            }
+            assertTrue(region.getMappedSectors() > region.getSectorCount());
+        } finally {
+            region.close();
+        }
+        assertEquals((2 + 10) * SECTOR_BYTES, Files.size(path));
+    }
+
+    @Test
+    void dataSurvivesReopening() throws IOException {
+        RegionFile region = new RegionFile(path);
+        try {
+            for (int chunk = 0; chunk < 100; chunk++) {
+                region.write(chunk % 32, chunk / 32, ByteBuffer.wrap(payload(chunk, 100 + chunk * 97)));
+            }
+            // a rewrite larger than the old copy moves it
+            region.write(0, 0, ByteBuffer.wrap(payload(0, 20000)));
+        } finally {
+            region.close();
+        }
+
+        region = new RegionFile(path);
+        try {
+            assertArrayEquals(payload(0, 20000), region.read(0, 0));
+            for (int chunk = 1; chunk < 100; chunk++) {
+                assertArrayEquals(payload(chunk, 100 + chunk * 97), region.read(chunk % 32, chunk / 32));
+            }
+            assertNull(region.read(31, 31));
+            region.write(31, 31, ByteBuffer.wrap(payload(1023, 10)));
+        } finally {
+            region.close();
+        }
+
+        region = new RegionFile(path);
+        try {
+            assertArrayEquals(payload(1023, 10), region.read(31, 31));
+            assertArrayEquals(payload(99, 100 + 99 * 97), region.read(99 % 32, 99 / 32));
+        } finally {
+            region.close();
+        }
+    }
+
+    @Test
+    void freedSectorsAreReused() throws IOException {
+        RegionFile region = new RegionFile(path);
+        try {
+            region.write(0, 0, ByteBuffer.wrap(payload(0, 10000)));
+            region.write(1, 0, ByteBuffer.wrap(payload(1, 100)));
+            // shrinking chunk 0 moves it to the end and frees its three sectors
+            region.write(0, 0, ByteBuffer.wrap(payload(0, 100)));
+            int end = region.getSectorCount();
+            region.write(2, 0, ByteBuffer.wrap(payload(2, 100)));
+            assertEquals(end, region.getSectorCount());
+            assertArrayEquals(payload(0, 100), region.read(0, 0));
+            assertArrayEquals(payload(1, 100), region.read(1, 0));
+            assertArrayEquals(payload(2, 100), region.read(2, 0));
+        } finally {
+            region.close();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.minecraft.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WorldSeedTest {
+    private Path world;
+
+    @BeforeEach
+    void createWorld() throws IOException {
+        world = Files.createTempDirectory("world");
+    }
+
+    @AfterEach
+    void deleteWorld() throws IOException {
+        try (Stream<Path> paths = Files.walk(world)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void configuredSeedIsUsedAndNotRemembered() throws IOException {
+        assertEquals(42, WorldSeed.resolve(world, 42));
+        assertFalse(Files.exists(world.resolve(WorldSeed.LEVEL_FILE)));
+    }
+
+    @Test
+    void randomSeedIsRememberedForTheNextLaunch() throws IOException {
+        long seed = WorldSeed.resolve(world, 0);
+        assertNotEquals(0, seed);
+        assertEquals(seed, WorldSeed.resolve(world, 0));
+        assertEquals(seed, Long.parseLong(Files.readString(world.resolve(WorldSeed.LEVEL_FILE)).trim()));
+        // a configured seed still wins over the remembered one
+        assertEquals(7, WorldSeed.resolve(world, 7));
+    }
+
+    @Test
+    void missingWorldDirectoryIsCreated() throws IOException {
+        Path nested = world.resolve("saves");
+        long seed = WorldSeed.resolve(nested, 0);
+        assertEquals(seed, WorldSeed.resolve(nested, 0));
+    }
+
+    @Test
+    void unreadableLevelFileIsAnError() throws IOException {
+        Files.writeString(world.resolve(WorldSeed.LEVEL_FILE), "not a seed");
+        assertThrows(IOException.class, () -> WorldSeed.resolve(world, 0));
+    }
+}
@@ -0,0 +1,143 @@
+package com.minecraft.Generation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Heightmap rows computed several columns at a time with the incubating Vector
+// API. Every lane performs the scalar code's operations in the same order
+// (no fused multiply-add, floor via truncate-and-correct, gradient selection
+// with blends rather than arithmetic), so the results are bit-identical to
+// HeightmapGenerator. Only the permutation-table lookups stay scalar.
+// Kept in its own source set so only this class is compiled with the incubating
+// module. Loaded reflectively by HeightmapGenerator.create; needs --add-modules jdk.incubator.vector.
+class VectorHeightmapGenerator extends HeightmapGenerator {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = VectorSpecies.of(long.class, DOUBLES.vectorShape());
+    private static final int LANES = DOUBLES.length();
+    private static final DoubleVector LANE_INDEX = DoubleVector.zero(DOUBLES).addIndex(1);
+    private static final DoubleVector ZERO = DoubleVector.zero(DOUBLES);
+
+    private static class Scratch {
+        final long[] xi = new long[LANES];
+        final long[] aa = new long[LANES];
+        final long[] ab = new long[LANES];
+        final long[] ba = new long[LANES];
+        final long[] bb = new long[LANES];
+    }
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public VectorHeightmapGenerator(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public String getImplementationName() {
+        return "vector (" + LANES + " x double)";
+    }
+
+    @Override
+    protected void octaveNoiseRow(int startX, int worldZ, int width, double frequency, int octaves, double persistence, double[] out) {
+        int vectorEnd = DOUBLES.loopBound(width);
+        if (vectorEnd == 0) {
+            super.octaveNoiseRow(startX, worldZ, width, frequency, octaves, persistence, out);
+            return;
+        }
+        Scratch s = scratch.get();
+        for (int x = 0; x < width; x++) {
+            out[x] = 0;
+        }
+        double amplitude = 1;
+        double freq = frequency;
+        double maxValue = 0;
+        for (int i = 0; i < octaves; i++) {
+            double z = worldZ * freq;
+            double zFloor = Math.floor(z);
+            int zi = (int) zFloor & 255;
+            double zf = z - zFloor;
+            double v = fade(zf);
+            DoubleVector zfVec = DoubleVector.broadcast(DOUBLES, zf);
+            DoubleVector zfMinusOne = DoubleVector.broadcast(DOUBLES, zf - 1);
+
+            for (int x = 0; x < vectorEnd; x += LANES) {
+                DoubleVector xs = DoubleVector.broadcast(DOUBLES, startX + x).add(LANE_INDEX).mul(freq);
+                LongVector xFloorBits = (LongVector) xs.convert(VectorOperators.D2L, 0);
+                DoubleVector xFloor = (DoubleVector) xFloorBits.convert(VectorOperators.L2D, 0);
+                // truncation rounds negative values up; step those back down to the floor
+                VectorMask<Double> roundedUp = xFloor.compare(VectorOperators.GT, xs);
+                xFloor = xFloor.sub(1.0, roundedUp);
+                xFloorBits = xFloorBits.sub(1L, roundedUp.cast(LONGS));
+                DoubleVector xf = xs.sub(xFloor);
+                DoubleVector u = fade(xf);
+                DoubleVector xfMinusOne = xf.sub(1.0);
+
+                // Corner hashes: at terrain frequencies the lanes usually share one
+                // lattice cell, so look them up once per distinct xi
+                LongVector xis = xFloorBits.and(255L);
+                LongVector aa, ab, ba, bb;
+                long firstXi = xis.lane(0);
+                if (xis.compare(VectorOperators.EQ, firstXi).allTrue()) {
+                    int xi = (int) firstXi;
+                    aa = LongVector.broadcast(LONGS, p[p[xi] + zi]);
+                    ab = LongVector.broadcast(LONGS, p[p[xi] + zi + 1]);
+                    ba = LongVector.broadcast(LONGS, p[p[xi + 1] + zi]);
+                    bb = LongVector.broadcast(LONGS, p[p[xi + 1] + zi + 1]);
+                } else {
+                    xis.intoArray(s.xi, 0);
+                    for (int lane = 0; lane < LANES; lane++) {
+                        int xi = (int) s.xi[lane];
+                        s.aa[lane] = p[p[xi] + zi];
+                        s.ab[lane] = p[p[xi] + zi + 1];
+                        s.ba[lane] = p[p[xi + 1] + zi];
+                        s.bb[lane] = p[p[xi + 1] + zi + 1];
+                    }
+                    aa = LongVector.fromArray(LONGS, s.aa, 0);
+                    ab = LongVector.fromArray(LONGS, s.ab, 0);
+                    ba = LongVector.fromArray(LONGS, s.ba, 0);
+                    bb = LongVector.fromArray(LONGS, s.bb, 0);
+                }
+
+                DoubleVector x1 = lerp(grad(aa, xf, zfVec), grad(ba, xfMinusOne, zfVec), u);
+                DoubleVector x2 = lerp(grad(ab, xf, zfMinusOne), grad(bb, xfMinusOne, zfMinusOne), u);
+                DoubleVector noise = x1.add(DoubleVector.broadcast(DOUBLES, v).mul(x2.sub(x1)));
+
+                DoubleVector.fromArray(DOUBLES, out, x).add(noise.mul(amplitude)).intoArray(out, x);
+            }
+            for (int x = vectorEnd; x < width; x++) {
+                out[x] += perlinNoise((double) (startX + x) * freq, worldZ * freq) * amplitude;
+            }
+
+            maxValue += amplitude;
+            amplitude *= persistence;
+            freq *= 2;
+        }
+        for (int x = 0; x < width; x++) {
+            out[x] /= maxValue;
+        }
+    }
+
+    private static DoubleVector fade(DoubleVector t) {
+        return t.mul(t).mul(t).mul(t.mul(t.mul(6.0).sub(15.0)).add(10.0));
+    }
+
+    private static DoubleVector lerp(DoubleVector a, DoubleVector b, DoubleVector t) {
+        return a.add(t.mul(b.sub(a)));
+    }
+
+    private static DoubleVector grad(LongVector hash, DoubleVector x, DoubleVector z) {
+        LongVector h = hash.and(15L);
+        VectorMask<Double> lowerEight = h.compare(VectorOperators.LT, 8L).cast(DOUBLES);
+        VectorMask<Double> lowerFour = h.compare(VectorOperators.LT, 4L).cast(DOUBLES);
+        VectorMask<Double> twelveOrFourteen = h.compare(VectorOperators.EQ, 12L)
+                .or(h.compare(VectorOperators.EQ, 14L)).cast(DOUBLES);
+        VectorMask<Double> negateU = h.and(1L).compare(VectorOperators.NE, 0L).cast(DOUBLES);
+        VectorMask<Double> negateV = h.and(2L).compare(VectorOperators.NE, 0L).cast(DOUBLES);
+
+        DoubleVector u = z.blend(x, lowerEight);
+        DoubleVector v = ZERO.blend(x, twelveOrFourteen).blend(z, lowerFour);
+        return u.lanewise(VectorOperators.NEG, negateU).add(v.lanewise(VectorOperators.NEG, negateV));
+    }
+}